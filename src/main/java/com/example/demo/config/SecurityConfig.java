@@ -1,34 +1,72 @@
 package com.example.demo.config;
 
+import com.example.demo.model.Role;
+import com.example.demo.security.BoundedPasswordEncoder;
+import com.example.demo.security.CompiledPreAuthorizeManager;
+import com.example.demo.security.EndpointRules;
+import com.example.demo.security.PermissionAuthorizationManager;
+import com.example.demo.security.PermissionRegistry;
 import com.example.demo.security.JwtRequestFilter;
+import com.example.demo.security.PasswordHashCalibration;
+import com.example.demo.security.RehashingAuthenticationProvider;
+import com.example.demo.security.RequiresPermission;
+import com.example.demo.security.RoleClosure;
+import com.example.demo.security.RoleHierarchyRegistry;
+import com.example.demo.security.RouteAuthorizationManager;
+import com.example.demo.security.RouteAuthorizationTable;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PasswordUpgradeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerAfterMethodInterceptor;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PostAuthorizeAuthorizationManager;
+import org.springframework.security.authorization.method.PostFilterAuthorizationMethodInterceptor;
+import org.springframework.security.authorization.method.PreFilterAuthorizationMethodInterceptor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.function.Supplier;
 
 @Configuration
 @EnableWebSecurity
+// Pre/post annotations are registered below so @PreAuthorize can use the compiled role checks
 @EnableMethodSecurity(
-    prePostEnabled = true,
+    prePostEnabled = false,
     securedEnabled = true,
     jsr250Enabled = true
 )
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     private final JwtRequestFilter jwtRequestFilter;
 
     public SecurityConfig(JwtRequestFilter jwtRequestFilter) {
@@ -36,25 +74,14 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RouteAuthorizationTable routes,
+                                                   RoleHierarchyRegistry roleHierarchy) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers(
-                    "/api/auth/**",
-                    "/swagger-ui.html",
-                    "/swagger-ui/**",
-                    "/v3/api-docs/**",
-                    "/v3/api-docs.yaml",
-                    "/h2-console/**",
-                    "/swagger-resources/**",
-                    "/webjars/**"
-                ).permitAll()
-                .requestMatchers("/api/admin/**").hasRole("ADMIN")
-                .requestMatchers("/api/mod/**").hasAnyRole("ADMIN", "MODERATOR")
-                .anyRequest().hasAnyRole("USER", "ADMIN", "MODERATOR")
+                .anyRequest().access(new RouteAuthorizationManager(routes, roleHierarchy::current))
             )
             .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
             .exceptionHandling(ex -> ex
@@ -73,6 +100,88 @@ public class SecurityConfig {
         return http.build();
     }
 
+    @Bean
+    public RouteAuthorizationTable routeAuthorizationTable() {
+        return RouteAuthorizationTable.builder()
+            .permitAll(
+                "/api/auth/**",
+                "/api/authz/**",
+                "/swagger-ui.html",
+                "/swagger-ui/**",
+                "/v3/api-docs/**",
+                "/v3/api-docs.yaml",
+                "/h2-console/**",
+                "/swagger-resources/**",
+                "/webjars/**",
+                "/actuator/health",
+                "/.well-known/jwks.json"
+            )
+            // Higher roles reach these through the role hierarchy
+            .anyRole("/api/admin/**", Role.ROLE_ADMIN)
+            .anyRole("/api/mod/**", Role.ROLE_MODERATOR)
+            // Metrics and diagnostics; /actuator/health stays public as the more specific rule
+            .anyRole("/actuator/**", Role.ROLE_ADMIN)
+            .otherwise(RouteAuthorizationTable.AccessRule.anyRole(Role.ROLE_USER))
+            .build();
+    }
+
+    @Bean
+    public EndpointRules endpointRules(
+            @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping) {
+        return new EndpointRules(handlerMapping.getHandlerMethods());
+    }
+
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeMethodInterceptor(ObjectProvider<RoleHierarchyRegistry> roleHierarchy) {
+        return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(
+                new CompiledPreAuthorizeManager(currentRoleHierarchy(roleHierarchy)));
+    }
+
+    // Runs right after @PreAuthorize, so role checks still come first
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresPermissionMethodInterceptor(ObjectProvider<PermissionRegistry> permissionRegistry,
+                                                       ObjectProvider<RoleHierarchyRegistry> roleHierarchy) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(RequiresPermission.class, true))
+                .union(new AnnotationMatchingPointcut(null, RequiresPermission.class, true));
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                pointcut, new PermissionAuthorizationManager(SingletonSupplier.of(permissionRegistry::getObject),
+                        currentRoleHierarchy(roleHierarchy)));
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder() + 1);
+        return interceptor;
+    }
+
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postAuthorizeMethodInterceptor(ObjectProvider<RoleHierarchyRegistry> roleHierarchy) {
+        PostAuthorizeAuthorizationManager manager = new PostAuthorizeAuthorizationManager();
+        manager.setExpressionHandler(CompiledPreAuthorizeManager.expressionHandler(currentRoleHierarchy(roleHierarchy)));
+        return AuthorizationManagerAfterMethodInterceptor.postAuthorize(manager);
+    }
+
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preFilterMethodInterceptor(ObjectProvider<RoleHierarchyRegistry> roleHierarchy) {
+        PreFilterAuthorizationMethodInterceptor interceptor = new PreFilterAuthorizationMethodInterceptor();
+        interceptor.setExpressionHandler(CompiledPreAuthorizeManager.expressionHandler(currentRoleHierarchy(roleHierarchy)));
+        return interceptor;
+    }
+
+    @Bean
+    @org.springframework.context.annotation.Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postFilterMethodInterceptor(ObjectProvider<RoleHierarchyRegistry> roleHierarchy) {
+        PostFilterAuthorizationMethodInterceptor interceptor = new PostFilterAuthorizationMethodInterceptor();
+        interceptor.setExpressionHandler(CompiledPreAuthorizeManager.expressionHandler(currentRoleHierarchy(roleHierarchy)));
+        return interceptor;
+    }
+
+    // Method security is set up before regular beans, so the registry is resolved on first use
+    private static Supplier<RoleClosure> currentRoleHierarchy(ObjectProvider<RoleHierarchyRegistry> roleHierarchy) {
+        Supplier<RoleHierarchyRegistry> registry = SingletonSupplier.of(roleHierarchy::getObject);
+        return () -> registry.get().current();
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -93,7 +202,42 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordHashCalibration passwordHashCalibration(
+            @Value("${auth.password-hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${auth.password-hashing.calibrate:true}") boolean calibrate,
+            @Value("${auth.password-hashing.target-time:PT0.25S}") Duration targetTime) {
+        PasswordHashCalibration calibration = PasswordHashCalibration.calibrate(algorithm, calibrate ? targetTime : null);
+        if (calibration.estimatedHashTime() == null) {
+            log.info("Password hashing: {} {} (floor, not calibrated)", calibration.algorithm(), calibration.parameters());
+        } else {
+            log.info("Password hashing: {} {}, about {} ms per hash (target {} ms)", calibration.algorithm(),
+                    calibration.parameters(), calibration.estimatedHashTime().toMillis(), targetTime.toMillis());
+        }
+        return calibration;
     }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashCalibration calibration,
+                                           @Value("${auth.password-hashing.enabled:true}") boolean bounded,
+                                           @Value("${auth.password-hashing.threads:0}") int threads,
+                                           @Value("${auth.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${auth.password-hashing.retry-after:PT1S}") Duration retryAfter,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!bounded) {
+            return calibration.encoder();
+        }
+        // Hashing is CPU-bound, so more hashing threads than cores only adds contention
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(calibration.encoder(), poolSize, queueCapacity, retryAfter,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    // Registering a provider replaces the one Spring Boot would build from the
+    // UserDetailsService and PasswordEncoder beans
+    @Bean
+    public RehashingAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                                  PasswordEncoder passwordEncoder,
+                                                                  PasswordUpgradeService passwordUpgradeService) {
+        return new RehashingAuthenticationProvider(userDetailsService, passwordEncoder, passwordUpgradeService);
     }
+}
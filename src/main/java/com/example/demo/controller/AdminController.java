@@ -1,23 +1,219 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.PermissionRequest;
+import com.example.demo.dto.RevokeTokenRequest;
+import com.example.demo.dto.RoleHierarchyRequest;
+import com.example.demo.dto.RolePermissionsRequest;
+import com.example.demo.dto.UserListRequest;
+import com.example.demo.dto.UserPage;
+import com.example.demo.exception.InvalidImportException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.RequiresPermission;
+import com.example.demo.security.RoleAuthorities;
+import com.example.demo.security.TokenRevocationList;
+import com.example.demo.service.PermissionService;
+import com.example.demo.service.RoleHierarchyService;
+import com.example.demo.service.UserImportReader;
+import com.example.demo.service.UserImportService;
+import com.example.demo.service.UserListingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin")
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
+    private final TokenRevocationList revocationList;
+    private final JwtUtil jwtUtil;
+    private final PermissionService permissionService;
+    private final RoleHierarchyService roleHierarchyService;
+    private final UserImportService userImportService;
+    private final UserListingService userListingService;
+    private final ObjectMapper objectMapper;
+
+    public AdminController(TokenRevocationList revocationList, JwtUtil jwtUtil, PermissionService permissionService,
+                           RoleHierarchyService roleHierarchyService, UserImportService userImportService,
+                           UserListingService userListingService, ObjectMapper objectMapper) {
+        this.revocationList = revocationList;
+        this.jwtUtil = jwtUtil;
+        this.permissionService = permissionService;
+        this.roleHierarchyService = roleHierarchyService;
+        this.userImportService = userImportService;
+        this.userListingService = userListingService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * One page of users in id order. Pass the page's {@code nextAfterId} as
+     * {@code afterId} to get the next one.
+     */
     @GetMapping("/users")
-    public ResponseEntity<String> getAllUsers() {
-        // This endpoint is only accessible to admins
-        return ResponseEntity.ok("Access to admin panel granted");
+    public UserPage getAllUsers(@Valid UserListRequest request) {
+        return userListingService.page(request);
+    }
+
+    /**
+     * Every user matching the filters as NDJSON, one user per line, written as
+     * the rows are read; {@code limit} does not apply.
+     */
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(@Valid UserListRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        PrintWriter out = response.getWriter();
+        userListingService.export(request, user -> writeLine(out, user));
+        out.flush();
+    }
+
+    /**
+     * Streams an NDJSON or CSV upload into the user table. The response is NDJSON as
+     * well, written while the import runs: a {@code rejected} line per failed record,
+     * a {@code progress} line per chunk and a final {@code summary}.
+     */
+    @PostMapping("/users/import")
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Read the CSV header before anything is written, so a bad upload still gets a plain 400
+        UserImportReader reader = readerFor(request);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        PrintWriter out = response.getWriter();
+
+        UserImportService.Summary summary = userImportService.importUsers(reader, new UserImportService.Listener() {
+            @Override
+            public void rejected(long line, String username, String reason) {
+                Map<String, Object> event = new LinkedHashMap<>();
+                event.put("type", "rejected");
+                event.put("line", line);
+                event.put("username", username);
+                event.put("reason", reason);
+                writeLine(out, event);
+            }
+
+            @Override
+            public void progress(UserImportService.Summary summary) {
+                writeLine(out, summaryEvent("progress", summary));
+                out.flush();
+            }
+        });
+        writeLine(out, summaryEvent("summary", summary));
+        out.flush();
     }
 
     @PostMapping("/system/config")
+    @RequiresPermission("config:write")
     public ResponseEntity<String> updateSystemConfig() {
         // This endpoint is only accessible to admins
         return ResponseEntity.ok("System configuration updated");
     }
-}
\ No newline at end of file
+
+    @PostMapping("/tokens/revoke")
+    public ResponseEntity<?> revokeToken(@Valid @RequestBody RevokeTokenRequest request) {
+        // Without the token's exp, keep the revocation as long as any token issued now could live
+        Instant expiresAt = request.getExpiresAt() != null
+                ? request.getExpiresAt()
+                : Instant.now().plus(jwtUtil.getAccessTokenTtl());
+        boolean revoked = revocationList.revoke(request.getTokenId(), null, expiresAt);
+        return ResponseEntity.ok(Map.of("tokenId", request.getTokenId(), "revoked", revoked));
+    }
+
+    @GetMapping("/permissions")
+    public List<Permission> getPermissions() {
+        return permissionService.findAll();
+    }
+
+    @PostMapping("/permissions")
+    public ResponseEntity<Permission> createPermission(@Valid @RequestBody PermissionRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(permissionService.create(request.getName(), request.getDescription()));
+    }
+
+    @DeleteMapping("/permissions/{name}")
+    public ResponseEntity<Void> deletePermission(@PathVariable String name) {
+        permissionService.delete(name);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/roles/{role}/permissions")
+    public List<Permission> setRolePermissions(@PathVariable String role,
+                                               @Valid @RequestBody RolePermissionsRequest request) {
+        return permissionService.setRolePermissions(parseRole(role), request.getPermissions());
+    }
+
+    @GetMapping("/roles/hierarchy")
+    public Map<String, List<String>> getRoleHierarchy() {
+        return Map.of("hierarchy", roleHierarchyService.current().chains());
+    }
+
+    @PutMapping("/roles/hierarchy")
+    public Map<String, List<String>> setRoleHierarchy(@Valid @RequestBody RoleHierarchyRequest request) {
+        return Map.of("hierarchy", roleHierarchyService.replace(request.getHierarchy()).chains());
+    }
+
+    private UserImportReader readerFor(HttpServletRequest request) throws IOException {
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(String.valueOf(request.getContentType()));
+        } catch (InvalidMediaTypeException e) {
+            type = MediaType.ALL;
+        }
+        Charset charset = type.getCharset() != null ? type.getCharset() : StandardCharsets.UTF_8;
+        InputStreamReader body = new InputStreamReader(request.getInputStream(), charset);
+        if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(type)) {
+            return UserImportReader.ndjson(body, objectMapper);
+        }
+        if (new MediaType("text", "csv").equalsTypeAndSubtype(type)) {
+            return UserImportReader.csv(body);
+        }
+        throw new InvalidImportException("Content-Type must be application/x-ndjson or text/csv");
+    }
+
+    private static Map<String, Object> summaryEvent(String type, UserImportService.Summary summary) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("processed", summary.processed());
+        event.put("imported", summary.imported());
+        event.put("rejected", summary.rejected());
+        return event;
+    }
+
+    private void writeLine(PrintWriter out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsString(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Accepts MODERATOR as well as ROLE_MODERATOR
+    private static Role parseRole(String name) {
+        Role role = RoleAuthorities.roleOf(name.startsWith("ROLE_") ? name : "ROLE_" + name);
+        if (role == null) {
+            throw new ResourceNotFoundException("Role not found: " + name);
+        }
+        return role;
+    }
+}
@@ -1,11 +1,21 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BatchValidationRequest;
 import com.example.demo.dto.JwtResponse;
 import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.LogoutRequest;
+import com.example.demo.dto.RefreshTokenRequest;
 import com.example.demo.dto.SignupRequest;
 import com.example.demo.model.User;
 import com.example.demo.security.JwtUtil;
+import com.example.demo.security.TokenRevocationList;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import com.example.demo.exception.InvalidTokenException;
 import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.LoginRateLimiter;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.TokenValidationService;
 import com.example.demo.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +23,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,15 +44,30 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenValidationService tokenValidationService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
+    private final LoginRateLimiter loginRateLimiter;
 
     public AuthController(UserService userService, 
                         AuthenticationManager authenticationManager,
                         CustomUserDetailsService userDetailsService,
-                        JwtUtil jwtUtil) {
+                        JwtUtil jwtUtil,
+                        VerifiedTokenCache tokenCache,
+                        TokenValidationService tokenValidationService,
+                        RefreshTokenService refreshTokenService,
+                        TokenRevocationList revocationList,
+                        LoginRateLimiter loginRateLimiter) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.tokenValidationService = tokenValidationService;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @Operation(
@@ -48,7 +76,8 @@ public class AuthController {
         responses = {
             @ApiResponse(responseCode = "200", description = "User registered successfully",
                     content = @Content(schema = @Schema(implementation = User.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input")
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "409", description = "Username or email already in use, ignoring case")
         }
     )
     @PostMapping("/signup")
@@ -62,23 +91,105 @@ public class AuthController {
 
     @Operation(
         summary = "Authenticate user",
-        description = "Login with username and password to receive JWT token",
+        description = "Login with username and password to receive a short-lived JWT and a refresh token",
         responses = {
             @ApiResponse(responseCode = "200", description = "Authentication successful",
                     content = @Content(schema = @Schema(implementation = JwtResponse.class))),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+            @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts for the username or client address")
         }
     )
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
-        authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // Refused attempts never reach the password hash
+        loginRateLimiter.checkAllowed(loginRequest.getUsername(), request.getRemoteAddr());
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
+            );
+        } catch (BadCredentialsException e) {
+            loginRateLimiter.recordFailure(loginRequest.getUsername());
+            throw e;
+        }
+        loginRateLimiter.recordSuccess(loginRequest.getUsername());
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getUsername());
+        // The provider already loaded the user to check the password; loading it again would repeat the query
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String jwt = jwtUtil.generateToken(userDetails);
+        String refreshToken = refreshTokenService.issue(userDetails.getUsername());
+
+        return ResponseEntity.ok(new JwtResponse(jwt, userDetails.getUsername(), refreshToken,
+                jwtUtil.getAccessTokenTtl().toSeconds()));
+    }
+
+    @Operation(
+        summary = "Refresh the access token",
+        description = "Exchange a refresh token for a new JWT and a new refresh token; the presented refresh "
+                + "token becomes invalid, and presenting it again revokes every token issued from the same login",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "New token pair",
+                    content = @Content(schema = @Schema(implementation = JwtResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Unknown, expired, revoked or reused refresh token")
+        }
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        // No password check: the refresh token is the credential, and the user comes from the user cache
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        UserDetails userDetails = userDetailsService.loadUserByUsername(rotation.username());
+        if (!userDetails.isEnabled()) {
+            refreshTokenService.revokeAll(rotation.username());
+            throw new InvalidTokenException("User is disabled");
+        }
         String jwt = jwtUtil.generateToken(userDetails);
 
-        return ResponseEntity.ok(new JwtResponse(jwt, userDetails.getUsername()));
+        return ResponseEntity.ok(new JwtResponse(jwt, userDetails.getUsername(), rotation.refreshToken(),
+                jwtUtil.getAccessTokenTtl().toSeconds()));
+    }
+
+    @Operation(
+        summary = "Log out",
+        description = "Revoke the presented JWT on every node until it expires, and the refresh token "
+                + "family if a refresh token is given",
+        security = { @SecurityRequirement(name = "bearerAuth") },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Logged out"),
+            @ApiResponse(responseCode = "401", description = "Missing, invalid or already revoked token")
+        }
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) LogoutRequest logoutRequest) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new InvalidTokenException("Missing bearer token");
+        }
+        VerifiedToken token = tokenCache.verify(authorization.substring(7));
+        revocationList.revoke(token);
+        if (logoutRequest != null && logoutRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(logoutRequest.getRefreshToken());
+        }
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
+
+    @Operation(
+        summary = "Log out everywhere",
+        description = "End every session of the token's user: all access tokens issued so far are refused "
+                + "on every node and all refresh tokens are revoked",
+        security = { @SecurityRequirement(name = "bearerAuth") },
+        responses = {
+            @ApiResponse(responseCode = "200", description = "All sessions ended"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token")
+        }
+    )
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new InvalidTokenException("Missing bearer token");
+        }
+        VerifiedToken token = tokenCache.verify(authorization.substring(7));
+        userService.logoutEverywhere(token.subject());
+        return ResponseEntity.ok(Map.of("message", "Logged out of all sessions"));
     }
 
     @Operation(
@@ -94,13 +205,12 @@ public class AuthController {
     public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String token) {
         try {
             if (token != null && token.startsWith("Bearer ")) {
-                token = token.substring(7);
-                String username = jwtUtil.extractUsername(token);
-                if (username != null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    if (jwtUtil.validateToken(token, userDetails)) {
-                        return ResponseEntity.ok(Map.of("valid", true));
-                    }
+                VerifiedToken verifiedToken = tokenCache.verify(token.substring(7));
+                UserDetails userDetails = jwtUtil.isStateless() && verifiedToken.hasAuthorities()
+                        ? verifiedToken.toPrincipal()
+                        : userDetailsService.loadUserByUsername(verifiedToken.subject());
+                if (userDetails.isEnabled()) {
+                    return ResponseEntity.ok(Map.of("valid", true));
                 }
             }
             return ResponseEntity.ok(Map.of("valid", false));
@@ -108,4 +218,17 @@ public class AuthController {
             return ResponseEntity.ok(Map.of("valid", false));
         }
     }
-}
\ No newline at end of file
+
+    @Operation(
+        summary = "Validate JWT tokens in bulk",
+        description = "Validate up to 1000 tokens in one call; results are returned in request order",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Per-token validation results"),
+            @ApiResponse(responseCode = "400", description = "Missing or too many tokens")
+        }
+    )
+    @PostMapping("/validate/batch")
+    public ResponseEntity<?> validateTokens(@Valid @RequestBody BatchValidationRequest request) {
+        return ResponseEntity.ok(Map.of("results", tokenValidationService.validateAll(request.getTokens())));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.BatchDecisionRequest;
+import com.example.demo.dto.DecisionRequest;
+import com.example.demo.dto.DecisionResult;
+import com.example.demo.service.PolicyDecisionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/authz")
+@Tag(name = "Authorization", description = "Policy decisions for other services")
+public class AuthorizationController {
+
+    private final PolicyDecisionService policyDecisionService;
+
+    public AuthorizationController(PolicyDecisionService policyDecisionService) {
+        this.policyDecisionService = policyDecisionService;
+    }
+
+    @Operation(
+        summary = "Decide an access request",
+        description = "Whether the token's subject may perform the action on the resource. The resource is a path "
+                + "of this service (action = HTTP method) or a permission resource (permission = resource:action)",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "PERMIT or DENY, with obligations on a permit"),
+            @ApiResponse(responseCode = "400", description = "Missing token, action or resource")
+        }
+    )
+    @PostMapping("/decide")
+    public DecisionResult decide(@Valid @RequestBody DecisionRequest request) {
+        return policyDecisionService.decide(request);
+    }
+
+    @Operation(
+        summary = "Decide access requests in bulk",
+        description = "Up to 1000 decisions per call; results are returned in request order",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Per-request decisions"),
+            @ApiResponse(responseCode = "400", description = "Missing or too many requests")
+        }
+    )
+    @PostMapping("/decide/batch")
+    public ResponseEntity<?> decideAll(@Valid @RequestBody BatchDecisionRequest request) {
+        return ResponseEntity.ok(Map.of("results", policyDecisionService.decideAll(request.getRequests())));
+    }
+}
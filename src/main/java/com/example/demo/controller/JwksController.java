@@ -0,0 +1,47 @@
+package com.example.demo.controller;
+
+import com.example.demo.security.JwksDocument;
+import com.example.demo.security.JwtUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@Tag(name = "Keys", description = "Public keys for verifying issued tokens")
+public class JwksController {
+
+    private final JwtUtil jwtUtil;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtUtil jwtUtil,
+                          @Value("${jwt.jwks.max-age:PT15M}") Duration maxAge) {
+        this.jwtUtil = jwtUtil;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    @Operation(
+        summary = "JSON Web Key Set",
+        description = "Public keys by kid; empty when tokens are signed with a shared HMAC secret",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Current key set"),
+            @ApiResponse(responseCode = "304", description = "Key set matches If-None-Match")
+        }
+    )
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        // ResponseEntity with an ETag answers a matching If-None-Match with 304 and no body
+        JwksDocument jwks = jwtUtil.getJwks();
+        return ResponseEntity.ok()
+                .eTag(jwks.etag())
+                .cacheControl(cacheControl)
+                .body(jwks.json());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events while requests run on virtual
+ * threads. A virtual thread that blocks inside a {@code synchronized} block or a
+ * native frame stays mounted and holds its carrier thread; each distinct blocking
+ * site is logged once with its stack, timed under {@code jvm.threads.virtual.pinned}
+ * and listed at {@code /actuator/pinning}.
+ */
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "auth.diagnostics.pinning.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.example.demo.";
+
+    private final Duration threshold;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, PinningSite> sites = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${auth.diagnostics.pinning.threshold:PT0.02S}") Duration threshold,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        this.stream = recording;
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * Pinning sites seen since startup, the ones that held carriers longest first.
+     */
+    @ReadOperation
+    public List<PinningReport> report() {
+        return sites.values().stream()
+                .map(PinningSite::toReport)
+                .sorted(Comparator.comparingLong(PinningReport::totalMillis).reversed())
+                .toList();
+    }
+
+    void record(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String site = describe(stackTrace);
+        PinningSite pinningSite = sites.computeIfAbsent(site, key -> {
+            log.warn("Virtual thread pinned its carrier for {} ms at {}{}",
+                    event.getDuration().toMillis(), key, formatStack(stackTrace));
+            return new PinningSite(key, meterRegistry.getIfAvailable());
+        });
+        pinningSite.record(event.getDuration());
+    }
+
+    /**
+     * The first non-JDK frame is where the thread blocked; the first application
+     * frame shows which of our calls led there.
+     */
+    static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(no stack trace)";
+        }
+        String blockedAt = null;
+        String calledFrom = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String className = frame.getMethod().getType().getName();
+            if (blockedAt == null && !isJdkClass(className)) {
+                blockedAt = format(frame);
+            }
+            if (className.startsWith(APPLICATION_PACKAGE)) {
+                calledFrom = format(frame);
+                break;
+            }
+        }
+        if (blockedAt == null) {
+            blockedAt = format(stackTrace.getFrames().get(0));
+        }
+        return calledFrom == null || calledFrom.equals(blockedAt) ? blockedAt : blockedAt + " <- " + calledFrom;
+    }
+
+    private static boolean isJdkClass(String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.");
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder stack = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            stack.append(System.lineSeparator()).append("\tat ").append(format(frame));
+        }
+        return stack.toString();
+    }
+
+    public record PinningReport(String site, long count, long totalMillis, long maxMillis) {
+    }
+
+    private static final class PinningSite {
+
+        private final String site;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final Timer timer;
+
+        PinningSite(String site, MeterRegistry registry) {
+            this.site = site;
+            this.timer = registry == null ? null : Timer.builder("jvm.threads.virtual.pinned")
+                    .description("Time virtual threads stayed pinned to their carrier")
+                    .tag("site", site)
+                    .register(registry);
+        }
+
+        void record(Duration duration) {
+            long nanos = duration.toNanos();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (timer != null) {
+                timer.record(duration);
+            }
+        }
+
+        PinningReport toReport() {
+            return new PinningReport(site, count.sum(), totalNanos.sum() / 1_000_000, maxNanos.get() / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchDecisionRequest {
+    @NotNull
+    @Size(max = 1000, message = "At most 1000 decisions can be requested per call")
+    private List<@Valid DecisionRequest> requests;
+}
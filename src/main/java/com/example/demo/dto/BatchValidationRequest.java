@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchValidationRequest {
+    @NotNull
+    @Size(max = 1000, message = "At most 1000 tokens can be validated per request")
+    private List<String> tokens;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class DecisionRequest {
+    /**
+     * The subject's access token, optionally prefixed with {@code Bearer }.
+     */
+    @NotBlank
+    private String token;
+
+    @NotBlank
+    private String action;
+
+    @NotBlank
+    private String resource;
+}
@@ -0,0 +1,42 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DecisionResult {
+    private Decision decision;
+    private String subject;
+    private String reason;
+    private List<Obligation> obligations;
+
+    /**
+     * @param validUntil the subject token's expiry; the caller must not apply the permit after it
+     */
+    public static DecisionResult permit(String subject, Instant validUntil) {
+        List<Obligation> obligations = validUntil == null
+                ? List.of()
+                : List.of(new Obligation("valid-until", validUntil.toString()));
+        return new DecisionResult(Decision.PERMIT, subject, null, obligations);
+    }
+
+    public static DecisionResult deny(String subject, String reason) {
+        return new DecisionResult(Decision.DENY, subject, reason, List.of());
+    }
+
+    public enum Decision {
+        PERMIT, DENY
+    }
+
+    /**
+     * Something the caller has to do when it enforces the decision.
+     */
+    public record Obligation(String id, String value) {
+    }
+}
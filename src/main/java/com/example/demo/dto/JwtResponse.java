@@ -1,11 +1,20 @@
 package com.example.demo.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class JwtResponse {
     private String token;
     private String username;
-}
\ No newline at end of file
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private Long expiresIn;
+
+    public JwtResponse(String token, String username) {
+        this(token, username, null, null);
+    }
+}
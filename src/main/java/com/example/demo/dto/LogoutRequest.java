@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+
+@Data
+public class LogoutRequest {
+    // Optional: also ends the refresh token family started by this login
+    private String refreshToken;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class PermissionRequest {
+    // resource:action, e.g. reports:read
+    @NotBlank
+    @Size(max = 100)
+    @Pattern(regexp = "[a-z][a-z0-9-]*:[a-z][a-z0-9-]*", message = "Permission names have the form resource:action")
+    private String name;
+
+    private String description;
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class RevokeTokenRequest {
+    // The token's jti claim
+    @NotBlank
+    private String tokenId;
+
+    // Defaults to the longest an access token issued now could live
+    private Instant expiresAt;
+}
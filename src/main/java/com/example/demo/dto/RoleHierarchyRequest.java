@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RoleHierarchyRequest {
+    // Chains such as "ROLE_ADMIN > ROLE_MODERATOR"; replaces the whole hierarchy
+    @NotNull
+    private List<String> hierarchy;
+}
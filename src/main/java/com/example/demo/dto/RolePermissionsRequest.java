@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class RolePermissionsRequest {
+    // Replaces everything the role was granted before
+    @NotNull
+    private Set<String> permissions;
+}
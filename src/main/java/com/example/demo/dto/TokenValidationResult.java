@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenValidationResult {
+    private boolean valid;
+    private String subject;
+    private List<String> authorities;
+    private Instant expiresAt;
+    private String reason;
+
+    public static TokenValidationResult valid(String subject, List<String> authorities, Instant expiresAt) {
+        return new TokenValidationResult(true, subject, authorities, expiresAt, null);
+    }
+
+    public static TokenValidationResult invalid(String subject, String reason) {
+        return new TokenValidationResult(false, subject, null, null, reason);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Role;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * One user of a bulk import. Exactly one of {@code password} (plaintext, hashed
+ * on import) and {@code passwordHash} (already hashed by a supported algorithm)
+ * must be given.
+ */
+@Data
+public class UserImportRecord {
+    @NotBlank
+    private String username;
+
+    @NotBlank
+    @Email
+    private String email;
+
+    private String password;
+
+    private String passwordHash;
+
+    private Set<Role> roles;
+
+    private Boolean enabled;
+}
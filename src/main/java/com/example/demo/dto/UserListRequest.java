@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Role;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+public class UserListRequest {
+    // Keyset cursor: the last id of the previous page, or absent for the first
+    private Long afterId;
+
+    @Min(value = 1, message = "limit must be between 1 and 1000")
+    @Max(value = 1000, message = "limit must be between 1 and 1000")
+    private int limit = 100;
+
+    private Role role;
+
+    private Boolean enabled;
+
+    @Pattern(regexp = "[A-Za-z0-9.-]+", message = "emailDomain must be a domain name such as example.com")
+    private String emailDomain;
+}
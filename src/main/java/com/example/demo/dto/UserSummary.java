@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String email;
+    private boolean enabled;
+    private Set<Role> roles;
+}
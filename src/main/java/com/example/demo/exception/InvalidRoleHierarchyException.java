@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class InvalidRoleHierarchyException extends RuntimeException {
+    public InvalidRoleHierarchyException(String message) {
+        super(message);
+    }
+}
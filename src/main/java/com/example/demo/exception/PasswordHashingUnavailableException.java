@@ -0,0 +1,21 @@
+package com.example.demo.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the password hashing queue is full; mapped to 503 with a
+ * {@code Retry-After} header.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingUnavailableException(Duration retryAfter) {
+        super("Too many password checks in progress, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class PermissionAlreadyExistsException extends RuntimeException {
+    public PermissionAlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a login is refused by the rate limiter, before any password is
+ * checked; mapped to 429 with a {@code Retry-After} header.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(Duration retryAfter) {
+        super("Too many login attempts, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,7 +1,45 @@
 package com.example.demo.exception;
 
+import com.example.demo.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
 public class UserAlreadyExistsException extends RuntimeException {
+
+    public static final String USERNAME_TAKEN = "Username is already taken!";
+    public static final String EMAIL_IN_USE = "Email is already in use!";
+
     public UserAlreadyExistsException(String message) {
         super(message);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tells which of the user's unique constraints an insert violated.
+     *
+     * @return {@code null} if the violation is not about the username or email
+     */
+    public static UserAlreadyExistsException fromConstraintViolation(DataIntegrityViolationException e) {
+        String violated = violatedConstraint(e);
+        if (violated.contains(User.USERNAME_CONSTRAINT)) {
+            return new UserAlreadyExistsException(USERNAME_TAKEN);
+        }
+        if (violated.contains(User.EMAIL_CONSTRAINT)) {
+            return new UserAlreadyExistsException(EMAIL_IN_USE);
+        }
+        return null;
+    }
+
+    // Databases decorate the name (schema prefix, index suffix, upper case), so match on containment
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message == null ? "" : message.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A named permission such as {@code reports:read}, granted to roles. Each one
+ * owns a bit position, unique among existing permissions, that it keeps for its
+ * lifetime; compiled permission sets address it by that bit.
+ */
+@Data
+@Entity
+@Table(name = "permissions")
+public class Permission {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String name;
+
+    private String description;
+
+    @Column(nullable = false, unique = true)
+    private int bit;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Enumerated(EnumType.STRING)
+    @CollectionTable(name = "role_permissions", joinColumns = @JoinColumn(name = "permission_id"))
+    @Column(name = "role")
+    private Set<Role> roles = new HashSet<>();
+}
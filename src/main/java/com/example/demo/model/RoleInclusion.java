@@ -0,0 +1,32 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One edge of the role hierarchy: holders of {@code role} also hold {@code includedRole}.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "role_inclusions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"role", "included_role"}))
+public class RoleInclusion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Role role;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "included_role", nullable = false)
+    private Role includedRole;
+
+    public RoleInclusion(Role role, Role includedRole) {
+        this.role = role;
+        this.includedRole = includedRole;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Records that a table's defaults were seeded, so they are seeded once per
+ * database. A table emptied afterwards stays empty across restarts.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "seed_markers")
+public class SeedMarker {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "seeded_at", nullable = false)
+    private Instant seededAt;
+}
@@ -3,36 +3,89 @@ package com.example.demo.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Data
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        uniqueConstraints = {
+                @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username_key"),
+                @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email_key")
+        },
+        indexes = @Index(name = "ix_users_username", columnList = "username"))
 @lombok.ToString(exclude = "password")
 public class User {
+
+    // Named so a violation can be told apart: signup relies on them instead of checking first
+    public static final String USERNAME_CONSTRAINT = "uk_users_username_key";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email_key";
+
+    public static final String ID_SEQUENCE = "users_seq";
+    public static final int ID_BLOCK_SIZE = 50;
+
+    // Ids come from a sequence in blocks of ID_BLOCK_SIZE, so inserts can be batched. With pooled-lo each
+    // sequence value is the first id of its block, which lets the bulk import allocate blocks the same way
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ID_SEQUENCE)
+    @GenericGenerator(name = ID_SEQUENCE, type = SequenceStyleGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = ID_SEQUENCE),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "" + ID_BLOCK_SIZE),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo")
+    })
     private Long id;
 
     @NotBlank
-    @Column(unique = true)
     private String username;
 
     @NotBlank
     @Email
-    @Column(unique = true)
     private String email;
 
+    // Lower-cased copies kept in step by the setters; their unique constraints make both case-insensitive
+    @Setter(AccessLevel.NONE)
+    @Column(name = "username_key")
+    private String usernameKey;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_key")
+    private String emailKey;
+
     @NotBlank
     private String password;
 
     private boolean enabled = true;
 
+    // Raised by "log out everywhere" and security-relevant changes; tokens carrying a lower value are refused.
+    // Only UserRepository.incrementTokenVersion writes it, so saving a stale entity cannot lower it
+    @Column(name = "token_version", nullable = false, updatable = false)
+    private int tokenVersion;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @Enumerated(EnumType.STRING)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     private Set<Role> roles = new HashSet<>();
-}
\ No newline at end of file
+
+    public void setUsername(String username) {
+        this.username = username;
+        this.usernameKey = keyOf(username);
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailKey = keyOf(email);
+    }
+
+    public static String keyOf(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Permission;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface PermissionRepository extends JpaRepository<Permission, Long> {
+    Optional<Permission> findByName(String name);
+
+    boolean existsByName(String name);
+}
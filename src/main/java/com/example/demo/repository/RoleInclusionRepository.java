@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.RoleInclusion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RoleInclusionRepository extends JpaRepository<RoleInclusion, Long> {
+}
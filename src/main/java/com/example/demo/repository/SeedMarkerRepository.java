@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.SeedMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+
+public interface SeedMarkerRepository extends JpaRepository<SeedMarker, String> {
+
+    /**
+     * Runs {@code seed} unless a marker named {@code name} exists, then records the
+     * marker. The seed decides for itself whether the table still needs defaults:
+     * databases from before the marker have their data but no marker yet.
+     */
+    default void seedOnce(String name, Runnable seed) {
+        if (!existsById(name)) {
+            seed.run();
+            save(new SeedMarker(name, Instant.now()));
+        }
+    }
+}
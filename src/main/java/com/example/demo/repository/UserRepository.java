@@ -1,13 +1,138 @@
 package com.example.demo.repository;
 
+import com.example.demo.model.Role;
 import com.example.demo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Rows the export pulls from the driver per round trip
+    String EXPORT_FETCH_SIZE = "500";
+
+    // Filters of the admin listing; a null parameter leaves its filter off
+    String LISTING_FILTER = "u.id > :afterId and (:enabled is null or u.enabled = :enabled) "
+            + "and (:role is null or :role member of u.roles) and (:emailSuffix is null or u.emailKey like :emailSuffix)";
+
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // The bulk import's duplicate check for a whole chunk in one statement. A union rather than "or",
+    // so each half probes its own unique index instead of scanning the table
+    @Query("select u.usernameKey as usernameKey, u.emailKey as emailKey from User u where u.usernameKey in :usernameKeys "
+            + "union select u.usernameKey, u.emailKey from User u where u.emailKey in :emailKeys")
+    List<UserKeys> findTakenKeys(@Param("usernameKeys") Collection<String> usernameKeys,
+                                 @Param("emailKeys") Collection<String> emailKeys);
+
+    @Query("select u.password from User u where u.username = :username")
+    Optional<String> findPasswordByUsername(@Param("username") String username);
+
+    // Everything a principal needs, roles included, in one statement: one row per role, or one with a null role
+    @Query("select u.id as id, u.username as username, u.password as password, u.enabled as enabled, "
+            + "u.tokenVersion as tokenVersion, r as role from User u left join u.roles r where u.username = :username")
+    List<PrincipalRow> findPrincipalRowsByUsername(@Param("username") String username);
+
+    @Query("select u.id as id, u.username as username, u.password as password, u.enabled as enabled, "
+            + "u.tokenVersion as tokenVersion, r as role from User u left join u.roles r where u.username in :usernames")
+    List<PrincipalRow> findPrincipalRowsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    // Keyset page: seeks to afterId on the primary key instead of counting past an offset
+    @Query("select u.id as id, u.username as username, u.email as email, u.enabled as enabled from User u where "
+            + LISTING_FILTER + " order by u.id")
+    List<UserListingRow> findListingPage(@Param("afterId") long afterId,
+                                         @Param("enabled") Boolean enabled,
+                                         @Param("role") Role role,
+                                         @Param("emailSuffix") String emailSuffix,
+                                         Limit limit);
+
+    @Query("select u.id as userId, r as role from User u join u.roles r where u.id in :ids")
+    List<UserRoleRow> findRolesByUserIdIn(@Param("ids") Collection<Long> ids);
+
+    // One row per role, in id order, so a user's rows arrive together; the caller must close the stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select u.id as id, u.username as username, u.email as email, u.enabled as enabled, r as role "
+            + "from User u left join u.roles r where " + LISTING_FILTER + " order by u.id")
+    Stream<UserExportRow> streamListing(@Param("afterId") long afterId,
+                                        @Param("enabled") Boolean enabled,
+                                        @Param("role") Role role,
+                                        @Param("emailSuffix") String emailSuffix);
+
+    // Only users who ever had their tokens invalidated; everyone else is implicitly at version 0
+    List<TokenVersionView> findByTokenVersionGreaterThan(int tokenVersion);
+
+    // Atomic, so concurrent invalidations of one user each raise the version
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    int findTokenVersionById(@Param("id") Long id);
+
+    // Compare-and-set on the old hash: a password changed since the login read it is never overwritten
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.username = :username and u.password = :oldHash")
+    int updatePasswordIfUnchanged(@Param("username") String username,
+                                  @Param("oldHash") String oldHash,
+                                  @Param("newHash") String newHash);
+
+    interface PrincipalRow {
+        Long getId();
+
+        String getUsername();
+
+        String getPassword();
+
+        boolean isEnabled();
+
+        int getTokenVersion();
+
+        Role getRole();
+    }
+
+    interface UserListingRow {
+        Long getId();
+
+        String getUsername();
+
+        String getEmail();
+
+        boolean isEnabled();
+    }
+
+    interface UserRoleRow {
+        Long getUserId();
+
+        Role getRole();
+    }
+
+    interface UserExportRow extends UserListingRow {
+        Role getRole();
+    }
+
+    interface UserKeys {
+        String getUsernameKey();
+
+        String getEmailKey();
+    }
+
+    interface TokenVersionView {
+        Long getId();
+
+        int getTokenVersion();
+    }
+}
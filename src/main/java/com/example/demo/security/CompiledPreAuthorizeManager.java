@@ -0,0 +1,118 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link PreAuthorize} without SpEL for plain role checks. The first call of each
+ * method compiles {@code hasRole}, {@code hasAnyRole}, {@code hasAuthority} and
+ * {@code hasAnyAuthority} over {@link Role} names into a role mask; later calls
+ * are one AND against the user's mask, expanded through the role hierarchy. Any
+ * other expression is evaluated by Spring's {@link PreAuthorizeAuthorizationManager}
+ * with the same hierarchy.
+ */
+public class CompiledPreAuthorizeManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final Pattern ROLE_CHECK =
+            Pattern.compile("\\s*has(Any)?(Role|Authority)\\(\\s*('[A-Za-z_]+'(\\s*,\\s*'[A-Za-z_]+')*)\\s*\\)\\s*");
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private static final int NO_ANNOTATION = 0;
+    // Role masks are non-zero, so this can never be confused with one
+    static final int NOT_COMPILED = -1;
+
+    private final Supplier<RoleClosure> roleHierarchy;
+    private final PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+    private final Map<MethodClassKey, Integer> masks = new ConcurrentHashMap<>();
+
+    /**
+     * @param roleHierarchy read on every check, so a rebuilt hierarchy applies at once
+     */
+    public CompiledPreAuthorizeManager(Supplier<RoleClosure> roleHierarchy) {
+        this.roleHierarchy = roleHierarchy;
+        spel.setExpressionHandler(expressionHandler(roleHierarchy));
+    }
+
+    /**
+     * A SpEL handler whose {@code hasRole} checks see the current role hierarchy.
+     */
+    public static MethodSecurityExpressionHandler expressionHandler(Supplier<RoleClosure> roleHierarchy) {
+        DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+        handler.setRoleHierarchy(authorities -> roleHierarchy.get().getReachableGrantedAuthorities(authorities));
+        return handler;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        int mask = masks.computeIfAbsent(new MethodClassKey(invocation.getMethod(), targetClass),
+                key -> compile(invocation.getMethod(), targetClass));
+        if (mask == NO_ANNOTATION) {
+            return null;
+        }
+        if (mask == NOT_COMPILED) {
+            return spel.check(authentication, invocation);
+        }
+        int roleMask = roleHierarchy.get().expand(RouteAuthorizationManager.roleMaskOf(authentication.get()));
+        return (roleMask & mask) != 0 ? GRANTED : DENIED;
+    }
+
+    private static int compile(Method method, Class<?> targetClass) {
+        PreAuthorize annotation = AnnotatedElementUtils.findMergedAnnotation(method, PreAuthorize.class);
+        if (annotation == null && targetClass != null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, PreAuthorize.class);
+        }
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), PreAuthorize.class);
+        }
+        return annotation == null ? NO_ANNOTATION : compile(annotation.value());
+    }
+
+    /**
+     * @return the role mask the expression requires one of, or {@link #NOT_COMPILED}
+     */
+    static int compile(String expression) {
+        Matcher matcher = ROLE_CHECK.matcher(expression);
+        if (!matcher.matches()) {
+            return NOT_COMPILED;
+        }
+        boolean any = matcher.group(1) != null;
+        boolean roleNames = matcher.group(2).equals("Role");
+        String[] arguments = matcher.group(3).split(",");
+        if (!any && arguments.length != 1) {
+            return NOT_COMPILED;
+        }
+        int mask = 0;
+        for (String argument : arguments) {
+            String name = argument.trim();
+            name = name.substring(1, name.length() - 1);
+            Role role = RoleAuthorities.roleOf(roleNames && !name.startsWith(ROLE_PREFIX) ? ROLE_PREFIX + name : name);
+            if (role == null) {
+                // Not one of our roles, e.g. a permission authority: leave it to SpEL
+                return NOT_COMPILED;
+            }
+            mask |= RoleAuthorities.bit(role);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.function.Predicate;
+
+/**
+ * Refuses to verify a hash whose embedded cost is above a ceiling. BCrypt and
+ * Argon2 take their work factor from the stored hash, so without this a single
+ * planted row could hold a hashing thread for as long as its cost demands.
+ */
+final class CostLimitedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Predicate<String> withinLimit;
+
+    CostLimitedPasswordEncoder(PasswordEncoder delegate, Predicate<String> withinLimit) {
+        this.delegate = delegate;
+        this.withinLimit = withinLimit;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return encodedPassword != null && withinLimit.test(encodedPassword)
+                && delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
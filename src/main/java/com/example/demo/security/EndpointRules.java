@@ -0,0 +1,129 @@
+package com.example.demo.security;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The method-level rules of every controller endpoint, so a path can be judged
+ * the way the endpoint itself would judge it: {@link PreAuthorize} compiled to a
+ * role mask as by {@link CompiledPreAuthorizeManager}, and the
+ * {@link RequiresPermission} permission. Resolved once from the handler
+ * mappings. Paths without variables are found with one map lookup, and the few
+ * patterned ones are matched in turn.
+ */
+public final class EndpointRules {
+
+    /**
+     * {@link Endpoint#roleMask()} of an endpoint whose {@code @PreAuthorize} is not
+     * a plain role check, so it cannot be decided without a request.
+     */
+    public static final int UNDECIDABLE = CompiledPreAuthorizeManager.NOT_COMPILED;
+
+    private final Map<String, List<Endpoint>> exact = new HashMap<>();
+    private final List<Endpoint> patterned = new ArrayList<>();
+
+    public EndpointRules(Map<RequestMappingInfo, HandlerMethod> handlerMethods) {
+        handlerMethods.forEach((info, handler) -> {
+            Set<String> methods = info.getMethodsCondition().getMethods().stream()
+                    .map(RequestMethod::name)
+                    .collect(Collectors.toUnmodifiableSet());
+            int roleMask = preAuthorizeMask(handler.getMethod(), handler.getBeanType());
+            String permission = permission(handler.getMethod(), handler.getBeanType());
+            for (String value : info.getPatternValues()) {
+                PathPattern pattern = PathPatternParser.defaultInstance.parse(value);
+                Endpoint endpoint = new Endpoint(pattern, methods, roleMask, permission);
+                if (pattern.hasPatternSyntax()) {
+                    patterned.add(endpoint);
+                } else {
+                    exact.computeIfAbsent(value, key -> new ArrayList<>()).add(endpoint);
+                }
+            }
+        });
+        patterned.sort((a, b) -> PathPattern.SPECIFICITY_COMPARATOR.compare(a.pattern(), b.pattern()));
+    }
+
+    /**
+     * @param method the HTTP method; {@code HEAD} is answered by {@code GET} endpoints
+     * @return the endpoint serving {@code method} on {@code path}, or {@code null}
+     */
+    public Endpoint find(String method, String path) {
+        String name = method.toUpperCase(Locale.ROOT);
+        List<Endpoint> candidates = exact.get(path);
+        if (candidates != null) {
+            for (Endpoint endpoint : candidates) {
+                if (endpoint.serves(name)) {
+                    return endpoint;
+                }
+            }
+        }
+        if (!patterned.isEmpty()) {
+            PathContainer container = PathContainer.parsePath(path);
+            for (Endpoint endpoint : patterned) {
+                if (endpoint.serves(name) && endpoint.pattern().matches(container)) {
+                    return endpoint;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether any endpoint serves {@code path}, whatever its method
+     */
+    public boolean maps(String path) {
+        if (exact.containsKey(path)) {
+            return true;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (Endpoint endpoint : patterned) {
+            if (endpoint.pattern().matches(container)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int preAuthorizeMask(Method method, Class<?> beanType) {
+        PreAuthorize annotation = AnnotatedElementUtils.findMergedAnnotation(method, PreAuthorize.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(beanType, PreAuthorize.class);
+        }
+        return annotation == null ? 0 : CompiledPreAuthorizeManager.compile(annotation.value());
+    }
+
+    // Same resolution as PermissionAuthorizationManager: the method's annotation replaces the class's
+    private static String permission(Method method, Class<?> beanType) {
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(beanType, RequiresPermission.class);
+        }
+        return annotation != null ? annotation.value() : null;
+    }
+
+    /**
+     * @param methods    HTTP methods served, empty for all
+     * @param roleMask   roles of which {@code @PreAuthorize} needs one, 0 without it, or {@link #UNDECIDABLE}
+     * @param permission the {@link RequiresPermission} permission, {@code null} without it
+     */
+    public record Endpoint(PathPattern pattern, Set<String> methods, int roleMask, String permission) {
+
+        boolean serves(String method) {
+            return methods.isEmpty() || methods.contains(method) || method.equals("HEAD") && methods.contains("GET");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps login buckets in a bounded Caffeine cache on this node. Each bucket's
+ * state is one immutable value swapped by compare-and-set, so concurrent attempts
+ * on the same key never block each other. Buckets idle for
+ * {@code auth.rate-limit.idle-timeout} are evicted; a full bucket is the same as
+ * a new one, so this loses nothing as long as the timeout is at least the refill
+ * period and the longest backoff.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.rate-limit.store", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryLoginThrottleStore implements LoginThrottleStore {
+
+    private final Cache<String, Bucket> buckets;
+
+    public InMemoryLoginThrottleStore(@Value("${auth.rate-limit.max-keys:100000}") long maxKeys,
+                                      @Value("${auth.rate-limit.idle-timeout:PT15M}") Duration idleTimeout,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, buckets, "auth.login.buckets"));
+    }
+
+    @Override
+    public Duration tryAcquire(String key, Limit limit) {
+        return buckets.get(key, k -> new Bucket(limit.capacity())).tryAcquire(limit);
+    }
+
+    @Override
+    public void recordFailure(String key, Backoff backoff) {
+        Bucket bucket = buckets.getIfPresent(key);
+        if (bucket != null) {
+            bucket.recordFailure(backoff);
+        }
+    }
+
+    @Override
+    public void recordSuccess(String key) {
+        Bucket bucket = buckets.getIfPresent(key);
+        if (bucket != null) {
+            bucket.recordSuccess();
+        }
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private static final class Bucket {
+
+        private final AtomicReference<State> state;
+
+        Bucket(int capacity) {
+            long now = System.nanoTime();
+            this.state = new AtomicReference<>(new State(capacity, now, 0, now));
+        }
+
+        Duration tryAcquire(Limit limit) {
+            double permitsPerNano = limit.permitsPerNano();
+            while (true) {
+                long now = System.nanoTime();
+                State current = state.get();
+                if (now - current.blockedUntil() < 0) {
+                    return Duration.ofNanos(current.blockedUntil() - now);
+                }
+                double tokens = Math.min(limit.capacity(),
+                        current.tokens() + Math.max(0, now - current.refilledAt()) * permitsPerNano);
+                if (tokens < 1) {
+                    return Duration.ofNanos((long) Math.ceil((1 - tokens) / permitsPerNano));
+                }
+                State next = new State(tokens - 1, now, current.failures(), current.blockedUntil());
+                if (state.compareAndSet(current, next)) {
+                    return Duration.ZERO;
+                }
+            }
+        }
+
+        void recordFailure(Backoff backoff) {
+            state.updateAndGet(current -> {
+                int failures = current.failures() + 1;
+                Duration delay = backoff.delayAfter(failures);
+                long blockedUntil = delay.isZero() ? current.blockedUntil() : System.nanoTime() + delay.toNanos();
+                return new State(current.tokens(), current.refilledAt(), failures, blockedUntil);
+            });
+        }
+
+        void recordSuccess() {
+            state.updateAndGet(current -> new State(current.tokens(), current.refilledAt(), 0, System.nanoTime()));
+        }
+    }
+
+    /**
+     * @param blockedUntil {@link System#nanoTime} before which attempts are refused;
+     *                     compared by difference, as {@code nanoTime} may be negative
+     */
+    private record State(double tokens, long refilledAt, int failures, long blockedUntil) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers revocations synchronously to listeners in this JVM. Enough for a
+ * single node, and for tests that stand several revocation lists up against one
+ * channel; a multi-node deployment sets {@code auth.revocation.channel} and
+ * provides a broker-backed {@link RevocationChannel} instead.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.revocation.channel", havingValue = "in-process", matchIfMissing = true)
+public class InProcessRevocationChannel implements RevocationChannel {
+
+    private final List<Consumer<Revocation>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<TokenVersionChange>> tokenVersionListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Revocation revocation) {
+        for (Consumer<Revocation> listener : listeners) {
+            listener.accept(revocation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Revocation> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void publish(TokenVersionChange change) {
+        for (Consumer<TokenVersionChange> listener : tokenVersionListeners) {
+            listener.accept(change);
+        }
+    }
+
+    @Override
+    public void subscribeTokenVersions(Consumer<TokenVersionChange> listener) {
+        tokenVersionListeners.add(listener);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialized JSON Web Key Set and its strong ETag, rendered once per key change
+ * so {@code /.well-known/jwks.json} serves a constant body.
+ */
+public record JwksDocument(String json, String etag) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static final JwksDocument EMPTY = of(List.of());
+
+    static JwksDocument of(List<? extends Map<String, ?>> keys) {
+        String json;
+        try {
+            json = MAPPER.writeValueAsString(Map.of("keys", keys));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize JWK set", e);
+        }
+        return new JwksDocument(json, "\"" + sha256(json) + "\"");
+    }
+
+    private static String sha256(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
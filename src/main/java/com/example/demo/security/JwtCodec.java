@@ -0,0 +1,93 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * Key material and configured parser derived once from the JWT key settings.
+ * Instances are immutable and shared by all request threads; {@link JwtParser}
+ * is thread-safe, while builders are mutable and handed out per token.
+ * A codec without a signing key only verifies.
+ */
+final class JwtCodec {
+
+    private final Key signingKey;
+    private final SecureDigestAlgorithm<Key, ?> algorithm;
+    private final String keyId;
+    private final JwtParser parser;
+    private final JwksDocument jwks;
+
+    private JwtCodec(Key signingKey, SecureDigestAlgorithm<Key, ?> algorithm, String keyId,
+                     JwtParser parser, JwksDocument jwks) {
+        this.signingKey = signingKey;
+        this.algorithm = algorithm;
+        this.keyId = keyId;
+        this.parser = parser;
+        this.jwks = jwks;
+    }
+
+    static JwtCodec forSecret(String secret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        // A shared secret is never published in the JWK set
+        return new JwtCodec(key, null, null, Jwts.parser().verifyWith(key).build(), JwksDocument.EMPTY);
+    }
+
+    /**
+     * @param privateKey the signing key, or {@code null} for a verify-only codec
+     */
+    static JwtCodec forKeyPair(String algorithmId, PrivateKey privateKey, PublicKey publicKey) {
+        return forKeyRing(JwtKeyRing.of(algorithmId, privateKey, publicKey));
+    }
+
+    /**
+     * Signs with the ring's active key and stamps its {@code kid}; verifies by
+     * looking up the token's {@code kid} in the ring.
+     */
+    @SuppressWarnings("unchecked")
+    static JwtCodec forKeyRing(JwtKeyRing ring) {
+        SecureDigestAlgorithm<?, ?> algorithm = Jwts.SIG.get().get(ring.algorithmId());
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Unsupported JWS algorithm: " + ring.algorithmId());
+        }
+        JwtParser parser = Jwts.parser()
+                .keyLocator(header -> ring.verificationKey(
+                        header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null))
+                .build();
+        return new JwtCodec(ring.signingKey(), (SecureDigestAlgorithm<Key, ?>) algorithm, ring.activeKid(),
+                parser, JwksDocument.of(ring.publicJwks()));
+    }
+
+    boolean canSign() {
+        return signingKey != null;
+    }
+
+    JwksDocument jwks() {
+        return jwks;
+    }
+
+    JwtBuilder builder() {
+        if (signingKey == null) {
+            throw new IllegalStateException("JWT signing is disabled: only a verification key is configured");
+        }
+        // HMAC keeps jjwt's choice of HS algorithm by key length
+        if (algorithm == null) {
+            return Jwts.builder().signWith(signingKey);
+        }
+        return Jwts.builder().header().keyId(keyId).and().signWith(signingKey, algorithm);
+    }
+
+    Claims parse(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Enumeration;
+
+/**
+ * Reads asymmetric JWT keys from local files: PKCS#8 private keys and X.509
+ * public keys or certificates in PEM form, or a key pair from a PKCS#12 store.
+ */
+public final class JwtKeyLoader {
+
+    private JwtKeyLoader() {
+    }
+
+    /**
+     * JCA key algorithm for a JWS algorithm name, e.g. {@code RSA} for {@code RS256}.
+     */
+    public static String keyAlgorithmFor(String jwsAlgorithm) {
+        if (jwsAlgorithm.startsWith("RS") || jwsAlgorithm.startsWith("PS")) {
+            return "RSA";
+        }
+        if (jwsAlgorithm.startsWith("ES")) {
+            return "EC";
+        }
+        if (jwsAlgorithm.equals("EdDSA")) {
+            return "Ed25519";
+        }
+        throw new IllegalArgumentException("Not an asymmetric JWS algorithm: " + jwsAlgorithm);
+    }
+
+    public static PrivateKey readPrivateKey(Path pemFile, String keyAlgorithm) {
+        byte[] der = readPem(pemFile, "PRIVATE KEY");
+        try {
+            return KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot read " + keyAlgorithm + " private key from " + pemFile, e);
+        }
+    }
+
+    /**
+     * Reads a {@code PUBLIC KEY} block, or the public key of a {@code CERTIFICATE} block.
+     */
+    public static PublicKey readPublicKey(Path pemFile, String keyAlgorithm) {
+        String pem = readString(pemFile);
+        try {
+            if (pem.contains("-----BEGIN CERTIFICATE-----")) {
+                byte[] der = decodePem(pem, "CERTIFICATE", pemFile);
+                return CertificateFactory.getInstance("X.509")
+                        .generateCertificate(new ByteArrayInputStream(der))
+                        .getPublicKey();
+            }
+            byte[] der = decodePem(pem, "PUBLIC KEY", pemFile);
+            return KeyFactory.getInstance(keyAlgorithm).generatePublic(new X509EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot read " + keyAlgorithm + " public key from " + pemFile, e);
+        }
+    }
+
+    /**
+     * Loads the key pair stored under {@code alias}, or under the first key entry
+     * when no alias is given.
+     */
+    public static KeyPair readKeyStore(Path keyStoreFile, char[] password, String alias) {
+        try (InputStream in = Files.newInputStream(keyStoreFile)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+            String entry = alias;
+            if (entry == null || entry.isBlank()) {
+                Enumeration<String> aliases = keyStore.aliases();
+                while (aliases.hasMoreElements() && entry == null) {
+                    String candidate = aliases.nextElement();
+                    if (keyStore.isKeyEntry(candidate)) {
+                        entry = candidate;
+                    }
+                }
+            }
+            if (entry == null || !keyStore.isKeyEntry(entry)) {
+                throw new IllegalStateException("No key entry " + (alias == null ? "" : "'" + alias + "' ") + "in " + keyStoreFile);
+            }
+            Key key = keyStore.getKey(entry, password);
+            Certificate certificate = keyStore.getCertificate(entry);
+            if (!(key instanceof PrivateKey privateKey) || certificate == null) {
+                throw new IllegalStateException("Entry '" + entry + "' in " + keyStoreFile + " is not a private key with a certificate");
+            }
+            return new KeyPair(certificate.getPublicKey(), privateKey);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot read key store " + keyStoreFile, e);
+        }
+    }
+
+    private static byte[] readPem(Path pemFile, String type) {
+        return decodePem(readString(pemFile), type, pemFile);
+    }
+
+    private static byte[] decodePem(String pem, String type, Path source) {
+        String begin = "-----BEGIN " + type + "-----";
+        String end = "-----END " + type + "-----";
+        int start = pem.indexOf(begin);
+        int stop = pem.indexOf(end);
+        if (start < 0 || stop < start) {
+            throw new IllegalStateException(source + " does not contain a PEM '" + type + "' block");
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), stop));
+    }
+
+    private static String readString(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read key file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Asymmetric keys indexed by key id: one active signing key and every public key
+ * that tokens may still be verified with. The verification map is immutable, so
+ * a lookup by {@code kid} is a single hash probe and the whole ring is replaced
+ * atomically on reload.
+ *
+ * <p>A key directory holds {@code <kid>.pub.pem} (public key or certificate) and
+ * {@code <kid>.key.pem} (PKCS#8 private key) files. The key named in an optional
+ * {@code active-kid} file signs; without it, the greatest kid that has a private
+ * key does.
+ */
+final class JwtKeyRing {
+
+    static final String PUBLIC_KEY_SUFFIX = ".pub.pem";
+    static final String PRIVATE_KEY_SUFFIX = ".key.pem";
+    static final String ACTIVE_KID_FILE = "active-kid";
+
+    private final String algorithmId;
+    private final String activeKid;
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+
+    private JwtKeyRing(String algorithmId, String activeKid, PrivateKey signingKey,
+                       Map<String, PublicKey> verificationKeys) {
+        this.algorithmId = algorithmId;
+        this.activeKid = activeKid;
+        this.signingKey = signingKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+    }
+
+    /**
+     * Single key pair whose kid is the RFC 7638 thumbprint of the public key.
+     *
+     * @param privateKey the signing key, or {@code null} to only verify
+     */
+    static JwtKeyRing of(String algorithmId, PrivateKey privateKey, PublicKey publicKey) {
+        String kid = Jwks.builder().key(publicKey).idFromThumbprint().build().getId();
+        return new JwtKeyRing(algorithmId, privateKey == null ? null : kid, privateKey, Map.of(kid, publicKey));
+    }
+
+    /**
+     * @param verifyOnly skip private keys entirely; the ring can then only verify
+     */
+    static JwtKeyRing loadDirectory(Path dir, String algorithmId, boolean verifyOnly) {
+        String keyAlgorithm = JwtKeyLoader.keyAlgorithmFor(algorithmId);
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        TreeMap<String, Path> privateKeyFiles = new TreeMap<>();
+        for (Path file : list(dir)) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(PUBLIC_KEY_SUFFIX)) {
+                publicKeys.put(kidOf(name, PUBLIC_KEY_SUFFIX), JwtKeyLoader.readPublicKey(file, keyAlgorithm));
+            } else if (name.endsWith(PRIVATE_KEY_SUFFIX)) {
+                privateKeyFiles.put(kidOf(name, PRIVATE_KEY_SUFFIX), file);
+            }
+        }
+        if (publicKeys.isEmpty()) {
+            throw new IllegalStateException("No *" + PUBLIC_KEY_SUFFIX + " files in JWT key directory " + dir);
+        }
+        if (verifyOnly) {
+            return new JwtKeyRing(algorithmId, null, null, publicKeys);
+        }
+
+        String activeKid = readActiveKid(dir);
+        if (activeKid == null) {
+            if (privateKeyFiles.isEmpty()) {
+                throw new IllegalStateException("No *" + PRIVATE_KEY_SUFFIX + " file in JWT key directory " + dir
+                        + "; set jwt.mode=verify for a verification-only instance");
+            }
+            activeKid = privateKeyFiles.lastKey();
+        }
+        Path privateKeyFile = privateKeyFiles.get(activeKid);
+        if (privateKeyFile == null || !publicKeys.containsKey(activeKid)) {
+            throw new IllegalStateException("Active JWT key '" + activeKid + "' needs both " + activeKid
+                    + PRIVATE_KEY_SUFFIX + " and " + activeKid + PUBLIC_KEY_SUFFIX + " in " + dir);
+        }
+        return new JwtKeyRing(algorithmId, activeKid,
+                JwtKeyLoader.readPrivateKey(privateKeyFile, keyAlgorithm), publicKeys);
+    }
+
+    /**
+     * Cheap summary of the directory listing used to detect changes between polls
+     * without re-reading any key.
+     */
+    static String fingerprint(Path dir) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path file : list(dir)) {
+            try {
+                fingerprint.append(file.getFileName()).append(':')
+                        .append(Files.size(file)).append(':')
+                        .append(Files.getLastModifiedTime(file).toMillis()).append('\n');
+            } catch (IOException e) {
+                // Deleted between listing and stat; the next poll sees a consistent directory
+                fingerprint.append(file.getFileName()).append(":?\n");
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    String algorithmId() {
+        return algorithmId;
+    }
+
+    String activeKid() {
+        return activeKid;
+    }
+
+    PrivateKey signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * @param kid the token's {@code kid} header; tokens without one are accepted
+     *            only while the ring holds a single key
+     * @throws JwtException if no key with that id is in the ring
+     */
+    PublicKey verificationKey(String kid) {
+        PublicKey key;
+        if (kid == null) {
+            key = verificationKeys.size() == 1 ? verificationKeys.values().iterator().next() : null;
+        } else {
+            key = verificationKeys.get(kid);
+        }
+        if (key == null) {
+            throw new JwtException("No JWT verification key for kid '" + kid + "'");
+        }
+        return key;
+    }
+
+    List<PublicJwk<?>> publicJwks() {
+        List<PublicJwk<?>> jwks = new ArrayList<>(verificationKeys.size());
+        new TreeMap<>(verificationKeys).forEach((kid, key) -> jwks.add(Jwks.builder().key(key)
+                .id(kid)
+                .algorithm(algorithmId)
+                .publicKeyUse("sig")
+                .build()));
+        return jwks;
+    }
+
+    private static String kidOf(String fileName, String suffix) {
+        return fileName.substring(0, fileName.length() - suffix.length());
+    }
+
+    private static String readActiveKid(Path dir) {
+        Path file = dir.resolve(ACTIVE_KID_FILE);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            String kid = Files.readString(file).strip();
+            return kid.isEmpty() ? null : kid;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + file, e);
+        }
+    }
+
+    private static List<Path> list(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot list JWT key directory " + dir, e);
+        }
+    }
+}
@@ -1,31 +1,199 @@
 package com.example.demo.security;
 
+import com.example.demo.exception.InvalidTokenException;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ENABLED_CLAIM = "enabled";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret:your-256-bit-secret}")
     private String secret;
 
-    @Value("${jwt.expiration:86400000}")
+    @Value("${jwt.expiration:900000}")
     private Long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // When enabled, JwtRequestFilter authenticates from the token claims alone
+    // instead of reloading the user from the database on every request.
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
+    // HS256 signs with jwt.secret; RS256, ES256 and EdDSA use the key pair below
+    @Value("${jwt.algorithm:HS256}")
+    private String algorithm;
+
+    // "verify" loads only the public key: the instance validates tokens but cannot issue them
+    @Value("${jwt.mode:sign}")
+    private String mode;
+
+    @Value("${jwt.private-key:}")
+    private String privateKeyPath;
+
+    @Value("${jwt.public-key:}")
+    private String publicKeyPath;
+
+    @Value("${jwt.key-store:}")
+    private String keyStorePath;
+
+    @Value("${jwt.key-store-password:}")
+    private String keyStorePassword;
+
+    @Value("${jwt.key-alias:}")
+    private String keyAlias;
+
+    // Directory of <kid>.pub.pem / <kid>.key.pem files, polled for changes; takes precedence over the options above
+    @Value("${jwt.key-dir:}")
+    private String keyDir;
+
+    // Last seen listing of keyDir, so a poll only reloads keys when a file changed
+    private String keyDirFingerprint;
+
+    // Derived from the key settings once and swapped as a whole on rotation
+    private volatile JwtCodec codec;
+
+    // Bumped after every key change so caches of verified tokens can tell stale entries apart
+    private volatile long keyGeneration;
+
+    @PostConstruct
+    public synchronized void init() {
+        if (StringUtils.hasText(keyDir)) {
+            this.keyDirFingerprint = JwtKeyRing.fingerprint(Path.of(keyDir));
+        }
+        this.codec = createCodec();
+    }
+
+    private JwtCodec createCodec() {
+        boolean verifyOnly = "verify".equalsIgnoreCase(mode);
+        if (!StringUtils.hasText(algorithm) || algorithm.startsWith("HS")) {
+            if (verifyOnly) {
+                throw new IllegalStateException("jwt.mode=verify requires an asymmetric jwt.algorithm");
+            }
+            if (StringUtils.hasText(keyDir)) {
+                throw new IllegalStateException("jwt.key-dir requires an asymmetric jwt.algorithm");
+            }
+            return JwtCodec.forSecret(secret);
+        }
+
+        if (StringUtils.hasText(keyDir)) {
+            return JwtCodec.forKeyRing(JwtKeyRing.loadDirectory(Path.of(keyDir), algorithm, verifyOnly));
+        }
+        String keyAlgorithm = JwtKeyLoader.keyAlgorithmFor(algorithm);
+        if (StringUtils.hasText(keyStorePath)) {
+            char[] password = keyStorePassword == null ? new char[0] : keyStorePassword.toCharArray();
+            KeyPair keyPair = JwtKeyLoader.readKeyStore(Path.of(keyStorePath), password, keyAlias);
+            return JwtCodec.forKeyPair(algorithm, verifyOnly ? null : keyPair.getPrivate(), keyPair.getPublic());
+        }
+        if (!StringUtils.hasText(publicKeyPath)) {
+            throw new IllegalStateException("jwt.public-key or jwt.key-store is required for " + algorithm);
+        }
+        PublicKey publicKey = JwtKeyLoader.readPublicKey(Path.of(publicKeyPath), keyAlgorithm);
+        PrivateKey privateKey = null;
+        if (!verifyOnly) {
+            if (!StringUtils.hasText(privateKeyPath)) {
+                throw new IllegalStateException("jwt.private-key is required to sign with " + algorithm
+                        + "; set jwt.mode=verify for a verification-only instance");
+            }
+            privateKey = JwtKeyLoader.readPrivateKey(Path.of(privateKeyPath), keyAlgorithm);
+        }
+        return JwtCodec.forKeyPair(algorithm, privateKey, publicKey);
+    }
+
+    public boolean canIssueTokens() {
+        return codec.canSign();
+    }
+
+    /**
+     * Replaces the HMAC signing secret. Tokens signed with the previous secret stop
+     * verifying immediately.
+     */
+    public synchronized void rotateSecret(String newSecret) {
+        if (StringUtils.hasText(algorithm) && !algorithm.startsWith("HS")) {
+            throw new IllegalStateException("rotateSecret only applies to HMAC signing, not " + algorithm);
+        }
+        JwtCodec rotated = JwtCodec.forSecret(newSecret);
+        this.secret = newSecret;
+        this.codec = rotated;
+        this.keyGeneration++;
+    }
+
+    /**
+     * Reloads the key ring when a file in {@code jwt.key-dir} was added, removed or
+     * modified. Tokens signed by keys still in the directory keep verifying; a
+     * directory that fails to load leaves the current keys in place.
+     *
+     * @return whether a new key ring was installed
+     */
+    @Scheduled(fixedDelayString = "${jwt.key-dir-poll-interval:PT10S}",
+            initialDelayString = "${jwt.key-dir-poll-interval:PT10S}")
+    public synchronized boolean reloadKeys() {
+        if (!StringUtils.hasText(keyDir)) {
+            return false;
+        }
+        try {
+            String fingerprint = JwtKeyRing.fingerprint(Path.of(keyDir));
+            if (fingerprint.equals(keyDirFingerprint)) {
+                return false;
+            }
+            JwtCodec reloaded = createCodec();
+            this.keyDirFingerprint = fingerprint;
+            this.codec = reloaded;
+            this.keyGeneration++;
+            log.info("Reloaded JWT keys from {}", keyDir);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Keeping current JWT keys, cannot load {}: {}", keyDir, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Public verification keys as a JWK set; empty for HMAC signing.
+     */
+    public JwksDocument getJwks() {
+        return codec.jwks();
+    }
+
+    public long getKeyGeneration() {
+        return keyGeneration;
+    }
+
+    public Duration getAccessTokenTtl() {
+        return Duration.ofMillis(jwtExpiration);
+    }
+
+    public boolean isStateless() {
+        return stateless;
     }
 
     public String extractUsername(String token) {
@@ -43,46 +211,81 @@ public class JwtUtil {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return codec.parse(token);
         } catch (Exception e) {
             return null;
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        try {
-            return extractExpiration(token).before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
-    }
-
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        List<String> roles = new ArrayList<>(userDetails.getAuthorities().size());
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        claims.put(ROLES_CLAIM, roles);
+        claims.put(ENABLED_CLAIM, userDetails.isEnabled());
+        if (userDetails instanceof UserPrincipal principal && principal.getId() != null) {
+            claims.put(USER_ID_CLAIM, principal.getId());
+            claims.put(TOKEN_VERSION_CLAIM, principal.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
-        SecretKey key = getSigningKey();
-        return Jwts.builder()
+        return codec.builder()
                 .claims(claims)
+                // Unique per token so a single token can be revoked before it expires
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(key)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+            return verifyToken(token).isIssuedTo(userDetails);
         } catch (Exception e) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Parses and verifies the token once: signature, expiry and claims.
+     *
+     * @throws InvalidTokenException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verifyToken(String token) {
+        Claims claims;
+        try {
+            claims = codec.parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("JWT token is invalid: " + e.getMessage());
+        }
+        if (claims.getSubject() == null) {
+            throw new InvalidTokenException("JWT token has no subject");
+        }
+
+        Set<GrantedAuthority> authorities = null;
+        if (claims.get(ROLES_CLAIM) instanceof List<?> roles) {
+            authorities = RoleAuthorities.authoritiesOf(RoleAuthorities.maskOfNames(roles));
+        }
+        Boolean enabled = claims.get(ENABLED_CLAIM, Boolean.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                authorities,
+                enabled == null || enabled,
+                claims.getId(),
+                tokenVersion == null ? 0 : tokenVersion
+        );
+    }
+
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.security;
+
+import java.time.Duration;
+
+/**
+ * Per-key login throttling state: a token bucket of attempts plus a count of
+ * consecutive failures. Keys are opaque to the store. The in-memory store only
+ * sees its own node's attempts; to share one budget across nodes, set
+ * {@code auth.rate-limit.store} and provide an implementation backed by a shared
+ * store that applies each operation atomically.
+ */
+public interface LoginThrottleStore {
+
+    /**
+     * Takes one attempt from the key's bucket, unless the bucket is empty or the
+     * key is backing off after failures. A refused attempt takes nothing.
+     *
+     * @return {@link Duration#ZERO} if the attempt may proceed, otherwise how long
+     *         until the next one can
+     */
+    Duration tryAcquire(String key, Limit limit);
+
+    /**
+     * Counts a failed attempt; past the backoff's free failures, the key is
+     * refused for a delay that doubles with every further failure.
+     */
+    void recordFailure(String key, Backoff backoff);
+
+    /**
+     * Clears the key's failures and any backoff in progress.
+     */
+    void recordSuccess(String key);
+
+    /**
+     * @param capacity attempts allowed in a burst, refilled evenly over {@code period}
+     */
+    record Limit(int capacity, Duration period) {
+
+        double permitsPerNano() {
+            return (double) capacity / period.toNanos();
+        }
+    }
+
+    /**
+     * @param freeFailures consecutive failures allowed before backing off
+     */
+    record Backoff(int freeFailures, Duration base, Duration max) {
+
+        /**
+         * @return how long the key is refused after its {@code failures}-th consecutive failure
+         */
+        public Duration delayAfter(int failures) {
+            if (failures <= freeFailures) {
+                return Duration.ZERO;
+            }
+            int doublings = Math.min(failures - freeFailures - 1, 30);
+            Duration delay = base.multipliedBy(1L << doublings);
+            return delay.compareTo(max) > 0 ? max : delay;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.security;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the work factor of the configured password hashing algorithm by timing
+ * hashes on this host, so one login costs close to a target time. The cost never
+ * drops below a floor that keeps hashes strong on slow hosts: BCrypt strength 10,
+ * 310,000 PBKDF2-SHA256 iterations, or Argon2id with 19 MiB and 2 passes.
+ * Calibration stays below a ceiling per algorithm, and stored hashes claiming a
+ * higher cost are never verified (see {@link #isSupportedHash}).
+ *
+ * <p>The result is a {@link DelegatingPasswordEncoder}: new hashes carry an
+ * {@code {id}} prefix, hashes from any supported algorithm still verify, and
+ * {@code upgradeEncoding} flags hashes made with another algorithm or a lower cost.
+ */
+public record PasswordHashCalibration(String algorithm, PasswordEncoder encoder, String parameters,
+                                      Duration estimatedHashTime) {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2-sha256";
+    public static final String ARGON2 = "argon2";
+
+    static final int BCRYPT_MIN_STRENGTH = 10;
+    static final int BCRYPT_MAX_STRENGTH = BCRYPT_MIN_STRENGTH + 4;
+    static final int PBKDF2_MIN_ITERATIONS = 310_000;
+    public static final int PBKDF2_MAX_ITERATIONS = 8 * PBKDF2_MIN_ITERATIONS;
+    static final int ARGON2_MEMORY_KIB = 19 * 1024;
+    static final int ARGON2_PARALLELISM = 1;
+    static final int ARGON2_MIN_ITERATIONS = 2;
+    static final int ARGON2_MAX_ITERATIONS = 64;
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}");
+    private static final Pattern PBKDF2_HASH = Pattern.compile("([1-9]\\d{0,9})\\$[0-9a-f]+");
+    private static final Pattern ARGON2_HASH = Pattern.compile(
+            "\\$argon2(?:id|i|d)\\$(?:v=\\d+\\$)?m=(\\d{1,10}),t=(\\d{1,10}),p=(\\d{1,10})\\$[A-Za-z0-9+/]+\\$[A-Za-z0-9+/]+");
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-1";
+    private static final int SAMPLES = 3;
+
+    /**
+     * @param targetHashTime hash time to aim for, or {@code null} to use the floor cost without timing
+     */
+    public static PasswordHashCalibration calibrate(String algorithm, Duration targetHashTime) {
+        String id = algorithm.toLowerCase(Locale.ROOT);
+        PasswordHashCalibration chosen = switch (id) {
+            case BCRYPT -> calibrateBcrypt(targetHashTime);
+            case PBKDF2, "pbkdf2" -> calibratePbkdf2(targetHashTime);
+            case ARGON2 -> calibrateArgon2(targetHashTime);
+            default -> throw new IllegalArgumentException("Unsupported password hashing algorithm: " + algorithm
+                    + " (expected " + BCRYPT + ", " + PBKDF2 + " or " + ARGON2 + ")");
+        };
+        return new PasswordHashCalibration(chosen.algorithm(), delegating(chosen.algorithm(), chosen.encoder()),
+                chosen.parameters(), chosen.estimatedHashTime());
+    }
+
+    private static PasswordHashCalibration calibrateBcrypt(Duration target) {
+        int strength = BCRYPT_MIN_STRENGTH;
+        Duration estimate = target == null ? null : time(new BCryptPasswordEncoder(strength));
+        // Each strength step doubles the work, so the estimate can be extrapolated instead of timed
+        while (estimate != null && strength < BCRYPT_MAX_STRENGTH && estimate.multipliedBy(2).compareTo(target) <= 0) {
+            strength++;
+            estimate = estimate.multipliedBy(2);
+        }
+        return new PasswordHashCalibration(BCRYPT, new BCryptPasswordEncoder(strength),
+                "strength=" + strength, estimate);
+    }
+
+    private static PasswordHashCalibration calibratePbkdf2(Duration target) {
+        int iterations = PBKDF2_MIN_ITERATIONS;
+        Duration estimate = null;
+        if (target != null) {
+            Duration floor = time(new Pbkdf2IterationsPasswordEncoder(PBKDF2_MIN_ITERATIONS));
+            // Cost is linear in the iteration count
+            long scaled = (long) PBKDF2_MIN_ITERATIONS * target.toNanos() / Math.max(1, floor.toNanos());
+            iterations = (int) Math.min(PBKDF2_MAX_ITERATIONS, Math.max(PBKDF2_MIN_ITERATIONS, scaled / 10_000 * 10_000));
+            estimate = floor.multipliedBy(iterations).dividedBy(PBKDF2_MIN_ITERATIONS);
+        }
+        return new PasswordHashCalibration(PBKDF2, new Pbkdf2IterationsPasswordEncoder(iterations, PBKDF2_MAX_ITERATIONS),
+                "iterations=" + iterations, estimate);
+    }
+
+    private static PasswordHashCalibration calibrateArgon2(Duration target) {
+        int iterations = ARGON2_MIN_ITERATIONS;
+        Duration estimate = null;
+        if (target != null) {
+            Duration floor = time(argon2(ARGON2_MIN_ITERATIONS));
+            // Memory stays fixed; each extra pass over it costs about the same
+            long scaled = (long) ARGON2_MIN_ITERATIONS * target.toNanos() / Math.max(1, floor.toNanos());
+            iterations = (int) Math.min(ARGON2_MAX_ITERATIONS, Math.max(ARGON2_MIN_ITERATIONS, scaled));
+            estimate = floor.multipliedBy(iterations).dividedBy(ARGON2_MIN_ITERATIONS);
+        }
+        return new PasswordHashCalibration(ARGON2, argon2(iterations),
+                "memory=" + ARGON2_MEMORY_KIB + "KiB,iterations=" + iterations + ",parallelism=" + ARGON2_PARALLELISM,
+                estimate);
+    }
+
+    private static Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, ARGON2_PARALLELISM, ARGON2_MEMORY_KIB, iterations);
+    }
+
+    /**
+     * Whether a stored hash, {@code {id}}-prefixed or bare BCrypt from before the
+     * prefix, is in a supported format at a cost no higher than a login will verify.
+     */
+    public static boolean isSupportedHash(String storedHash) {
+        if (!storedHash.startsWith("{")) {
+            return isVerifiableBcrypt(storedHash);
+        }
+        int end = storedHash.indexOf('}');
+        if (end < 0) {
+            return false;
+        }
+        String hash = storedHash.substring(end + 1);
+        return switch (storedHash.substring(1, end)) {
+            case BCRYPT -> isVerifiableBcrypt(hash);
+            case PBKDF2 -> isVerifiablePbkdf2(hash);
+            case ARGON2 -> isVerifiableArgon2(hash);
+            default -> false;
+        };
+    }
+
+    static boolean isVerifiableBcrypt(String hash) {
+        Matcher matcher = BCRYPT_HASH.matcher(hash);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) <= BCRYPT_MAX_STRENGTH;
+    }
+
+    static boolean isVerifiablePbkdf2(String hash) {
+        Matcher matcher = PBKDF2_HASH.matcher(hash);
+        return matcher.matches() && Long.parseLong(matcher.group(1)) <= PBKDF2_MAX_ITERATIONS;
+    }
+
+    static boolean isVerifiableArgon2(String hash) {
+        Matcher matcher = ARGON2_HASH.matcher(hash);
+        return matcher.matches()
+                && Long.parseLong(matcher.group(1)) <= ARGON2_MEMORY_KIB
+                && Long.parseLong(matcher.group(2)) <= ARGON2_MAX_ITERATIONS
+                && Long.parseLong(matcher.group(3)) <= ARGON2_PARALLELISM;
+    }
+
+    private static PasswordEncoder delegating(String idForEncode, PasswordEncoder calibrated) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        // Hashes embed their own cost, so the encoders that only verify can use any parameters
+        encoders.put(BCRYPT, new BCryptPasswordEncoder());
+        encoders.put(PBKDF2, new Pbkdf2IterationsPasswordEncoder(PBKDF2_MIN_ITERATIONS, PBKDF2_MAX_ITERATIONS));
+        encoders.put(ARGON2, argon2(ARGON2_MIN_ITERATIONS));
+        encoders.put(idForEncode, calibrated);
+        // The calibrated encoder verifies any cost too; Pbkdf2IterationsPasswordEncoder bounds its own
+        encoders.computeIfPresent(BCRYPT, (id, encoder) ->
+                new CostLimitedPasswordEncoder(encoder, PasswordHashCalibration::isVerifiableBcrypt));
+        encoders.computeIfPresent(ARGON2, (id, encoder) ->
+                new CostLimitedPasswordEncoder(encoder, PasswordHashCalibration::isVerifiableArgon2));
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+        return delegating;
+    }
+
+    private static Duration time(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return Duration.ofNanos(samples[SAMPLES / 2]);
+    }
+}
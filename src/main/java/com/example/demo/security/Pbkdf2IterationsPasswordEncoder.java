@@ -0,0 +1,90 @@
+package com.example.demo.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PBKDF2-HMAC-SHA256 whose hashes record their iteration count as
+ * {@code <iterations>$<hash>}. Spring's {@link Pbkdf2PasswordEncoder} keeps the
+ * count only in its configuration, so raising it would break every stored hash;
+ * with the count stored, older hashes still verify and are reported by
+ * {@link #upgradeEncoding} for rehashing. The stored count is bounded: a hash
+ * claiming more than {@link #getMaxIterations()} never matches, so a planted
+ * hash cannot make one login burn arbitrary CPU.
+ */
+public final class Pbkdf2IterationsPasswordEncoder implements PasswordEncoder {
+
+    private static final int SALT_LENGTH = 16;
+    private static final int DEFAULT_MAX_FACTOR = 4;
+
+    private final int iterations;
+    private final int maxIterations;
+    private final Map<Integer, Pbkdf2PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+    /**
+     * Verifies hashes of up to {@value #DEFAULT_MAX_FACTOR} times {@code iterations}.
+     */
+    public Pbkdf2IterationsPasswordEncoder(int iterations) {
+        this(iterations, (int) Math.min(Integer.MAX_VALUE, (long) iterations * DEFAULT_MAX_FACTOR));
+    }
+
+    public Pbkdf2IterationsPasswordEncoder(int iterations, int maxIterations) {
+        if (maxIterations < iterations) {
+            throw new IllegalArgumentException("maxIterations " + maxIterations + " is below iterations " + iterations);
+        }
+        this.iterations = iterations;
+        this.maxIterations = maxIterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return iterations + "$" + encoder(iterations).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        int separator = encodedPassword == null ? -1 : encodedPassword.indexOf('$');
+        if (separator <= 0) {
+            return false;
+        }
+        int storedIterations;
+        try {
+            storedIterations = Integer.parseInt(encodedPassword.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (storedIterations < 1 || storedIterations > maxIterations) {
+            return false;
+        }
+        return encoder(storedIterations).matches(rawPassword, encodedPassword.substring(separator + 1));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int separator = encodedPassword == null ? -1 : encodedPassword.indexOf('$');
+        if (separator <= 0) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(0, separator)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private Pbkdf2PasswordEncoder encoder(int iterationCount) {
+        return encoders.computeIfAbsent(iterationCount, count -> new Pbkdf2PasswordEncoder(
+                "", SALT_LENGTH, count, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+    }
+}
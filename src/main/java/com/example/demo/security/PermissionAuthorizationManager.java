@@ -0,0 +1,59 @@
+package com.example.demo.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Enforces {@link RequiresPermission}. The annotation is resolved once per
+ * method; each call is then a role-mask computation, its expansion through the
+ * role hierarchy and a bit test in the {@link PermissionRegistry}.
+ */
+public class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Supplier<PermissionRegistry> registry;
+    private final Supplier<RoleClosure> roleHierarchy;
+    private final Map<MethodClassKey, Optional<String>> permissions = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry      resolved on first use, since method security is set up before regular beans
+     * @param roleHierarchy read on every check, so a rebuilt hierarchy applies at once
+     */
+    public PermissionAuthorizationManager(Supplier<PermissionRegistry> registry, Supplier<RoleClosure> roleHierarchy) {
+        this.registry = registry;
+        this.roleHierarchy = roleHierarchy;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        Optional<String> permission = permissions.computeIfAbsent(new MethodClassKey(invocation.getMethod(), targetClass),
+                key -> Optional.ofNullable(resolve(invocation.getMethod(), targetClass)));
+        if (permission.isEmpty()) {
+            return null;
+        }
+        int roleMask = roleHierarchy.get().expand(RouteAuthorizationManager.roleMaskOf(authentication.get()));
+        return registry.get().hasPermission(roleMask, permission.get()) ? GRANTED : DENIED;
+    }
+
+    private static String resolve(Method method, Class<?> targetClass) {
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequiresPermission.class);
+        if (annotation == null && targetClass != null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPermission.class);
+        }
+        return annotation != null ? annotation.value() : null;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.repository.SeedMarkerRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Role permissions from the database, compiled into one {@link PermissionSet}
+ * per combination of roles. A user's effective permissions follow from the role
+ * mask already on their principal, so a check is a map lookup for the
+ * permission's bit and a bit test: no collection scans and no queries.
+ *
+ * <p>The compiled snapshot is replaced as a whole, so readers never lock. It is
+ * rebuilt at once after changes made through this node and every
+ * {@code auth.permissions.refresh-interval} to pick up changes made elsewhere.
+ */
+@Component
+public class PermissionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionRegistry.class);
+
+    // Seeded once into an empty permissions table
+    static final Map<String, Set<Role>> DEFAULT_GRANTS = defaultGrants();
+    static final String SEED_MARKER = "permissions";
+
+    private final PermissionRepository permissionRepository;
+    private final SeedMarkerRepository seedMarkerRepository;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), emptySets());
+
+    public PermissionRegistry(PermissionRepository permissionRepository, SeedMarkerRepository seedMarkerRepository) {
+        this.permissionRepository = permissionRepository;
+        this.seedMarkerRepository = seedMarkerRepository;
+    }
+
+    // An empty table after the first start is the admins' choice: restoring defaults would grant what they revoked
+    @PostConstruct
+    public void load() {
+        seedMarkerRepository.seedOnce(SEED_MARKER, () -> {
+            if (permissionRepository.count() != 0) {
+                return;
+            }
+            int bit = 0;
+            for (Map.Entry<String, Set<Role>> grant : DEFAULT_GRANTS.entrySet()) {
+                Permission permission = new Permission();
+                permission.setName(grant.getKey());
+                permission.setBit(bit++);
+                permission.setRoles(new HashSet<>(grant.getValue()));
+                permissionRepository.save(permission);
+            }
+            log.info("Seeded default permissions {}", DEFAULT_GRANTS.keySet());
+        });
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.permissions.refresh-interval:PT1M}")
+    public synchronized void reload() {
+        List<Permission> permissions = permissionRepository.findAll();
+        Map<String, Integer> bits = new HashMap<>();
+        int[][] bitsByRole = new int[Role.values().length][];
+        for (Role role : Role.values()) {
+            bitsByRole[role.ordinal()] = permissions.stream()
+                    .filter(permission -> permission.getRoles().contains(role))
+                    .mapToInt(Permission::getBit)
+                    .toArray();
+        }
+        for (Permission permission : permissions) {
+            bits.put(permission.getName(), permission.getBit());
+        }
+
+        PermissionSet[] byRoleMask = emptySets();
+        for (int mask = 1; mask < byRoleMask.length; mask++) {
+            PermissionSet set = PermissionSet.EMPTY;
+            for (Role role : Role.values()) {
+                if ((mask & RoleAuthorities.bit(role)) != 0) {
+                    set = set.union(PermissionSet.of(bitsByRole[role.ordinal()]));
+                }
+            }
+            byRoleMask[mask] = set;
+        }
+        snapshot = new Snapshot(Map.copyOf(bits), byRoleMask);
+    }
+
+    /**
+     * @param roleMask the user's roles, see {@link RoleAuthorities#maskOfAuthorities}
+     * @return {@code false} for permissions that do not exist
+     */
+    public boolean hasPermission(int roleMask, String permission) {
+        Snapshot current = snapshot;
+        Integer bit = current.bits().get(permission);
+        return bit != null && current.byRoleMask()[roleMask].has(bit);
+    }
+
+    public boolean isDefined(String permission) {
+        return snapshot.bits().containsKey(permission);
+    }
+
+    public PermissionSet permissionsOf(int roleMask) {
+        return snapshot.byRoleMask()[roleMask];
+    }
+
+    private static PermissionSet[] emptySets() {
+        PermissionSet[] sets = new PermissionSet[1 << Role.values().length];
+        Arrays.fill(sets, PermissionSet.EMPTY);
+        return sets;
+    }
+
+    private static Map<String, Set<Role>> defaultGrants() {
+        Map<String, Set<Role>> grants = new LinkedHashMap<>();
+        // Admins get these through the role hierarchy
+        grants.put("reports:read", Set.of(Role.ROLE_MODERATOR));
+        grants.put("content:review", Set.of(Role.ROLE_MODERATOR));
+        grants.put("config:write", Set.of(Role.ROLE_ADMIN));
+        return grants;
+    }
+
+    private record Snapshot(Map<String, Integer> bits, PermissionSet[] byRoleMask) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.security;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of permission bits (see {@link com.example.demo.model.Permission#getBit()}).
+ * Membership is a single word lookup and mask, however many permissions exist.
+ */
+public final class PermissionSet {
+
+    public static final PermissionSet EMPTY = new PermissionSet(new long[0]);
+
+    private final long[] words;
+
+    private PermissionSet(long[] words) {
+        this.words = words;
+    }
+
+    public static PermissionSet of(int... bits) {
+        long[] words = new long[0];
+        for (int bit : bits) {
+            int word = bit >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << bit;
+        }
+        return words.length == 0 ? EMPTY : new PermissionSet(words);
+    }
+
+    public boolean has(int bit) {
+        int word = bit >>> 6;
+        return bit >= 0 && word < words.length && (words[word] & (1L << bit)) != 0;
+    }
+
+    public PermissionSet union(PermissionSet other) {
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] union = longer.clone();
+        for (int i = 0; i < shorter.length; i++) {
+            union[i] |= shorter[i];
+        }
+        return new PermissionSet(union);
+    }
+}
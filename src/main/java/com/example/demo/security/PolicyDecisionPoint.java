@@ -0,0 +1,130 @@
+package com.example.demo.security;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether roles allow an action on a resource, using the compiled
+ * structures the application authorizes its own requests with. Both kinds of
+ * resource are answered without evaluating expressions. The subject's roles are
+ * expanded through the role hierarchy first.
+ * <ul>
+ *   <li>A resource starting with {@code /} is a path of this service and the
+ *   action is the HTTP method. The path must pass its rule in the
+ *   {@link RouteAuthorizationTable} and then the rules of the controller method
+ *   serving that method and path in {@link EndpointRules}: {@code @PreAuthorize}
+ *   and {@link RequiresPermission}. A path that an endpoint serves, but not with
+ *   this method, is denied. Paths no controller serves, such as actuator
+ *   endpoints, are judged by their route rule alone. The path must already be
+ *   normalized: the trie answers with the most specific prefix it reached, so
+ *   {@code /api/auth/../admin/users} would otherwise be judged as a public
+ *   {@code /api/auth/**} path.</li>
+ *   <li>Any other resource names a permission {@code resource:action} in the
+ *   {@link PermissionRegistry}.</li>
+ * </ul>
+ */
+@Component
+public class PolicyDecisionPoint {
+
+    private final RouteAuthorizationTable routes;
+    private final EndpointRules endpoints;
+    private final PermissionRegistry permissions;
+    private final RoleHierarchyRegistry roleHierarchy;
+
+    public PolicyDecisionPoint(RouteAuthorizationTable routes, EndpointRules endpoints, PermissionRegistry permissions,
+                               RoleHierarchyRegistry roleHierarchy) {
+        this.routes = routes;
+        this.endpoints = endpoints;
+        this.permissions = permissions;
+        this.roleHierarchy = roleHierarchy;
+    }
+
+    /**
+     * @param roleMask the subject's roles, see {@link RoleAuthorities#maskOfAuthorities}
+     */
+    public Verdict decide(int roleMask, String action, String resource) {
+        roleMask = roleHierarchy.expand(roleMask);
+        if (resource.startsWith("/")) {
+            if (!isNormalized(resource)) {
+                return Verdict.MALFORMED_RESOURCE;
+            }
+            if (!routes.ruleFor(resource).isGranted(roleMask)) {
+                return Verdict.NOT_GRANTED;
+            }
+            return decideEndpoint(roleMask, action, resource);
+        }
+        String permission = resource + ':' + action;
+        if (permissions.hasPermission(roleMask, permission)) {
+            return Verdict.PERMIT;
+        }
+        return permissions.isDefined(permission) ? Verdict.NOT_GRANTED : Verdict.UNKNOWN_PERMISSION;
+    }
+
+    private Verdict decideEndpoint(int roleMask, String method, String path) {
+        EndpointRules.Endpoint endpoint = endpoints.find(method, path);
+        if (endpoint == null) {
+            return endpoints.maps(path) ? Verdict.UNSUPPORTED_ACTION : Verdict.PERMIT;
+        }
+        if (endpoint.roleMask() == EndpointRules.UNDECIDABLE) {
+            return Verdict.UNDECIDABLE;
+        }
+        if (endpoint.roleMask() != 0 && (roleMask & endpoint.roleMask()) == 0) {
+            return Verdict.NOT_GRANTED;
+        }
+        if (endpoint.permission() != null && !permissions.hasPermission(roleMask, endpoint.permission())) {
+            return Verdict.NOT_GRANTED;
+        }
+        return Verdict.PERMIT;
+    }
+
+    /**
+     * Rejects what {@code StrictHttpFirewall} rejects before a request reaches the
+     * route rules: {@code .} and {@code ..} segments, empty segments, {@code ;}
+     * path parameters, percent-encoding (which could hide a separator), backslashes,
+     * query strings and fragments, and control characters.
+     */
+    static boolean isNormalized(String path) {
+        int segmentStart = 1;
+        for (int i = 1; i <= path.length(); i++) {
+            char c = i < path.length() ? path.charAt(i) : '/';
+            if (c == '/') {
+                int length = i - segmentStart;
+                boolean last = i == path.length();
+                if (length == 0 && !last
+                        || length == 1 && path.charAt(segmentStart) == '.'
+                        || length == 2 && path.startsWith("..", segmentStart)) {
+                    return false;
+                }
+                segmentStart = i + 1;
+            } else if (c == ';' || c == '%' || c == '\\' || c == '?' || c == '#' || c < 0x20 || c == 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public enum Verdict {
+        PERMIT(null),
+        NOT_GRANTED("Not granted to the subject's roles"),
+        UNKNOWN_PERMISSION("Unknown permission"),
+        MALFORMED_RESOURCE("Resource is not a normalized path"),
+        UNSUPPORTED_ACTION("The resource does not support the action"),
+        UNDECIDABLE("The endpoint's rule cannot be decided here");
+
+        private final String reason;
+
+        Verdict(String reason) {
+            this.reason = reason;
+        }
+
+        public boolean isPermit() {
+            return this == PERMIT;
+        }
+
+        /**
+         * @return why access is denied, {@code null} for {@link #PERMIT}
+         */
+        public String reason() {
+            return reason;
+        }
+    }
+}
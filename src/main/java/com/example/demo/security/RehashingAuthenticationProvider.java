@@ -0,0 +1,40 @@
+package com.example.demo.security;
+
+import com.example.demo.service.PasswordUpgradeService;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Username/password authentication that upgrades hashes stored with an outdated
+ * algorithm or cost. Unlike {@link DaoAuthenticationProvider}'s own
+ * {@code UserDetailsPasswordService} hook, which re-hashes on the login thread,
+ * the new hash is computed and saved in the background so the login response
+ * is not delayed by a second hash.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordUpgradeService passwordUpgradeService;
+
+    public RehashingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                           PasswordUpgradeService passwordUpgradeService) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        this.passwordEncoder = passwordEncoder;
+        this.passwordUpgradeService = passwordUpgradeService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        // Only reached once the password matched, so the presented credentials are the real password
+        if (authentication.getCredentials() != null && passwordEncoder.upgradeEncoding(user.getPassword())) {
+            passwordUpgradeService.scheduleUpgrade(user.getUsername(), user.getPassword(),
+                    authentication.getCredentials().toString());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requires the caller's roles to grant a permission, checked against the
+ * {@link PermissionRegistry} after any {@code @PreAuthorize}. On a method it
+ * replaces the class-level requirement.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface RequiresPermission {
+
+    /**
+     * The permission name, e.g. {@code content:review}.
+     */
+    String value();
+}
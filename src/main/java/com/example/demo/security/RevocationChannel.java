@@ -0,0 +1,34 @@
+package com.example.demo.security;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Fans token revocations and per-user token version changes out to every node so
+ * each one's in-memory state learns about them without polling the database.
+ * Delivery may repeat a message, including back to the node that published it;
+ * applying one is idempotent.
+ */
+public interface RevocationChannel {
+
+    void publish(Revocation revocation);
+
+    void subscribe(Consumer<Revocation> listener);
+
+    void publish(TokenVersionChange change);
+
+    void subscribeTokenVersions(Consumer<TokenVersionChange> listener);
+
+    /**
+     * @param expiresAt when the revoked token expires; nodes forget it afterwards
+     */
+    record Revocation(String tokenId, Instant expiresAt) {
+    }
+
+    /**
+     * @param username     whose cached principal is stale once the version moves forward
+     * @param tokenVersion tokens of the user issued with a lower version are no longer valid
+     */
+    record TokenVersionChange(Long userId, String username, int tokenVersion) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps {@link Role} values to shared {@link GrantedAuthority} instances. There is one
+ * authority per enum constant and one immutable authority set per role combination,
+ * all built at class load, so turning a user's roles into authorities allocates nothing.
+ * Combinations are addressed by a bitmask over {@link Role#ordinal()}.
+ */
+public final class RoleAuthorities {
+
+    private static final Role[] ROLES = Role.values();
+    private static final GrantedAuthority[] AUTHORITIES = new GrantedAuthority[ROLES.length];
+    private static final Map<String, Role> ROLES_BY_NAME = new HashMap<>();
+    private static final Set<GrantedAuthority>[] SETS_BY_MASK;
+
+    static {
+        if (ROLES.length > 16) {
+            throw new IllegalStateException("Too many roles to precompute authority sets: " + ROLES.length);
+        }
+        for (Role role : ROLES) {
+            AUTHORITIES[role.ordinal()] = new SimpleGrantedAuthority(role.name());
+            ROLES_BY_NAME.put(role.name(), role);
+        }
+        @SuppressWarnings("unchecked")
+        Set<GrantedAuthority>[] sets = new Set[1 << ROLES.length];
+        for (int mask = 0; mask < sets.length; mask++) {
+            GrantedAuthority[] members = new GrantedAuthority[Integer.bitCount(mask)];
+            int next = 0;
+            for (Role role : ROLES) {
+                if ((mask & bit(role)) != 0) {
+                    members[next++] = AUTHORITIES[role.ordinal()];
+                }
+            }
+            sets[mask] = Set.of(members);
+        }
+        SETS_BY_MASK = sets;
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static int bit(Role role) {
+        return 1 << role.ordinal();
+    }
+
+    public static GrantedAuthority authorityOf(Role role) {
+        return AUTHORITIES[role.ordinal()];
+    }
+
+    public static Role roleOf(String authority) {
+        return ROLES_BY_NAME.get(authority);
+    }
+
+    public static int maskOf(Set<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            // contains() per constant instead of iterating: no iterator allocation
+            for (Role role : ROLES) {
+                if (roles.contains(role)) {
+                    mask |= bit(role);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Mask for role names as carried in the token's {@code roles} claim. Names that
+     * are not {@link Role} constants are ignored.
+     */
+    public static int maskOfNames(List<?> names) {
+        int mask = 0;
+        for (int i = 0; i < names.size(); i++) {
+            Role role = ROLES_BY_NAME.get(String.valueOf(names.get(i)));
+            if (role != null) {
+                mask |= bit(role);
+            }
+        }
+        return mask;
+    }
+
+    public static int maskOfAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Role role = ROLES_BY_NAME.get(authority.getAuthority());
+            if (role != null) {
+                mask |= bit(role);
+            }
+        }
+        return mask;
+    }
+
+    public static Set<GrantedAuthority> authoritiesOf(int mask) {
+        return SETS_BY_MASK[mask];
+    }
+
+    public static Set<GrantedAuthority> authoritiesOf(Set<Role> roles) {
+        return SETS_BY_MASK[maskOf(roles)];
+    }
+}
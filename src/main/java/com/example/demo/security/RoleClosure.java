@@ -0,0 +1,151 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A role hierarchy compiled into its transitive closure. Every combination of
+ * roles maps to the mask of all roles it reaches, so expanding a user's roles is
+ * one array read and no graph is walked at request time. Instances are
+ * immutable; a changed hierarchy is compiled into a new one.
+ *
+ * <p>Hierarchies are written as chains, {@code ROLE_ADMIN > ROLE_MODERATOR > ROLE_USER},
+ * where each role includes the ones to its right. The {@code ROLE_} prefix is optional.
+ */
+public final class RoleClosure implements RoleHierarchy {
+
+    private static final Role[] ROLES = Role.values();
+
+    private final Map<Role, Set<Role>> inclusions;
+    private final int[] expandedByMask;
+
+    private RoleClosure(Map<Role, Set<Role>> inclusions, int[] expandedByMask) {
+        this.inclusions = inclusions;
+        this.expandedByMask = expandedByMask;
+    }
+
+    /**
+     * @param inclusions the roles each role directly includes
+     * @throws IllegalArgumentException if a role ends up including itself
+     */
+    public static RoleClosure of(Map<Role, Set<Role>> inclusions) {
+        int[] closure = new int[ROLES.length];
+        for (Role role : ROLES) {
+            closure[role.ordinal()] = RoleAuthorities.maskOf(inclusions.get(role));
+        }
+        // Warshall: after the step for a role, whoever reaches it also reaches what it reaches
+        for (Role via : ROLES) {
+            for (Role role : ROLES) {
+                if ((closure[role.ordinal()] & RoleAuthorities.bit(via)) != 0) {
+                    closure[role.ordinal()] |= closure[via.ordinal()];
+                }
+            }
+        }
+        for (Role role : ROLES) {
+            if ((closure[role.ordinal()] & RoleAuthorities.bit(role)) != 0) {
+                throw new IllegalArgumentException("Role hierarchy has a cycle through " + role);
+            }
+        }
+
+        int[] expandedByMask = new int[1 << ROLES.length];
+        for (int mask = 1; mask < expandedByMask.length; mask++) {
+            int expanded = mask;
+            for (Role role : ROLES) {
+                if ((mask & RoleAuthorities.bit(role)) != 0) {
+                    expanded |= closure[role.ordinal()];
+                }
+            }
+            expandedByMask[mask] = expanded;
+        }
+        Map<Role, Set<Role>> copy = new EnumMap<>(Role.class);
+        inclusions.forEach((role, included) -> {
+            if (!included.isEmpty()) {
+                copy.put(role, Set.copyOf(included));
+            }
+        });
+        return new RoleClosure(copy, expandedByMask);
+    }
+
+    /**
+     * @param chains lines such as {@code ROLE_ADMIN > ROLE_MODERATOR > ROLE_USER}
+     * @throws IllegalArgumentException for unknown roles, malformed chains or cycles
+     */
+    public static RoleClosure parse(Collection<String> chains) {
+        Map<Role, Set<Role>> inclusions = new EnumMap<>(Role.class);
+        for (String chain : chains) {
+            String[] names = chain.split(">");
+            if (names.length < 2) {
+                throw new IllegalArgumentException("Expected 'ROLE_A > ROLE_B', got: " + chain);
+            }
+            for (int i = 0; i + 1 < names.length; i++) {
+                inclusions.computeIfAbsent(roleNamed(names[i]), role -> EnumSet.noneOf(Role.class))
+                        .add(roleNamed(names[i + 1]));
+            }
+        }
+        return of(inclusions);
+    }
+
+    public static RoleClosure parse(String chains) {
+        return parse(Arrays.stream(chains.split("[;\\n]")).filter(chain -> !chain.isBlank()).toList());
+    }
+
+    /**
+     * @return the roles in the mask and every role they include, directly or not
+     */
+    public int expand(int roleMask) {
+        return expandedByMask[roleMask];
+    }
+
+    public Map<Role, Set<Role>> inclusions() {
+        return inclusions;
+    }
+
+    /**
+     * @return one {@code ROLE_A > ROLE_B} line per direct inclusion, in role order
+     */
+    public List<String> chains() {
+        List<String> chains = new ArrayList<>();
+        for (Role role : ROLES) {
+            for (Role included : ROLES) {
+                if (inclusions.getOrDefault(role, Set.of()).contains(included)) {
+                    chains.add(role.name() + " > " + included.name());
+                }
+            }
+        }
+        return chains;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getReachableGrantedAuthorities(
+            Collection<? extends GrantedAuthority> authorities) {
+        int mask = RoleAuthorities.maskOfAuthorities(authorities);
+        int expanded = expand(mask);
+        if (expanded == mask) {
+            return authorities;
+        }
+        // Keep authorities that are not roles, e.g. from other authentication mechanisms
+        Set<GrantedAuthority> all = new HashSet<>(authorities);
+        all.addAll(RoleAuthorities.authoritiesOf(expanded));
+        return all;
+    }
+
+    private static Role roleNamed(String name) {
+        String trimmed = name.trim();
+        Role role = RoleAuthorities.roleOf(trimmed.startsWith("ROLE_") ? trimmed : "ROLE_" + trimmed);
+        if (role == null) {
+            throw new IllegalArgumentException("Unknown role: " + trimmed);
+        }
+        return role;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.RoleInclusion;
+import com.example.demo.repository.RoleInclusionRepository;
+import com.example.demo.repository.SeedMarkerRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The role hierarchy from the database, compiled into a {@link RoleClosure}.
+ * An empty table is seeded from {@code auth.roles.hierarchy} on the first start
+ * only; emptied later, it stays a hierarchy without inclusions. The closure is
+ * replaced as a whole, copy-on-write, so authorization checks read it without
+ * locking and never see a half-built hierarchy. It is rebuilt at once after
+ * changes made through this node and every {@code auth.roles.refresh-interval}
+ * to pick up changes made elsewhere.
+ */
+@Component
+public class RoleHierarchyRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleHierarchyRegistry.class);
+
+    static final String SEED_MARKER = "role_inclusions";
+
+    private final RoleInclusionRepository roleInclusionRepository;
+    private final SeedMarkerRepository seedMarkerRepository;
+    private final RoleClosure defaults;
+    private volatile RoleClosure closure;
+
+    public RoleHierarchyRegistry(RoleInclusionRepository roleInclusionRepository,
+                                 SeedMarkerRepository seedMarkerRepository,
+                                 @Value("${auth.roles.hierarchy:ROLE_ADMIN > ROLE_MODERATOR > ROLE_USER}") String hierarchy) {
+        this.roleInclusionRepository = roleInclusionRepository;
+        this.seedMarkerRepository = seedMarkerRepository;
+        this.defaults = RoleClosure.parse(hierarchy);
+        // Until the table is read, so requests during startup already see the configured hierarchy
+        this.closure = defaults;
+    }
+
+    @PostConstruct
+    public void load() {
+        seedMarkerRepository.seedOnce(SEED_MARKER, () -> {
+            if (roleInclusionRepository.count() != 0) {
+                return;
+            }
+            defaults.inclusions().forEach((role, included) -> included.forEach(includedRole ->
+                    roleInclusionRepository.save(new RoleInclusion(role, includedRole))));
+            log.info("Seeded role hierarchy {}", defaults.chains());
+        });
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.roles.refresh-interval:PT1M}")
+    public synchronized void reload() {
+        Map<Role, Set<Role>> inclusions = new EnumMap<>(Role.class);
+        for (RoleInclusion inclusion : roleInclusionRepository.findAll()) {
+            inclusions.computeIfAbsent(inclusion.getRole(), role -> EnumSet.noneOf(Role.class))
+                    .add(inclusion.getIncludedRole());
+        }
+        closure = RoleClosure.of(inclusions);
+    }
+
+    public RoleClosure current() {
+        return closure;
+    }
+
+    /**
+     * @see RoleClosure#expand
+     */
+    public int expand(int roleMask) {
+        return closure.expand(roleMask);
+    }
+}
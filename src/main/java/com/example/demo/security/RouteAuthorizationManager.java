@@ -0,0 +1,57 @@
+package com.example.demo.security;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.function.Supplier;
+
+/**
+ * Authorizes requests against a {@link RouteAuthorizationTable}: one trie walk
+ * for the rule and one AND against the user's role mask, expanded through the
+ * role hierarchy, in place of trying a list of request matchers in order.
+ * Public routes never resolve the authentication.
+ */
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final RouteAuthorizationTable table;
+    private final Supplier<RoleClosure> roleHierarchy;
+
+    public RouteAuthorizationManager(RouteAuthorizationTable table, Supplier<RoleClosure> roleHierarchy) {
+        this.table = table;
+        this.roleHierarchy = roleHierarchy;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        RouteAuthorizationTable.AccessRule rule = table.ruleFor(pathOf(context.getRequest()));
+        if (rule.permitAll()) {
+            return GRANTED;
+        }
+        return rule.isGranted(roleHierarchy.get().expand(roleMaskOf(authentication.get()))) ? GRANTED : DENIED;
+    }
+
+    static int roleMaskOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return 0;
+        }
+        return RoleAuthorities.maskOfAuthorities(authentication.getAuthorities());
+    }
+
+    // The same decoded path AntPathRequestMatcher matched against
+    private static String pathOf(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null) {
+            return servletPath;
+        }
+        return servletPath.isEmpty() ? pathInfo : servletPath + pathInfo;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * URL access rules compiled into a trie of path segments. Patterns are either
+ * exact paths ({@code /v3/api-docs.yaml}) or prefixes ending in {@code /**},
+ * which, as with Ant patterns, also match the prefix itself. A lookup walks the
+ * request path once, without allocating, and the most specific matching pattern
+ * wins; paths no pattern matches get the fallback rule.
+ *
+ * <p>Role requirements are bitmasks over {@link Role} (see
+ * {@link RoleAuthorities#bit}), so checking a user against a rule is one AND.
+ */
+public final class RouteAuthorizationTable {
+
+    private final Node root;
+    private final AccessRule fallback;
+
+    private RouteAuthorizationTable(Node root, AccessRule fallback) {
+        this.root = root;
+        this.fallback = fallback;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param path the request path within the application, starting with {@code /}
+     */
+    public AccessRule ruleFor(String path) {
+        Node node = root;
+        AccessRule match = root.subtree;
+        int length = path.length();
+        int start = 0;
+        while (node != null) {
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start == length) {
+                return node.exact != null ? node.exact : orFallback(match);
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.child(path, start, end);
+            if (node != null && node.subtree != null) {
+                match = node.subtree;
+            }
+            start = end;
+        }
+        return orFallback(match);
+    }
+
+    private AccessRule orFallback(AccessRule match) {
+        return match != null ? match : fallback;
+    }
+
+    /**
+     * @param roleMask roles of which the user needs at least one; ignored when {@code permitAll}
+     */
+    public record AccessRule(boolean permitAll, int roleMask) {
+
+        public static final AccessRule PERMIT_ALL = new AccessRule(true, 0);
+
+        public static AccessRule anyRole(Role... roles) {
+            int mask = 0;
+            for (Role role : roles) {
+                mask |= RoleAuthorities.bit(role);
+            }
+            return new AccessRule(false, mask);
+        }
+
+        public boolean isGranted(int userRoleMask) {
+            return permitAll || (userRoleMask & roleMask) != 0;
+        }
+    }
+
+    public static final class Builder {
+
+        private final Map<String, AccessRule> patterns = new LinkedHashMap<>();
+        private AccessRule fallback = AccessRule.anyRole(Role.values());
+
+        private Builder() {
+        }
+
+        public Builder permitAll(String... patterns) {
+            for (String pattern : patterns) {
+                rule(pattern, AccessRule.PERMIT_ALL);
+            }
+            return this;
+        }
+
+        public Builder anyRole(String pattern, Role... roles) {
+            return rule(pattern, AccessRule.anyRole(roles));
+        }
+
+        public Builder rule(String pattern, AccessRule rule) {
+            int wildcard = pattern.indexOf('*');
+            if (!pattern.startsWith("/")
+                    || wildcard >= 0 && (wildcard != pattern.length() - 2 || !pattern.endsWith("/**"))) {
+                throw new IllegalArgumentException("Only exact paths and '/**' prefixes are supported: " + pattern);
+            }
+            if (patterns.putIfAbsent(pattern, rule) != null) {
+                throw new IllegalArgumentException("Duplicate route pattern: " + pattern);
+            }
+            return this;
+        }
+
+        public Builder otherwise(AccessRule rule) {
+            this.fallback = rule;
+            return this;
+        }
+
+        public RouteAuthorizationTable build() {
+            MutableNode root = new MutableNode();
+            patterns.forEach((pattern, rule) -> {
+                boolean prefix = pattern.endsWith("/**");
+                MutableNode node = root;
+                for (String segment : (prefix ? pattern.substring(0, pattern.length() - 3) : pattern).split("/")) {
+                    if (!segment.isEmpty()) {
+                        node = node.children.computeIfAbsent(segment, s -> new MutableNode());
+                    }
+                }
+                if (prefix) {
+                    node.subtree = rule;
+                } else {
+                    node.exact = rule;
+                }
+            });
+            return new RouteAuthorizationTable(root.freeze(), fallback);
+        }
+    }
+
+    private static final class MutableNode {
+
+        private final Map<String, MutableNode> children = new LinkedHashMap<>();
+        private AccessRule exact;
+        private AccessRule subtree;
+
+        Node freeze() {
+            List<String> names = new ArrayList<>(children.keySet());
+            Node[] nodes = new Node[names.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = children.get(names.get(i)).freeze();
+            }
+            return new Node(names.toArray(String[]::new), nodes, exact, subtree);
+        }
+    }
+
+    // Nodes have a handful of children, so a linear scan beats hashing a substring
+    private record Node(String[] names, Node[] children, AccessRule exact, AccessRule subtree) {
+
+        Node child(String path, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i];
+                if (name.length() == length && path.regionMatches(start, name, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+}
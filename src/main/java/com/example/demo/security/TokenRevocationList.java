@@ -0,0 +1,150 @@
+package com.example.demo.security;
+
+import com.example.demo.model.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens by {@code jti}. Revocations are persisted so a restarted
+ * node reloads them, and published on the {@link RevocationChannel} so other
+ * nodes apply them without touching the database.
+ *
+ * <p>Lookups go through a Bloom filter first: a token that was never revoked,
+ * the common case, is rejected by the filter after a few bit probes. Only a
+ * filter hit consults the exact set. The set and filter are rebuilt without
+ * entries whose tokens have expired, since those fail verification anyway.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RevocationChannel channel;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    // Replaced, never cleared, so readers always see a filter that covers the exact set
+    private volatile BloomFilter filter;
+    private int filterCapacity;
+    private final Counter falsePositives;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               RevocationChannel channel,
+                               @Value("${auth.revocation.expected-revocations:10000}") int expectedInsertions,
+                               @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.channel = channel;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filterCapacity = expectedInsertions;
+        this.filter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("auth.revocation.size", revoked, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(registry);
+        this.falsePositives = Counter.builder("auth.revocation.filter.false-positives")
+                .description("Lookups the Bloom filter passed on to the exact set that were not revoked")
+                .register(registry);
+        channel.subscribe(this::apply);
+    }
+
+    @PostConstruct
+    public void load() {
+        Instant now = Instant.now();
+        for (RevokedToken token : revokedTokenRepository.findAllByExpiresAtAfter(now)) {
+            apply(new RevocationChannel.Revocation(token.getTokenId(), token.getExpiresAt()));
+        }
+    }
+
+    /**
+     * @param tokenId the token's {@code jti}; tokens issued without one cannot be revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Revokes the token on every node until it expires.
+     *
+     * @return {@code false} if the token has no {@code jti} or already expired
+     */
+    public boolean revoke(String tokenId, String subject, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(now)) {
+            return false;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, subject, expiresAt, now));
+        RevocationChannel.Revocation revocation = new RevocationChannel.Revocation(tokenId, expiresAt);
+        apply(revocation);
+        channel.publish(revocation);
+        return true;
+    }
+
+    public boolean revoke(VerifiedToken token) {
+        return revoke(token.tokenId(), token.subject(), token.expiration());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.prune-interval:PT1M}")
+    public void pruneExpired() {
+        Instant now = Instant.now();
+        boolean removed = revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        if (removed) {
+            synchronized (this) {
+                rebuild(Math.max(expectedInsertions, revoked.size() * 2));
+            }
+        }
+        if (deleted > 0) {
+            log.debug("Pruned {} expired token revocations", deleted);
+        }
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    // Writers are rare and serialised so a rebuild cannot miss a concurrent revocation
+    private synchronized void apply(RevocationChannel.Revocation revocation) {
+        if (!revocation.expiresAt().isAfter(Instant.now())) {
+            return;
+        }
+        revoked.put(revocation.tokenId(), revocation.expiresAt());
+        if (revoked.size() > filterCapacity) {
+            // Past its sizing the false-positive rate climbs quickly; grow instead
+            rebuild(filterCapacity * 2);
+        } else {
+            filter.put(revocation.tokenId());
+        }
+    }
+
+    private void rebuild(int capacity) {
+        BloomFilter rebuilt = BloomFilter.create(capacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filterCapacity = capacity;
+        filter = rebuilt;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.security;
+
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current token version per user id, for "log out everywhere" without storing
+ * tokens. Tokens carry the version they were issued with ({@code ver}); one whose
+ * version is below the user's current one is refused.
+ *
+ * <p>Only users whose version was ever raised are held, so the map stays small.
+ * A check is a single {@link ConcurrentHashMap#get}, which never locks; versions
+ * only grow, so concurrent updates merge by taking the maximum.
+ *
+ * <p>A version that moves forward also evicts the user's cached principal, so a
+ * node that learns of the change from the channel stops serving the roles and
+ * status it cached before the change.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private final UserRepository userRepository;
+    private final RevocationChannel channel;
+    private final CustomUserDetailsService userDetailsService;
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                RevocationChannel channel,
+                                CustomUserDetailsService userDetailsService,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userRepository = userRepository;
+        this.channel = channel;
+        this.userDetailsService = userDetailsService;
+        channel.subscribeTokenVersions(this::apply);
+        Gauge.builder("auth.token-versions.size", versions, Map::size)
+                .description("Users whose tokens were invalidated at least once")
+                .register(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @PostConstruct
+    public void load() {
+        for (UserRepository.TokenVersionView user : userRepository.findByTokenVersionGreaterThan(0)) {
+            // Nothing is cached yet at startup, so there is no principal to evict
+            apply(new RevocationChannel.TokenVersionChange(user.getId(), null, user.getTokenVersion()));
+        }
+    }
+
+    /**
+     * @param userId tokens without a user id predate token versions and are not checked
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        if (userId == null) {
+            return true;
+        }
+        Integer current = versions.get(userId);
+        return current == null || tokenVersion >= current;
+    }
+
+    /**
+     * Records the user's new version, already persisted, on every node.
+     */
+    public void advance(Long userId, String username, int tokenVersion) {
+        RevocationChannel.TokenVersionChange change =
+                new RevocationChannel.TokenVersionChange(userId, username, tokenVersion);
+        apply(change);
+        channel.publish(change);
+    }
+
+    private void apply(RevocationChannel.TokenVersionChange change) {
+        if (change.userId() == null || change.tokenVersion() <= 0) {
+            return;
+        }
+        boolean[] advanced = new boolean[1];
+        versions.compute(change.userId(), (userId, current) -> {
+            if (current != null && current >= change.tokenVersion()) {
+                return current;
+            }
+            advanced[0] = true;
+            return change.tokenVersion();
+        });
+        // Repeated and out-of-order deliveries leave the version, and the cache, alone
+        if (advanced[0] && change.username() != null) {
+            userDetailsService.evictUser(change.username());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Result of parsing and verifying a JWT exactly once. Everything the request
+ * path needs is read from this object instead of re-parsing the raw token.
+ *
+ * @param authorities  the role claims, or {@code null} for tokens issued without them
+ * @param tokenId      the {@code jti} claim, or {@code null} for tokens issued without one
+ * @param tokenVersion the user's token version when the token was issued, 0 for tokens without one
+ */
+public record VerifiedToken(
+        String subject,
+        Long userId,
+        Instant issuedAt,
+        Instant expiration,
+        Set<GrantedAuthority> authorities,
+        boolean enabled,
+        String tokenId,
+        int tokenVersion) {
+
+    public VerifiedToken {
+        // Set.copyOf returns the shared RoleAuthorities sets as they are
+        authorities = authorities == null ? null : Set.copyOf(authorities);
+    }
+
+    public boolean hasAuthorities() {
+        return authorities != null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiration != null && !expiration.isAfter(now);
+    }
+
+    public boolean isIssuedTo(UserDetails userDetails) {
+        return subject.equals(userDetails.getUsername());
+    }
+
+    public UserPrincipal toPrincipal() {
+        return new UserPrincipal(userId, subject, null, hasAuthorities() ? authorities : Set.of(), enabled,
+                tokenVersion);
+    }
+}
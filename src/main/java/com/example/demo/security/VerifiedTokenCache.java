@@ -0,0 +1,152 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.InvalidTokenException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bounded cache of tokens that already passed {@link JwtUtil#verifyToken}, keyed
+ * by a SHA-256 digest of the raw token so repeat requests skip the HMAC check and
+ * payload parsing. Only successful verifications are stored; an entry never
+ * outlives the token's own {@code exp} and is ignored once the signing key changes.
+ * Every hit or miss is checked against the {@link TokenRevocationList} and the
+ * {@link TokenVersionRegistry}, so a revoked token, or one issued before the
+ * user logged out everywhere, is refused at once even while it is still cached.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationList revocationList;
+    private final TokenVersionRegistry tokenVersions;
+    private final Duration maxTtl;
+    private final Cache<TokenKey, CachedToken> cache;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              TokenRevocationList revocationList,
+                              TokenVersionRegistry tokenVersions,
+                              @Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:100000}") long maxSize,
+                              @Value("${jwt.cache.max-ttl:PT5M}") Duration maxTtl,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.revocationList = revocationList;
+        this.tokenVersions = tokenVersions;
+        this.maxTtl = maxTtl;
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "jwt.verified-tokens"));
+    }
+
+    /**
+     * Returns the verified token from the cache, verifying and caching it on a miss.
+     *
+     * @throws InvalidTokenException if the token does not verify or has been revoked
+     */
+    public VerifiedToken verify(String token) {
+        return checkNotRevoked(lookup(token));
+    }
+
+    private VerifiedToken lookup(String token) {
+        if (cache == null) {
+            return jwtUtil.verifyToken(token);
+        }
+        // Read the generation before verifying so a concurrent key change can only make the entry stale
+        long generation = jwtUtil.getKeyGeneration();
+        TokenKey key = TokenKey.of(token);
+        CachedToken cached = cache.getIfPresent(key);
+        if (cached != null && cached.generation() == generation && !cached.token().isExpired(Instant.now())) {
+            return cached.token();
+        }
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+        cache.put(key, new CachedToken(verified, generation));
+        return verified;
+    }
+
+    private VerifiedToken checkNotRevoked(VerifiedToken token) {
+        if (revocationList.isRevoked(token.tokenId())) {
+            throw new InvalidTokenException("JWT token has been revoked");
+        }
+        if (!tokenVersions.isCurrent(token.userId(), token.tokenVersion())) {
+            throw new InvalidTokenException("JWT token was issued before the user's sessions were ended");
+        }
+        return token;
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    private record CachedToken(VerifiedToken token, long generation) {
+    }
+
+    /**
+     * First 128 bits of the SHA-256 digest of the raw token; holding the digest
+     * rather than the token keeps bearer credentials out of the heap dump.
+     */
+    record TokenKey(long high, long low) {
+
+        static TokenKey of(String token) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+                ByteBuffer buffer = ByteBuffer.wrap(digest);
+                return new TokenKey(buffer.getLong(), buffer.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    private class TokenExpiry implements Expiry<TokenKey, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(TokenKey key, CachedToken value, long currentTime) {
+            Duration ttl = maxTtl;
+            Instant expiration = value.token().expiration();
+            if (expiration != null) {
+                Duration untilExpiry = Duration.between(Instant.now(), expiration);
+                if (untilExpiry.compareTo(ttl) < 0) {
+                    ttl = untilExpiry.isNegative() ? Duration.ZERO : untilExpiry;
+                }
+            }
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenKey key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenKey key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
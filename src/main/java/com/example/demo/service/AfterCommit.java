@@ -0,0 +1,27 @@
+package com.example.demo.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work until the current transaction has committed. In-memory registries
+ * compiled from the database reload this way: reloading inside the transaction
+ * would read the state before the change, and a rollback must not reach them.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * @throws IllegalStateException if no transaction synchronization is active
+     */
+    static void run(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
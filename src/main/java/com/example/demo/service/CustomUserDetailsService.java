@@ -1,32 +1,130 @@
 package com.example.demo.service;
 
-import com.example.demo.model.User;
+import com.example.demo.model.Role;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.RoleAuthorities;
+import com.example.demo.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    // Loaded principals by username; UserService evicts an entry whenever the user's
+    // credentials, status or roles change, the TTL bounds staleness across nodes.
+    private final LoadingCache<String, UserPrincipal> cache;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${auth.user-cache.enabled:true}") boolean cacheEnabled,
+                                    @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${auth.user-cache.ttl:PT10M}") Duration ttl,
+                                    @Value("${auth.user-cache.refresh-after:PT1M}") Duration refreshAfter,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
         this.userRepository = userRepository;
+        if (!cacheEnabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(refreshAfter)
+                .recordStats()
+                .build(this::loadPrincipal);
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "users.details"));
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        UserPrincipal principal = cache == null ? loadPrincipal(username) : cache.get(username);
+        if (principal == null) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        // Callers may erase credentials on the returned principal, so never hand out the cached instance
+        return cache == null ? principal : principal.copy();
+    }
+
+    /**
+     * Loads many users at once: cached principals are served from memory and all
+     * remaining usernames are fetched with a single query. Unknown usernames are
+     * absent from the result.
+     */
+    public Map<String, UserPrincipal> loadUsersByUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, UserPrincipal> principals = cache == null
+                ? loadPrincipals(Set.copyOf(usernames))
+                : cache.getAll(usernames, this::loadPrincipals);
+        Map<String, UserPrincipal> copies = new HashMap<>(principals.size());
+        principals.forEach((username, principal) -> copies.put(username, cache == null ? principal : principal.copy()));
+        return copies;
+    }
+
+    public void evictUser(String username) {
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public CacheStats cacheStats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    // Login and filter misses land here; the projection skips the entity and its separate roles select
+    private UserPrincipal loadPrincipal(String username) {
+        return toPrincipals(userRepository.findPrincipalRowsByUsername(username)).get(username);
+    }
+
+    private Map<String, UserPrincipal> loadPrincipals(Set<? extends String> usernames) {
+        return toPrincipals(userRepository.findPrincipalRowsByUsernameIn(Set.copyOf(usernames)));
+    }
 
-        return new org.springframework.security.core.userdetails.User(
+    // The projection has one row per role, or a single row with a null role
+    private static Map<String, UserPrincipal> toPrincipals(List<UserRepository.PrincipalRow> rows) {
+        Map<String, UserRepository.PrincipalRow> users = new HashMap<>();
+        Map<String, Set<Role>> roles = new HashMap<>();
+        for (UserRepository.PrincipalRow row : rows) {
+            users.putIfAbsent(row.getUsername(), row);
+            Set<Role> userRoles = roles.computeIfAbsent(row.getUsername(), username -> EnumSet.noneOf(Role.class));
+            if (row.getRole() != null) {
+                userRoles.add(row.getRole());
+            }
+        }
+        Map<String, UserPrincipal> principals = new HashMap<>(users.size());
+        users.forEach((username, user) -> principals.put(username, new UserPrincipal(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
-                new ArrayList<>()
-        );
+                RoleAuthorities.authoritiesOf(roles.get(username)),
+                user.isEnabled(),
+                user.getTokenVersion()
+        )));
+        return principals;
     }
-}
\ No newline at end of file
+}
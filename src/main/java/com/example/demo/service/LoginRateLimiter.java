@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.RateLimitExceededException;
+import com.example.demo.security.LoginThrottleStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Throttles login attempts per username and per client address, so credential
+ * stuffing is refused before it reaches the password hash. Each key has a token
+ * bucket; on top of that, a username that keeps failing backs off exponentially
+ * until it logs in successfully.
+ */
+@Service
+public class LoginRateLimiter {
+
+    private final LoginThrottleStore store;
+    private final boolean enabled;
+    private final LoginThrottleStore.Limit usernameLimit;
+    private final LoginThrottleStore.Limit addressLimit;
+    private final LoginThrottleStore.Backoff backoff;
+
+    private final Counter usernameRejected;
+    private final Counter addressRejected;
+
+    public LoginRateLimiter(LoginThrottleStore store,
+                            @Value("${auth.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${auth.rate-limit.username.capacity:10}") int usernameCapacity,
+                            @Value("${auth.rate-limit.username.period:PT1M}") Duration usernamePeriod,
+                            @Value("${auth.rate-limit.ip.capacity:100}") int addressCapacity,
+                            @Value("${auth.rate-limit.ip.period:PT1M}") Duration addressPeriod,
+                            @Value("${auth.rate-limit.backoff.free-failures:3}") int freeFailures,
+                            @Value("${auth.rate-limit.backoff.base:PT1S}") Duration backoffBase,
+                            @Value("${auth.rate-limit.backoff.max:PT15M}") Duration backoffMax,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.store = store;
+        this.enabled = enabled;
+        this.usernameLimit = new LoginThrottleStore.Limit(usernameCapacity, usernamePeriod);
+        this.addressLimit = new LoginThrottleStore.Limit(addressCapacity, addressPeriod);
+        this.backoff = new LoginThrottleStore.Backoff(freeFailures, backoffBase, backoffMax);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.usernameRejected = rejectedCounter(registry, "username");
+        this.addressRejected = rejectedCounter(registry, "ip");
+    }
+
+    /**
+     * Takes one attempt from the client address's and the username's budget.
+     *
+     * @throws RateLimitExceededException if either is exhausted or the username is backing off
+     */
+    public void checkAllowed(String username, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        Duration wait = store.tryAcquire(addressKey(clientAddress), addressLimit);
+        if (!wait.isZero()) {
+            addressRejected.increment();
+            throw new RateLimitExceededException(wait);
+        }
+        wait = store.tryAcquire(usernameKey(username), usernameLimit);
+        if (!wait.isZero()) {
+            usernameRejected.increment();
+            throw new RateLimitExceededException(wait);
+        }
+    }
+
+    public void recordFailure(String username) {
+        if (enabled) {
+            store.recordFailure(usernameKey(username), backoff);
+        }
+    }
+
+    public void recordSuccess(String username) {
+        if (enabled) {
+            store.recordSuccess(usernameKey(username));
+        }
+    }
+
+    // Case variants of one name share a budget, so they cannot be used to multiply it
+    private static String usernameKey(String username) {
+        return "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String addressKey(String clientAddress) {
+        return "ip:" + clientAddress;
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String limit) {
+        return Counter.builder("auth.login.rate-limited")
+                .description("Login attempts refused before the password was checked")
+                .tag("limit", limit)
+                .register(registry);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.PasswordHashingUnavailableException;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-hashes passwords stored with an outdated algorithm or cost after a
+ * successful login. Upgrades run one at a time on a background thread, so they
+ * never add latency to the login and take at most one slot of the hashing pool.
+ * An upgrade that cannot run now (queue full, hashing pool saturated) is simply
+ * dropped: the next login of that user schedules it again.
+ */
+@Service
+public class PasswordUpgradeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordUpgradeService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final ThreadPoolExecutor executor;
+    // Usernames with an upgrade queued or running; repeated logins do not queue duplicates
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final Counter upgraded;
+    private final Counter stale;
+    private final Counter deferred;
+    private final Counter dropped;
+    private final Counter failed;
+
+    public PasswordUpgradeService(UserRepository userRepository,
+                                  PasswordEncoder passwordEncoder,
+                                  CustomUserDetailsService userDetailsService,
+                                  @Value("${auth.password-hashing.upgrade-queue-capacity:1000}") int queueCapacity,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-upgrade");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.upgraded = upgradeCounter(registry, "upgraded");
+        this.stale = upgradeCounter(registry, "stale");
+        this.deferred = upgradeCounter(registry, "deferred");
+        this.dropped = upgradeCounter(registry, "dropped");
+        this.failed = upgradeCounter(registry, "failed");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param currentHash the hash the password was just verified against
+     * @param rawPassword the password that matched it
+     */
+    public void scheduleUpgrade(String username, String currentHash, String rawPassword) {
+        if (!pending.add(username)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    upgrade(username, currentHash, rawPassword);
+                } finally {
+                    pending.remove(username);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(username);
+            dropped.increment();
+        }
+    }
+
+    boolean upgrade(String username, String currentHash, String rawPassword) {
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (userRepository.updatePasswordIfUnchanged(username, currentHash, newHash) == 0) {
+                // Password changed or user deleted since the login; the newer state wins
+                stale.increment();
+                return false;
+            }
+            userDetailsService.evictUser(username);
+            upgraded.increment();
+            return true;
+        } catch (PasswordHashingUnavailableException e) {
+            // Logins get the hashing pool first; the upgrade is retried on the next login
+            deferred.increment();
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade password hash for user {}", username, e);
+            failed.increment();
+            return false;
+        }
+    }
+
+    private static Counter upgradeCounter(MeterRegistry registry, String result) {
+        return Counter.builder("auth.password.upgrades")
+                .description("Stored password hashes re-hashed with the current algorithm and cost after login")
+                .tag("result", result)
+                .register(registry);
+    }
+}
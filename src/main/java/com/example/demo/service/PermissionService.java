@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.PermissionAlreadyExistsException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.security.PermissionRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Manages permissions and their grants to roles. Every change recompiles the
+ * {@link PermissionRegistry} once it is committed.
+ */
+@Service
+public class PermissionService {
+
+    private final PermissionRepository permissionRepository;
+    private final PermissionRegistry permissionRegistry;
+
+    public PermissionService(PermissionRepository permissionRepository, PermissionRegistry permissionRegistry) {
+        this.permissionRepository = permissionRepository;
+        this.permissionRegistry = permissionRegistry;
+    }
+
+    public List<Permission> findAll() {
+        return permissionRepository.findAll();
+    }
+
+    @Transactional
+    public Permission create(String name, String description) {
+        if (permissionRepository.existsByName(name)) {
+            throw new PermissionAlreadyExistsException("Permission already exists: " + name);
+        }
+        Permission permission = new Permission();
+        permission.setName(name);
+        permission.setDescription(description);
+        permission.setBit(lowestFreeBit());
+        Permission saved = permissionRepository.save(permission);
+        AfterCommit.run(permissionRegistry::reload);
+        return saved;
+    }
+
+    @Transactional
+    public void delete(String name) {
+        permissionRepository.delete(findPermission(name));
+        AfterCommit.run(permissionRegistry::reload);
+    }
+
+    /**
+     * Replaces the permissions granted to the role.
+     */
+    @Transactional
+    public List<Permission> setRolePermissions(Role role, Collection<String> names) {
+        Set<String> granted = Set.copyOf(names);
+        for (String name : granted) {
+            if (!permissionRepository.existsByName(name)) {
+                throw new ResourceNotFoundException("Permission not found: " + name);
+            }
+        }
+        List<Permission> permissions = permissionRepository.findAll();
+        for (Permission permission : permissions) {
+            if (granted.contains(permission.getName())) {
+                permission.getRoles().add(role);
+            } else {
+                permission.getRoles().remove(role);
+            }
+        }
+        AfterCommit.run(permissionRegistry::reload);
+        return permissions.stream().filter(permission -> permission.getRoles().contains(role)).toList();
+    }
+
+    private Permission findPermission(String name) {
+        return permissionRepository.findByName(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Permission not found: " + name));
+    }
+
+    // Bits of deleted permissions are reused, keeping compiled sets short
+    private int lowestFreeBit() {
+        BitSet used = new BitSet();
+        for (Permission permission : permissionRepository.findAll()) {
+            used.set(permission.getBit());
+        }
+        return used.nextClearBit(0);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DecisionRequest;
+import com.example.demo.dto.DecisionResult;
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.PolicyDecisionPoint;
+import com.example.demo.security.RoleAuthorities;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy decisions for other services: resolves the subject token to a role
+ * mask and asks the {@link PolicyDecisionPoint}. Nothing on the way queries the
+ * database in the common case. Verified tokens come from the
+ * {@link VerifiedTokenCache} and users from the user details cache, and the
+ * policy itself is compiled, so decisions are not cached separately.
+ */
+@Service
+public class PolicyDecisionService {
+
+    private final VerifiedTokenCache tokenCache;
+    private final JwtUtil jwtUtil;
+    private final CustomUserDetailsService userDetailsService;
+    private final PolicyDecisionPoint policy;
+
+    private final Counter permitted;
+    private final Counter denied;
+    private final Timer singleTimer;
+    private final Timer batchTimer;
+
+    public PolicyDecisionService(VerifiedTokenCache tokenCache,
+                                 JwtUtil jwtUtil,
+                                 CustomUserDetailsService userDetailsService,
+                                 PolicyDecisionPoint policy,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.tokenCache = tokenCache;
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.policy = policy;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.permitted = decisionCounter(registry, "permit");
+        this.denied = decisionCounter(registry, "deny");
+        this.singleTimer = decisionTimer(registry, "single");
+        this.batchTimer = decisionTimer(registry, "batch");
+    }
+
+    public DecisionResult decide(DecisionRequest request) {
+        long start = System.nanoTime();
+        try {
+            return decide(resolve(stripBearer(request.getToken())), request);
+        } finally {
+            singleTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Each distinct token is verified once and the users the batch needs are
+     * loaded with a single query.
+     *
+     * @return one result per request, in request order
+     */
+    public List<DecisionResult> decideAll(List<DecisionRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            Map<String, Outcome> outcomes = new HashMap<>();
+            Set<String> lookups = new HashSet<>();
+            for (DecisionRequest request : requests) {
+                Outcome outcome = outcomes.computeIfAbsent(stripBearer(request.getToken()), this::verify);
+                if (outcome.token() != null && needsLookup(outcome.token())) {
+                    lookups.add(outcome.token().subject());
+                }
+            }
+            Map<String, UserPrincipal> users = userDetailsService.loadUsersByUsernames(lookups);
+
+            Map<String, Subject> subjects = new HashMap<>(outcomes.size());
+            outcomes.forEach((token, outcome) -> subjects.put(token, subjectOf(outcome, users)));
+
+            List<DecisionResult> results = new ArrayList<>(requests.size());
+            for (DecisionRequest request : requests) {
+                results.add(decide(subjects.get(stripBearer(request.getToken())), request));
+            }
+            return results;
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private DecisionResult decide(Subject subject, DecisionRequest request) {
+        if (subject.invalidReason() != null) {
+            denied.increment();
+            return DecisionResult.deny(subject.name(), subject.invalidReason());
+        }
+        PolicyDecisionPoint.Verdict verdict = policy.decide(subject.roleMask(), request.getAction(),
+                request.getResource());
+        if (verdict.isPermit()) {
+            permitted.increment();
+            return DecisionResult.permit(subject.name(), subject.expiresAt());
+        }
+        denied.increment();
+        return DecisionResult.deny(subject.name(), verdict.reason());
+    }
+
+    private Subject resolve(String token) {
+        Outcome outcome = verify(token);
+        if (outcome.token() == null || !needsLookup(outcome.token())) {
+            return subjectOf(outcome, Map.of());
+        }
+        try {
+            return subjectOf(outcome.token(), userDetailsService.loadUserByUsername(outcome.token().subject()));
+        } catch (UsernameNotFoundException e) {
+            return subjectOf(outcome.token(), null);
+        }
+    }
+
+    private Outcome verify(String token) {
+        try {
+            return new Outcome(tokenCache.verify(token), null);
+        } catch (InvalidTokenException e) {
+            return new Outcome(null, e.getMessage());
+        }
+    }
+
+    private Subject subjectOf(Outcome outcome, Map<String, UserPrincipal> users) {
+        VerifiedToken token = outcome.token();
+        if (token == null) {
+            return Subject.invalid(null, outcome.reason());
+        }
+        return subjectOf(token, needsLookup(token) ? users.get(token.subject()) : token.toPrincipal());
+    }
+
+    private static Subject subjectOf(VerifiedToken token, UserDetails user) {
+        if (user == null) {
+            return Subject.invalid(token.subject(), "User not found");
+        }
+        if (!user.isEnabled()) {
+            return Subject.invalid(token.subject(), "User is disabled");
+        }
+        return new Subject(token.subject(), RoleAuthorities.maskOfAuthorities(user.getAuthorities()),
+                token.expiration(), null);
+    }
+
+    // Same rule as JwtRequestFilter: claims suffice only in stateless mode and when the token carries roles
+    private boolean needsLookup(VerifiedToken token) {
+        return !(jwtUtil.isStateless() && token.hasAuthorities());
+    }
+
+    private static String stripBearer(String token) {
+        return token.startsWith("Bearer ") ? token.substring(7) : token;
+    }
+
+    private static Counter decisionCounter(MeterRegistry registry, String decision) {
+        return Counter.builder("auth.authz.decisions")
+                .description("Policy decisions answered for other services")
+                .tag("decision", decision)
+                .register(registry);
+    }
+
+    private static Timer decisionTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("auth.authz.decide.duration")
+                .description("Time to answer a policy decision call")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private record Outcome(VerifiedToken token, String reason) {
+    }
+
+    /**
+     * @param invalidReason why the token cannot be used, {@code null} for a valid subject
+     */
+    private record Subject(String name, int roleMask, Instant expiresAt, String invalidReason) {
+
+        static Subject invalid(String name, String reason) {
+            return new Subject(name, 0, null, reason);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.model.RefreshToken;
+import com.example.demo.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. A refresh is one indexed lookup by token
+ * hash and a compare-and-set update: tokens are 256 random bits, so a single
+ * SHA-256 protects them at rest and no password hashing is needed.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Counter rotated;
+    private final Counter reused;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh-token.ttl:P14D}") Duration ttl,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.rotated = Counter.builder("auth.refresh.tokens")
+                .description("Refresh tokens exchanged for a new token pair")
+                .tag("result", "rotated")
+                .register(registry);
+        this.reused = Counter.builder("auth.refresh.tokens")
+                .description("Refresh tokens presented again after rotation; their family is revoked")
+                .tag("result", "reused")
+                .register(registry);
+    }
+
+    /**
+     * Starts a new token family, one per login.
+     *
+     * @return the raw token for the client; only its hash is stored
+     */
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consumes a refresh token and issues its successor in the same family.
+     *
+     * @throws InvalidTokenException if the token is unknown, expired, revoked or
+     *                               already used; reuse revokes the whole family
+     */
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (token.isRevoked() || token.getUsedAt() != null) {
+            throw reuseDetected(token);
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new InvalidTokenException("Refresh token expired");
+        }
+        if (refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            // Another request consumed the same token first: two holders of one token
+            throw reuseDetected(token);
+        }
+        String successor = issue(token.getUsername(), token.getFamilyId());
+        // A replay that lost the compare-and-set may have revoked the family before the
+        // successor was stored, which its revocation would then have missed. Checking only
+        // after the insert has committed closes that gap: a revocation that commits later
+        // sees the successor, and one that committed earlier is seen here.
+        if (refreshTokenRepository.existsByFamilyIdAndRevokedTrue(token.getFamilyId())) {
+            throw reuseDetected(token);
+        }
+        rotated.increment();
+        return new Rotation(token.getUsername(), successor);
+    }
+
+    /**
+     * Revokes the token's whole family, e.g. on logout. Unknown tokens are ignored.
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Revokes every refresh token of the user, e.g. after a password change.
+     */
+    public void revokeAll(String username) {
+        refreshTokenRepository.revokeAllByUsername(username);
+    }
+
+    // Used tokens are kept until they expire so that a late replay is still recognised
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.prune-interval:PT1H}")
+    public int pruneExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Pruned {} expired refresh tokens", deleted);
+        }
+        return deleted;
+    }
+
+    private String issue(String username, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setUsername(username);
+        token.setExpiresAt(Instant.now().plus(ttl));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+
+    private InvalidTokenException reuseDetected(RefreshToken token) {
+        int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId());
+        reused.increment();
+        log.warn("Refresh token reuse for user {}; revoked {} tokens of family {}",
+                token.getUsername(), revoked, token.getFamilyId());
+        return new InvalidTokenException("Refresh token has already been used");
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @param refreshToken the successor to hand back to the client
+     */
+    public record Rotation(String username, String refreshToken) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.InvalidRoleHierarchyException;
+import com.example.demo.model.RoleInclusion;
+import com.example.demo.repository.RoleInclusionRepository;
+import com.example.demo.security.RoleClosure;
+import com.example.demo.security.RoleHierarchyRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the role hierarchy. A new hierarchy is compiled before it is
+ * stored, so one with unknown roles or a cycle is rejected and the previous
+ * one stays in force.
+ */
+@Service
+public class RoleHierarchyService {
+
+    private final RoleInclusionRepository roleInclusionRepository;
+    private final RoleHierarchyRegistry roleHierarchyRegistry;
+
+    public RoleHierarchyService(RoleInclusionRepository roleInclusionRepository,
+                                RoleHierarchyRegistry roleHierarchyRegistry) {
+        this.roleInclusionRepository = roleInclusionRepository;
+        this.roleHierarchyRegistry = roleHierarchyRegistry;
+    }
+
+    public RoleClosure current() {
+        return roleHierarchyRegistry.current();
+    }
+
+    @Transactional
+    public RoleClosure replace(List<String> chains) {
+        RoleClosure closure;
+        try {
+            closure = RoleClosure.parse(chains);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRoleHierarchyException(e.getMessage());
+        }
+        List<RoleInclusion> inclusions = new ArrayList<>();
+        closure.inclusions().forEach((role, included) -> included.forEach(includedRole ->
+                inclusions.add(new RoleInclusion(role, includedRole))));
+        roleInclusionRepository.deleteAllInBatch();
+        roleInclusionRepository.saveAll(inclusions);
+        AfterCommit.run(roleHierarchyRegistry::reload);
+        return closure;
+    }
+}
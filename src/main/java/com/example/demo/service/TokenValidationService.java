@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TokenValidationResult;
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates many tokens in one call for API gateways. Signatures are checked in
+ * parallel chunks on a bounded pool and every user lookup the batch needs is
+ * resolved with a single query.
+ */
+@Service
+public class TokenValidationService {
+
+    // Below this many tokens per chunk the hand-off costs more than the verification it spreads out
+    private static final int MIN_CHUNK_SIZE = 32;
+
+    private final VerifiedTokenCache tokenCache;
+    private final JwtUtil jwtUtil;
+    private final CustomUserDetailsService userDetailsService;
+    private final ThreadPoolExecutor executor;
+
+    public TokenValidationService(VerifiedTokenCache tokenCache,
+                                  JwtUtil jwtUtil,
+                                  CustomUserDetailsService userDetailsService,
+                                  @Value("${auth.validation.batch.threads:0}") int threads,
+                                  @Value("${auth.validation.batch.queue-capacity:256}") int queueCapacity,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        this.tokenCache = tokenCache;
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A full queue runs the chunk on the request thread, which throttles callers instead of failing them
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "token-validation-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        meterRegistry.ifAvailable(registry ->
+                new ExecutorServiceMetrics(executor, "auth.validation.batch", Tags.empty()).bindTo(registry));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param tokens raw tokens, optionally prefixed with {@code Bearer }
+     * @return one result per input token, in input order
+     */
+    public List<TokenValidationResult> validateAll(List<String> tokens) {
+        // Repeated tokens (one client behind many requests) are verified once
+        List<String> distinct = tokens.stream()
+                .map(TokenValidationService::stripBearer)
+                .distinct()
+                .toList();
+        Outcome[] outcomes = verifyAll(distinct);
+
+        Set<String> lookups = new HashSet<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.token() != null && needsLookup(outcome.token())) {
+                lookups.add(outcome.token().subject());
+            }
+        }
+        Map<String, UserPrincipal> users = userDetailsService.loadUsersByUsernames(lookups);
+
+        Map<String, TokenValidationResult> results = new HashMap<>(distinct.size());
+        for (int i = 0; i < outcomes.length; i++) {
+            results.put(distinct.get(i), resultOf(outcomes[i], users));
+        }
+        List<TokenValidationResult> ordered = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            ordered.add(results.get(stripBearer(token)));
+        }
+        return ordered;
+    }
+
+    private Outcome[] verifyAll(List<String> tokens) {
+        Outcome[] outcomes = new Outcome[tokens.size()];
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, Math.ceilDiv(tokens.size(), executor.getCorePoolSize()));
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        int start = 0;
+        // Every chunk but the last goes to the pool; the request thread verifies the last one itself
+        for (; start + chunkSize < tokens.size(); start += chunkSize) {
+            int from = start;
+            int to = start + chunkSize;
+            chunks.add(CompletableFuture.runAsync(() -> verifyRange(tokens, from, to, outcomes), executor));
+        }
+        verifyRange(tokens, start, tokens.size(), outcomes);
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        return outcomes;
+    }
+
+    private void verifyRange(List<String> tokens, int from, int to, Outcome[] outcomes) {
+        for (int i = from; i < to; i++) {
+            try {
+                outcomes[i] = new Outcome(tokenCache.verify(tokens.get(i)), null);
+            } catch (InvalidTokenException e) {
+                outcomes[i] = new Outcome(null, e.getMessage());
+            }
+        }
+    }
+
+    private TokenValidationResult resultOf(Outcome outcome, Map<String, UserPrincipal> users) {
+        VerifiedToken token = outcome.token();
+        if (token == null) {
+            return TokenValidationResult.invalid(null, outcome.reason());
+        }
+        UserDetails user = needsLookup(token) ? users.get(token.subject()) : token.toPrincipal();
+        if (user == null) {
+            return TokenValidationResult.invalid(token.subject(), "User not found");
+        }
+        if (!user.isEnabled()) {
+            return TokenValidationResult.invalid(token.subject(), "User is disabled");
+        }
+        return TokenValidationResult.valid(token.subject(), authorityNames(user.getAuthorities()), token.expiration());
+    }
+
+    // Same rule as JwtRequestFilter: claims suffice only in stateless mode and when the token carries roles
+    private boolean needsLookup(VerifiedToken token) {
+        return !(jwtUtil.isStateless() && token.hasAuthorities());
+    }
+
+    private static List<String> authorityNames(Collection<? extends GrantedAuthority> authorities) {
+        List<String> names = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        return names;
+    }
+
+    private static String stripBearer(String token) {
+        if (token == null) {
+            return "";
+        }
+        return token.startsWith("Bearer ") ? token.substring(7) : token;
+    }
+
+    private record Outcome(VerifiedToken token, String reason) {
+    }
+}
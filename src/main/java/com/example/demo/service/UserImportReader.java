@@ -0,0 +1,210 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UserImportRecord;
+import com.example.demo.exception.InvalidImportException;
+import com.example.demo.model.Role;
+import com.example.demo.security.RoleAuthorities;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads a bulk import one line at a time, so only the current line is held in
+ * memory however large the upload. A line that cannot be read becomes an error
+ * for that line and does not stop the import.
+ *
+ * <p>NDJSON has one {@link UserImportRecord} object per line. CSV starts with a
+ * header naming its columns from {@code username}, {@code email}, {@code password},
+ * {@code passwordHash}, {@code roles} and {@code enabled}, in any order. Roles are
+ * separated by {@code |}, with the {@code ROLE_} prefix optional. Blank lines are
+ * skipped in both formats.
+ */
+public final class UserImportReader implements Iterator<UserImportReader.Line> {
+
+    private static final List<String> CSV_COLUMNS =
+            List.of("username", "email", "password", "passwordhash", "roles", "enabled");
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> csvColumns;
+    private long lineNumber;
+    private Line next;
+
+    private UserImportReader(BufferedReader reader, ObjectMapper objectMapper, Map<String, Integer> csvColumns,
+                             long lineNumber) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.csvColumns = csvColumns;
+        this.lineNumber = lineNumber;
+    }
+
+    public static UserImportReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new UserImportReader(new BufferedReader(reader), objectMapper, null, 0);
+    }
+
+    /**
+     * @throws InvalidImportException if the header is missing or names unknown columns
+     */
+    public static UserImportReader csv(Reader reader) {
+        BufferedReader buffered = new BufferedReader(reader);
+        String header = readLine(buffered);
+        if (header == null || header.isBlank()) {
+            throw new InvalidImportException("CSV import needs a header line");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new InvalidImportException("Unknown CSV column: " + names.get(i).trim());
+            }
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("username") || !columns.containsKey("email")) {
+            throw new InvalidImportException("CSV header must name the username and email columns");
+        }
+        return new UserImportReader(buffered, null, columns, 1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Line next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Line line = next;
+        next = null;
+        return line;
+    }
+
+    private Line readNext() {
+        String text;
+        do {
+            text = readLine(reader);
+            if (text == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (text.isBlank());
+        try {
+            return new Line(lineNumber, csvColumns == null ? parseJson(text) : parseCsv(text), null);
+        } catch (IllegalArgumentException e) {
+            return new Line(lineNumber, null, e.getMessage());
+        }
+    }
+
+    private UserImportRecord parseJson(String text) {
+        try {
+            return objectMapper.readValue(text, UserImportRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON record: " + e.getOriginalMessage());
+        }
+    }
+
+    private UserImportRecord parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        UserImportRecord record = new UserImportRecord();
+        record.setUsername(field(fields, "username"));
+        record.setEmail(field(fields, "email"));
+        record.setPassword(field(fields, "password"));
+        record.setPasswordHash(field(fields, "passwordhash"));
+        String roles = field(fields, "roles");
+        if (roles != null) {
+            record.setRoles(parseRoles(roles));
+        }
+        String enabled = field(fields, "enabled");
+        if (enabled != null) {
+            if (!enabled.equalsIgnoreCase("true") && !enabled.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("enabled must be true or false, got: " + enabled);
+            }
+            record.setEnabled(Boolean.parseBoolean(enabled));
+        }
+        return record;
+    }
+
+    // Empty fields read as absent
+    private String field(List<String> fields, String column) {
+        Integer index = csvColumns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static Set<Role> parseRoles(String roles) {
+        Set<Role> parsed = EnumSet.noneOf(Role.class);
+        for (String name : roles.split("\\|")) {
+            String trimmed = name.trim();
+            Role role = RoleAuthorities.roleOf(trimmed.startsWith("ROLE_") ? trimmed : "ROLE_" + trimmed);
+            if (role == null) {
+                throw new IllegalArgumentException("Unknown role: " + trimmed);
+            }
+            parsed.add(role);
+        }
+        return parsed;
+    }
+
+    // RFC 4180 quoting within a line; quoted fields cannot span lines
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param number the line in the upload, counting the CSV header
+     * @param error  why the line could not be read, {@code null} if {@code record} is set
+     */
+    public record Line(long number, UserImportRecord record, String error) {
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UserImportRecord;
+import com.example.demo.exception.UserAlreadyExistsException;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.PasswordHashCalibration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user provisioning for migrations. Records are taken from the reader in
+ * chunks of {@code auth.import.batch-size}, so memory does not grow with the
+ * upload. For each chunk:
+ * <ol>
+ *     <li>duplicates against the database are found with one query;</li>
+ *     <li>plaintext passwords are hashed in parallel;</li>
+ *     <li>users and their roles are inserted as two JDBC batches in one transaction.</li>
+ * </ol>
+ * Ids are taken from the users sequence in blocks, the same way Hibernate's
+ * pooled-lo optimizer does, so imported and signed-up users never collide.
+ *
+ * <p>A record that fails is reported to the {@link Listener} and skipped; the
+ * rest of its chunk is still imported.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_USER = "insert into users "
+            + "(id, username, username_key, email, email_key, password, enabled, token_version) "
+            + "values (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_ROLE = "insert into user_roles (user_id, role) values (?, ?)";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final String nextIdSql;
+    private final int batchSize;
+    private final ExecutorService hashExecutor;
+
+    private final Counter imported;
+    private final Counter rejected;
+
+    public UserImportService(UserRepository userRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             PasswordHashCalibration calibration,
+                             Validator validator,
+                             EntityManagerFactory entityManagerFactory,
+                             @Value("${auth.import.batch-size:500}") int batchSize,
+                             @Value("${auth.import.hash-threads:0}") int hashThreads,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The calibrated encoder, not the bounded login pool: an import must not fill the queue logins wait in
+        this.passwordEncoder = calibration.encoder();
+        this.validator = validator;
+        this.nextIdSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString(User.ID_SEQUENCE);
+        this.batchSize = batchSize;
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        this.hashExecutor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "user-import-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.imported = importCounter(registry, "imported");
+        this.rejected = importCounter(registry, "rejected");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    /**
+     * Imports every record the reader yields. Rejected records and progress
+     * after each chunk are reported to the listener as they happen.
+     */
+    public Summary importUsers(Iterator<UserImportReader.Line> lines, Listener listener) {
+        Run run = new Run(listener);
+        List<Candidate> chunk = new ArrayList<>(batchSize);
+        while (lines.hasNext()) {
+            UserImportReader.Line line = lines.next();
+            run.processed++;
+            Candidate candidate = run.check(line);
+            if (candidate != null) {
+                chunk.add(candidate);
+            }
+            if (chunk.size() == batchSize) {
+                run.flush(chunk);
+                chunk.clear();
+                listener.progress(run.summary());
+            }
+        }
+        if (!chunk.isEmpty()) {
+            run.flush(chunk);
+            listener.progress(run.summary());
+        }
+        Summary summary = run.summary();
+        log.info("User import finished: {} records, {} imported, {} rejected",
+                summary.processed(), summary.imported(), summary.rejected());
+        return summary;
+    }
+
+    private static Counter importCounter(MeterRegistry registry, String result) {
+        return Counter.builder("auth.import.records")
+                .description("Records of bulk user imports, by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public interface Listener {
+
+        void rejected(long line, String username, String reason);
+
+        void progress(Summary summary);
+    }
+
+    public record Summary(long processed, long imported, long rejected) {
+    }
+
+    private record Candidate(long line, UserImportRecord record, User user) {
+    }
+
+    // State of one import: counts and the current block of ids
+    private final class Run {
+
+        private final Listener listener;
+        private long processed;
+        private long importedCount;
+        private long rejectedCount;
+        private long nextId;
+        private long blockEnd;
+
+        Run(Listener listener) {
+            this.listener = listener;
+        }
+
+        Summary summary() {
+            return new Summary(processed, importedCount, rejectedCount);
+        }
+
+        // Everything that needs neither the database nor a hash
+        Candidate check(UserImportReader.Line line) {
+            if (line.error() != null) {
+                reject(line.number(), null, line.error());
+                return null;
+            }
+            UserImportRecord record = line.record();
+            Set<ConstraintViolation<UserImportRecord>> violations = validator.validate(record);
+            if (!violations.isEmpty()) {
+                reject(line.number(), record.getUsername(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return null;
+            }
+            if ((record.getPassword() == null) == (record.getPasswordHash() == null)) {
+                reject(line.number(), record.getUsername(), "Exactly one of password and passwordHash is required");
+                return null;
+            }
+            if (record.getPasswordHash() != null && !PasswordHashCalibration.isSupportedHash(record.getPasswordHash())) {
+                reject(line.number(), record.getUsername(), "passwordHash is not a supported hash format");
+                return null;
+            }
+            User user = new User();
+            user.setUsername(record.getUsername());
+            user.setEmail(record.getEmail());
+            user.setPassword(record.getPasswordHash());
+            user.setEnabled(record.getEnabled() == null || record.getEnabled());
+            user.setRoles(record.getRoles() == null || record.getRoles().isEmpty()
+                    ? Set.of(Role.ROLE_USER) : record.getRoles());
+            return new Candidate(line.number(), record, user);
+        }
+
+        void flush(List<Candidate> chunk) {
+            List<Candidate> unique = withoutDuplicates(chunk);
+            List<Candidate> hashed = hash(unique);
+            for (Candidate candidate : hashed) {
+                candidate.user().setId(allocateId());
+            }
+            if (hashed.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(hashed));
+                accept(hashed.size());
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent signup took a username or email since the check; find which record, one by one
+                for (Candidate candidate : hashed) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> insert(List.of(candidate)));
+                        accept(1);
+                    } catch (DataIntegrityViolationException violation) {
+                        UserAlreadyExistsException exists = UserAlreadyExistsException.fromConstraintViolation(violation);
+                        reject(candidate.line(), candidate.user().getUsername(),
+                                exists != null ? exists.getMessage() : "Rejected by the database");
+                    }
+                }
+            }
+        }
+
+        // Within the chunk first seen wins; against the database, one query for the whole chunk
+        private List<Candidate> withoutDuplicates(List<Candidate> chunk) {
+            Set<String> usernameKeys = new HashSet<>();
+            Set<String> emailKeys = new HashSet<>();
+            List<Candidate> distinct = new ArrayList<>(chunk.size());
+            for (Candidate candidate : chunk) {
+                if (!usernameKeys.add(candidate.user().getUsernameKey())) {
+                    reject(candidate.line(), candidate.user().getUsername(), UserAlreadyExistsException.USERNAME_TAKEN);
+                } else if (!emailKeys.add(candidate.user().getEmailKey())) {
+                    usernameKeys.remove(candidate.user().getUsernameKey());
+                    reject(candidate.line(), candidate.user().getUsername(), UserAlreadyExistsException.EMAIL_IN_USE);
+                } else {
+                    distinct.add(candidate);
+                }
+            }
+            if (distinct.isEmpty()) {
+                return distinct;
+            }
+            Set<String> takenUsernames = new HashSet<>();
+            Set<String> takenEmails = new HashSet<>();
+            for (UserRepository.UserKeys keys : userRepository.findTakenKeys(usernameKeys, emailKeys)) {
+                takenUsernames.add(keys.getUsernameKey());
+                takenEmails.add(keys.getEmailKey());
+            }
+            List<Candidate> unique = new ArrayList<>(distinct.size());
+            for (Candidate candidate : distinct) {
+                if (takenUsernames.contains(candidate.user().getUsernameKey())) {
+                    reject(candidate.line(), candidate.user().getUsername(), UserAlreadyExistsException.USERNAME_TAKEN);
+                } else if (takenEmails.contains(candidate.user().getEmailKey())) {
+                    reject(candidate.line(), candidate.user().getUsername(), UserAlreadyExistsException.EMAIL_IN_USE);
+                } else {
+                    unique.add(candidate);
+                }
+            }
+            return unique;
+        }
+
+        private List<Candidate> hash(List<Candidate> candidates) {
+            List<Future<String>> hashes = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                String password = candidate.record().getPassword();
+                hashes.add(password == null ? null : hashExecutor.submit(() -> passwordEncoder.encode(password)));
+            }
+            List<Candidate> hashed = new ArrayList<>(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                Candidate candidate = candidates.get(i);
+                if (hashes.get(i) == null) {
+                    hashed.add(candidate);
+                    continue;
+                }
+                try {
+                    candidate.user().setPassword(hashes.get(i).get());
+                    hashed.add(candidate);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("User import interrupted", e);
+                } catch (ExecutionException e) {
+                    reject(candidate.line(), candidate.user().getUsername(), "Password could not be hashed");
+                }
+            }
+            return hashed;
+        }
+
+        private void insert(List<Candidate> candidates) {
+            List<Object[]> users = new ArrayList<>(candidates.size());
+            List<Object[]> roles = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                User user = candidate.user();
+                users.add(new Object[]{user.getId(), user.getUsername(), user.getUsernameKey(), user.getEmail(),
+                        user.getEmailKey(), user.getPassword(), user.isEnabled()});
+                for (Role role : user.getRoles()) {
+                    roles.add(new Object[]{user.getId(), role.name()});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_USER, users);
+            jdbcTemplate.batchUpdate(INSERT_ROLE, roles);
+        }
+
+        // pooled-lo: each sequence value starts a block of ID_BLOCK_SIZE ids
+        private long allocateId() {
+            if (nextId == blockEnd) {
+                nextId = jdbcTemplate.queryForObject(nextIdSql, Long.class);
+                blockEnd = nextId + User.ID_BLOCK_SIZE;
+            }
+            return nextId++;
+        }
+
+        private void accept(int count) {
+            importedCount += count;
+            imported.increment(count);
+        }
+
+        private void reject(long line, String username, String reason) {
+            rejectedCount++;
+            rejected.increment();
+            listener.rejected(line, username, reason);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UserListRequest;
+import com.example.demo.dto.UserPage;
+import com.example.demo.dto.UserSummary;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The admin user listing. Pages seek past the last id seen rather than skip an
+ * offset, so page 10,000 costs the same as page 1 and inserts between requests
+ * never shift a page. The export walks the same index on one streamed query and
+ * keeps only the user being assembled in memory.
+ */
+@Service
+public class UserListingService {
+
+    private final UserRepository userRepository;
+
+    public UserListingService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public UserPage page(UserListRequest request) {
+        List<UserRepository.UserListingRow> rows = userRepository.findListingPage(afterId(request),
+                request.getEnabled(), request.getRole(), emailSuffix(request), Limit.of(request.getLimit()));
+        if (rows.isEmpty()) {
+            return new UserPage(List.of(), null);
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (UserRepository.UserListingRow row : rows) {
+            ids.add(row.getId());
+        }
+        Map<Long, Set<Role>> roles = new HashMap<>();
+        for (UserRepository.UserRoleRow row : userRepository.findRolesByUserIdIn(ids)) {
+            roles.computeIfAbsent(row.getUserId(), id -> EnumSet.noneOf(Role.class)).add(row.getRole());
+        }
+
+        List<UserSummary> users = new ArrayList<>(rows.size());
+        for (UserRepository.UserListingRow row : rows) {
+            users.add(new UserSummary(row.getId(), row.getUsername(), row.getEmail(), row.isEnabled(),
+                    roles.getOrDefault(row.getId(), Set.of())));
+        }
+        // A short page is the last one, so clients need not ask for an empty page to find out
+        Long next = rows.size() == request.getLimit() ? rows.get(rows.size() - 1).getId() : null;
+        return new UserPage(users, next);
+    }
+
+    /**
+     * Hands every user matching the request's filters, from its {@code afterId}
+     * on, to {@code sink} in id order, ignoring its {@code limit}. The read-only
+     * transaction stays open until the last user has been handed over.
+     *
+     * @return the number of users exported
+     */
+    @Transactional(readOnly = true)
+    public long export(UserListRequest request, Consumer<UserSummary> sink) {
+        long count = 0;
+        try (Stream<UserRepository.UserExportRow> rows = userRepository.streamListing(afterId(request),
+                request.getEnabled(), request.getRole(), emailSuffix(request))) {
+            UserSummary current = null;
+            for (UserRepository.UserExportRow row : (Iterable<UserRepository.UserExportRow>) rows::iterator) {
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        sink.accept(current);
+                        count++;
+                    }
+                    current = new UserSummary(row.getId(), row.getUsername(), row.getEmail(), row.isEnabled(),
+                            EnumSet.noneOf(Role.class));
+                }
+                if (row.getRole() != null) {
+                    current.getRoles().add(row.getRole());
+                }
+            }
+            if (current != null) {
+                sink.accept(current);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long afterId(UserListRequest request) {
+        return request.getAfterId() != null ? request.getAfterId() : Long.MIN_VALUE;
+    }
+
+    // Matched against the lower-cased email key; the request pattern already rules out LIKE wildcards
+    private static String emailSuffix(UserListRequest request) {
+        return request.getEmailDomain() != null ? "%@" + User.keyOf(request.getEmailDomain()) : null;
+    }
+}
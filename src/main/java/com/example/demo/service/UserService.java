@@ -5,33 +5,42 @@ import com.example.demo.exception.UserAlreadyExistsException;
 import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.TokenVersionRegistry;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import java.util.HashSet;
 import java.util.Set;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenVersionRegistry tokenVersions;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       CustomUserDetailsService userDetailsService, RefreshTokenService refreshTokenService,
+                       TokenVersionRegistry tokenVersions) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenVersions = tokenVersions;
     }
 
+    /**
+     * Creates the user with a single insert. The unique constraints on the
+     * username and email keys reject duplicates, including concurrent ones;
+     * {@link UserAlreadyExistsException#fromConstraintViolation} tells them apart.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the username or email is taken
+     */
     public User registerUser(SignupRequest signupRequest) {
-        if (userRepository.existsByUsername(signupRequest.getUsername())) {
-            throw new UserAlreadyExistsException("Username is already taken!");
-        }
-
-        if (userRepository.existsByEmail(signupRequest.getEmail())) {
-            throw new UserAlreadyExistsException("Email is already in use!");
-        }
-
         User user = new User();
         user.setUsername(signupRequest.getUsername());
         user.setEmail(signupRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
 
         // Set default role as USER if no roles specified
         Set<Role> roles = signupRequest.getRoles();
@@ -40,12 +49,69 @@ public class UserService {
         }
         user.setRoles(roles);
 
-        return userRepository.save(user);
+        // The hash is the expensive step, so it comes last; the request was validated before it got here
+        user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
+        return saveAndEvict(user);
     }
 
     public boolean validateUser(String username, String password) {
-        return userRepository.findByUsername(username)
-                .map(user -> passwordEncoder.matches(password, user.getPassword()))
+        return userRepository.findPasswordByUsername(username)
+                .map(hash -> passwordEncoder.matches(password, hash))
                 .orElse(false);
     }
-}
\ No newline at end of file
+
+    public User changePassword(String username, String newPassword) {
+        User user = findUser(username);
+        user.setPassword(passwordEncoder.encode(newPassword));
+        // Sessions started with the old password must not outlive it
+        User saved = invalidateTokens(user);
+        refreshTokenService.revokeAll(username);
+        return saved;
+    }
+
+    public User setEnabled(String username, boolean enabled) {
+        User user = findUser(username);
+        user.setEnabled(enabled);
+        return enabled ? saveAndEvict(user) : invalidateTokens(user);
+    }
+
+    public User updateRoles(String username, Set<Role> roles) {
+        User user = findUser(username);
+        user.setRoles(new HashSet<>(roles));
+        // Access tokens carry the roles they were issued with
+        return invalidateTokens(user);
+    }
+
+    /**
+     * Ends every session of the user: access tokens issued so far stop verifying
+     * on all nodes and every refresh token is revoked.
+     */
+    public User logoutEverywhere(String username) {
+        User saved = invalidateTokens(findUser(username));
+        refreshTokenService.revokeAll(username);
+        return saved;
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+    }
+
+    // Access tokens issued before the new version are refused; the next login picks it up. The version
+    // read back may already include a concurrent invalidation's increment, which only makes it higher
+    private User invalidateTokens(User user) {
+        User saved = userRepository.save(user);
+        userRepository.incrementTokenVersion(saved.getId());
+        saved.setTokenVersion(userRepository.findTokenVersionById(saved.getId()));
+        userDetailsService.evictUser(saved.getUsername());
+        tokenVersions.advance(saved.getId(), saved.getUsername(), saved.getTokenVersion());
+        return saved;
+    }
+
+    // Every change that affects authentication must drop the cached principal
+    private User saveAndEvict(User user) {
+        User saved = userRepository.save(user);
+        userDetailsService.evictUser(saved.getUsername());
+        return saved;
+    }
+}
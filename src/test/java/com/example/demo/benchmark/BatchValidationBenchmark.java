@@ -0,0 +1,90 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.dto.TokenValidationResult;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.TokenValidationService;
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to validate a gateway's batch of tokens: one verify-and-lookup per token,
+ * as N calls to /api/auth/validate do, against {@link TokenValidationService#validateAll}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchValidationBenchmark {
+
+    @Param({"100", "1000"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private VerifiedTokenCache tokenCache;
+    private CustomUserDetailsService userDetailsService;
+    private TokenValidationService validationService;
+    private List<String> tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Caches off so every run pays for signature checks and user lookups
+        context = BenchmarkApplication.start("jwt.cache.enabled=false", "auth.user-cache.enabled=false");
+        tokenCache = context.getBean(VerifiedTokenCache.class);
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+        validationService = context.getBean(TokenValidationService.class);
+        UserService userService = context.getBean(UserService.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+
+        tokens = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            SignupRequest signup = new SignupRequest();
+            signup.setUsername("bench" + i);
+            signup.setEmail("bench" + i + "@example.com");
+            signup.setPassword("password123");
+            userService.registerUser(signup);
+            tokens.add(jwtUtil.generateToken(userDetailsService.loadUserByUsername("bench" + i)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void oneByOne(Blackhole blackhole) {
+        for (String token : tokens) {
+            VerifiedToken verified = tokenCache.verify(token);
+            blackhole.consume(userDetailsService.loadUserByUsername(verified.subject()).isEnabled());
+        }
+    }
+
+    @Benchmark
+    public List<TokenValidationResult> batch() {
+        return validationService.validateAll(tokens);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.SpringBootHelloApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the full application for benchmarks that need the real beans (JPA, H2,
+ * security filter chain). SQL logging is switched off so it does not dominate
+ * the measurement, and so is login rate limiting, since load tests log in from
+ * one address far faster than it allows. Properties are passed as command-line arguments so they
+ * override {@code application.yml}.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.jpa.show-sql=false",
+                "spring.datasource.url=jdbc:h2:mem:benchdb-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "logging.level.root=WARN",
+                "auth.rate-limit.enabled=false"
+        ));
+        all.addAll(List.of(properties));
+        return new SpringApplicationBuilder(SpringBootHelloApplication.class)
+                .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
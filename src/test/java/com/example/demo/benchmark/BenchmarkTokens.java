@@ -0,0 +1,49 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.repository.RevokedTokenRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.InProcessRevocationChannel;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.TokenRevocationList;
+import com.example.demo.security.TokenVersionRegistry;
+import com.example.demo.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Standalone {@link JwtUtil} configured like {@code application.yml}, for
+ * benchmarks that do not need the application context.
+ */
+final class BenchmarkTokens {
+
+    static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private BenchmarkTokens() {
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86400000L);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    /**
+     * Empty revocation list whose persistence is a no-op mock.
+     */
+    static TokenRevocationList revocationList(int expectedRevocations) {
+        return new TokenRevocationList(Mockito.mock(RevokedTokenRepository.class), new InProcessRevocationChannel(),
+                expectedRevocations, 0.01, new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    /**
+     * Registry with no invalidated users, loaded from a no-op mock.
+     */
+    static TokenVersionRegistry tokenVersions() {
+        return new TokenVersionRegistry(Mockito.mock(UserRepository.class), new InProcessRevocationChannel(),
+                Mockito.mock(CustomUserDetailsService.class), new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.model.Role;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.UserService;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load for the non-JMH load tests: each client sends its next
+ * request as soon as the previous one returns. A 503 is counted as rejected and
+ * the client waits for its {@code Retry-After} like a well-behaved caller would.
+ */
+final class HttpLoad {
+
+    private HttpLoad() {
+    }
+
+    /**
+     * Registers a moderator and builds a login request for it and a bearer-token
+     * request to the protected {@code GET /api/mod/reports}, keeping the token for
+     * callers that send it in a body.
+     */
+    static Endpoints endpoints(ConfigurableApplicationContext context) {
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("load");
+        signup.setEmail("load@example.com");
+        signup.setPassword("password123");
+        UserService userService = context.getBean(UserService.class);
+        userService.registerUser(signup);
+        userService.updateRoles("load", Set.of(Role.ROLE_USER, Role.ROLE_MODERATOR));
+        String token = context.getBean(JwtUtil.class)
+                .generateToken(context.getBean(CustomUserDetailsService.class).loadUserByUsername("load"));
+
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"load\",\"password\":\"password123\"}"))
+                .build();
+        HttpRequest reports = HttpRequest.newBuilder(URI.create(baseUrl + "/api/mod/reports"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return new Endpoints(login, reports, token);
+    }
+
+    static Result run(HttpClient http, ExecutorService clients, HttpRequest request,
+                      int concurrency, Duration duration) throws Exception {
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 503) {
+                            rejected.incrementAndGet();
+                            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                            Thread.sleep(Duration.ofSeconds(retryAfter));
+                            continue;
+                        }
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        List<long[]> all = new ArrayList<>(concurrency);
+        for (Future<long[]> worker : workers) {
+            all.add(worker.get());
+        }
+        // Requests still in flight at the deadline are waited for and counted
+        long elapsed = System.nanoTime() - started;
+        long[] latencies = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(latencies, errors.get(), rejected.get(), elapsed);
+    }
+
+    record Endpoints(HttpRequest login, HttpRequest reports, String token) {
+    }
+
+    record Result(long[] sortedLatencies, long errors, long rejected, long elapsedNanos) {
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput with the key and parser cached in {@code JwtCodec}
+ * against the former per-call {@code Keys.hmacShaKeyFor} and {@code Jwts.parser().build()}.
+ * Run {@link #main} to sweep thread counts from 1 to the number of cores:
+ * {@code mvn -Pbenchmark test -Dbenchmark.main=com.example.demo.benchmark.JwtCodecBenchmark}
+ * and add {@code -prof gc} through {@code benchmark.args} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtCodecBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkTokens.jwtUtil();
+        user = new UserPrincipal(1L, "bench", null, List.of(new SimpleGrantedAuthority("ROLE_USER")), true);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateTokenCached() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Boolean validateTokenCached() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public String generateTokenPerCallKey() {
+        return Jwts.builder()
+                .claims(Map.of(JwtUtil.ROLES_CLAIM, List.of("ROLE_USER"), JwtUtil.ENABLED_CLAIM, true,
+                        JwtUtil.USER_ID_CLAIM, 1L))
+                .subject(user.getUsername())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 86400000L))
+                .signWith(perCallKey())
+                .compact();
+    }
+
+    @Benchmark
+    public Boolean validateTokenPerCallParser() {
+        Claims claims = Jwts.parser()
+                .verifyWith(perCallKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return user.getUsername().equals(claims.getSubject());
+    }
+
+    private static SecretKey perCallKey() {
+        return Keys.hmacShaKeyFor(BenchmarkTokens.SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            new Runner(new OptionsBuilder()
+                    .include(JwtCodecBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.controller.AuthController;
+import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login throughput and SQL statements per login, with the user details cache on
+ * and off. With the cache off every login loads the user from the database, so
+ * this is where reading the user once, in one statement, shows. The password
+ * hash runs at the uncalibrated floor cost and still dominates the time; the
+ * statement count, printed at the end of each trial, is the other half of the
+ * result. One of the statements is the refresh-token insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    @Param({"true", "false"})
+    public String userCache;
+
+    private ConfigurableApplicationContext context;
+    private AuthController authController;
+    private Statistics statistics;
+    private LoginRequest login;
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private long logins;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "auth.user-cache.enabled=" + userCache,
+                "auth.password-hashing.calibrate=false",
+                "spring.jpa.properties.hibernate.generate_statistics=true");
+        authController = context.getBean(AuthController.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("bench");
+        signup.setEmail("bench@example.com");
+        signup.setPassword("password123");
+        context.getBean(UserService.class).registerUser(signup);
+
+        login = new LoginRequest();
+        login.setUsername("bench");
+        login.setPassword("password123");
+        // The first login fills the cache when it is on; count from a steady state
+        authController.login(login, request);
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nuserCache=%s: %.2f SQL statements per login (%d logins)%n", userCache,
+                (double) statistics.getPrepareStatementCount() / logins, logins);
+        context.close();
+    }
+
+    @Benchmark
+    public Object login() {
+        logins++;
+        return authController.login(login, request).getBody();
+    }
+}
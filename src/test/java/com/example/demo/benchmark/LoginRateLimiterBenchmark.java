@@ -0,0 +1,74 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.exception.RateLimitExceededException;
+import com.example.demo.security.InMemoryLoginThrottleStore;
+import com.example.demo.service.LoginRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the rate limiter adds to a login: an allowed attempt, spread over many
+ * usernames so each takes a bucket lookup and a compare-and-set, and an attempt
+ * refused for an exhausted username, which is all a throttled credential-stuffing
+ * request costs instead of a password hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginRateLimiterBenchmark {
+
+    private static final int USERNAMES = 10_000;
+
+    private LoginRateLimiter limiter;
+    private final String[] usernames = new String[USERNAMES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ObjectProvider<MeterRegistry> meterRegistry = new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class);
+        limiter = new LoginRateLimiter(new InMemoryLoginThrottleStore(100_000, Duration.ofMinutes(15), meterRegistry),
+                true, Integer.MAX_VALUE, Duration.ofSeconds(1), Integer.MAX_VALUE, Duration.ofSeconds(1),
+                3, Duration.ofSeconds(1), Duration.ofMinutes(15), meterRegistry);
+        for (int i = 0; i < USERNAMES; i++) {
+            usernames[i] = "user" + i;
+        }
+        limiter.checkAllowed("locked", "10.0.0.2");
+        for (int i = 0; i < 10; i++) {
+            limiter.recordFailure("locked");
+        }
+    }
+
+    @Benchmark
+    public String allowed() {
+        String username = usernames[next++ % USERNAMES];
+        limiter.checkAllowed(username, "10.0.0.1");
+        return username;
+    }
+
+    @Benchmark
+    public Object rejected() {
+        try {
+            limiter.checkAllowed("locked", "10.0.0.2");
+            return null;
+        } catch (RateLimitExceededException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Latency of the protected {@code GET /api/mod/reports} on its own and during a
+ * storm of {@code POST /api/auth/login} requests, once with BCrypt on the request
+ * threads ({@code auth.password-hashing.enabled=false}) and once on the bounded
+ * hashing pool. Not a JMH benchmark: run it through the benchmark profile with
+ * {@code -Dbenchmark.main=com.example.demo.benchmark.LoginStormLoadTest}.
+ *
+ * <p>Arguments are {@code key=value}: {@code clients} for the protected endpoint
+ * (default 20), {@code storm} login clients (default 200), {@code duration}
+ * (ISO-8601, default PT10S); any other pair is passed to the application.
+ */
+public final class LoginStormLoadTest {
+
+    private LoginStormLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = 20;
+        int storm = 200;
+        Duration duration = Duration.ofSeconds(10);
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "clients" -> clients = Integer.parseInt(pair[1]);
+                case "storm" -> storm = Integer.parseInt(pair[1]);
+                case "duration" -> duration = Duration.parse(pair[1]);
+                default -> properties.add(arg);
+            }
+        }
+
+        System.out.printf("%-10s %-8s %-22s %12s %9s %9s %8s%n",
+                "hashing", "phase", "endpoint", "requests/s", "p50 ms", "p99 ms", "503s");
+        for (boolean bounded : new boolean[] {false, true}) {
+            List<String> all = new ArrayList<>(properties);
+            all.add("auth.password-hashing.enabled=" + bounded);
+            ConfigurableApplicationContext context = BenchmarkApplication.start(all.toArray(String[]::new));
+            String mode = bounded ? "bounded" : "inline";
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpLoad.Endpoints endpoints = HttpLoad.endpoints(context);
+                HttpClient http = HttpClient.newBuilder().executor(executor).build();
+
+                // Warm up both paths, then measure the protected endpoint alone
+                HttpLoad.run(http, executor, endpoints.login(), 4, Duration.ofSeconds(2));
+                HttpLoad.run(http, executor, endpoints.reports(), clients, Duration.ofSeconds(2));
+                print(mode, "idle", "GET /api/mod/reports",
+                        HttpLoad.run(http, executor, endpoints.reports(), clients, duration));
+
+                int stormClients = storm;
+                Duration stormDuration = duration;
+                CompletableFuture<HttpLoad.Result> logins = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return HttpLoad.run(http, executor, endpoints.login(), stormClients, stormDuration);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor);
+                HttpLoad.Result reports = HttpLoad.run(http, executor, endpoints.reports(), clients, duration);
+                print(mode, "storm", "GET /api/mod/reports", reports);
+                print(mode, "storm", "POST /api/auth/login", logins.join());
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void print(String mode, String phase, String endpoint, HttpLoad.Result result) {
+        System.out.printf("%-10s %-8s %-22s %12.0f %9.1f %9.1f %8d%n", mode, phase, endpoint,
+                result.throughput(), result.percentileMillis(0.50), result.percentileMillis(0.99), result.rejected());
+    }
+}
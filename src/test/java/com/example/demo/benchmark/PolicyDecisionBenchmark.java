@@ -0,0 +1,107 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.DecisionRequest;
+import com.example.demo.dto.DecisionResult;
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.model.Role;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PolicyDecisionService;
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of policy decisions in the running application, from
+ * several threads at once: sample mode reports p99 and p99.9 next to the mean.
+ * Covers a path resource, a permission resource and a batch of 100 mixed
+ * requests. {@link PolicyDecisionLoadTest} measures the same over HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PolicyDecisionBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PolicyDecisionService decisions;
+    private DecisionRequest route;
+    private DecisionRequest permission;
+    private List<DecisionRequest> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        decisions = context.getBean(PolicyDecisionService.class);
+        UserService userService = context.getBean(UserService.class);
+        CustomUserDetailsService userDetailsService = context.getBean(CustomUserDetailsService.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SignupRequest signup = new SignupRequest();
+            signup.setUsername("bench" + i);
+            signup.setEmail("bench" + i + "@example.com");
+            signup.setPassword("password123");
+            signup.setRoles(i % 2 == 0 ? Set.of(Role.ROLE_MODERATOR) : null);
+            userService.registerUser(signup);
+            tokens.add(jwtUtil.generateToken(userDetailsService.loadUserByUsername("bench" + i)));
+        }
+        route = request(tokens.get(0), "GET", "/api/mod/reports");
+        permission = request(tokens.get(0), "review", "content");
+        batch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            batch.add(i % 2 == 0
+                    ? request(tokens.get(i % tokens.size()), "GET", "/api/admin/users")
+                    : request(tokens.get(i % tokens.size()), "read", "reports"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DecisionResult routeDecision() {
+        return decisions.decide(route);
+    }
+
+    @Benchmark
+    public DecisionResult permissionDecision() {
+        return decisions.decide(permission);
+    }
+
+    @Benchmark
+    public List<DecisionResult> batchOf100() {
+        return decisions.decideAll(batch);
+    }
+
+    private static DecisionRequest request(String token, String action, String resource) {
+        DecisionRequest request = new DecisionRequest();
+        request.setToken(token);
+        request.setAction(action);
+        request.setResource(resource);
+        return request;
+    }
+}
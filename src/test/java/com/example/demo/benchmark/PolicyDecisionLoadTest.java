@@ -0,0 +1,82 @@
+package com.example.demo.benchmark;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Closed-loop HTTP load on {@code POST /api/authz/decide} and its batch variant,
+ * printing throughput and p50/p99/p99.9 latency as seen by the calling service.
+ * Not a JMH benchmark: run it through the benchmark profile with
+ * {@code -Dbenchmark.main=com.example.demo.benchmark.PolicyDecisionLoadTest}.
+ *
+ * <p>Arguments are {@code key=value}: {@code clients} (default 32),
+ * {@code duration} (ISO-8601, default PT10S); any other pair is passed to the
+ * application.
+ */
+public final class PolicyDecisionLoadTest {
+
+    private PolicyDecisionLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = 32;
+        Duration duration = Duration.ofSeconds(10);
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "clients" -> clients = Integer.parseInt(pair[1]);
+                case "duration" -> duration = Duration.parse(pair[1]);
+                default -> properties.add(arg);
+            }
+        }
+
+        ConfigurableApplicationContext context = BenchmarkApplication.start(properties.toArray(String[]::new));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String token = HttpLoad.endpoints(context).token();
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            String decision = "{\"token\":\"" + token + "\",\"action\":\"read\",\"resource\":\"reports\"}";
+            StringBuilder batch = new StringBuilder("{\"requests\":[");
+            for (int i = 0; i < 20; i++) {
+                batch.append(i == 0 ? "" : ",").append(i % 2 == 0
+                        ? decision
+                        : "{\"token\":\"" + token + "\",\"action\":\"GET\",\"resource\":\"/api/admin/users\"}");
+            }
+            batch.append("]}");
+            HttpRequest single = post(baseUrl + "/api/authz/decide", decision);
+            HttpRequest batched = post(baseUrl + "/api/authz/decide/batch", batch.toString());
+            HttpClient http = HttpClient.newBuilder().executor(executor).build();
+
+            System.out.printf("%-30s %12s %9s %9s %9s %8s%n",
+                    "endpoint", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+            HttpLoad.run(http, executor, single, clients, Duration.ofSeconds(5));
+            print("POST /api/authz/decide", HttpLoad.run(http, executor, single, clients, duration));
+            HttpLoad.run(http, executor, batched, clients, Duration.ofSeconds(2));
+            print("POST /api/authz/decide/batch", HttpLoad.run(http, executor, batched, clients, duration));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void print(String endpoint, HttpLoad.Result result) {
+        System.out.printf("%-30s %12.0f %9.2f %9.2f %9.2f %8d%n", endpoint, result.throughput(),
+                result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(0.999),
+                result.errors());
+    }
+}
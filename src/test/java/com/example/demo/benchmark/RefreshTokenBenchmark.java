@@ -0,0 +1,81 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.controller.AuthController;
+import com.example.demo.dto.JwtResponse;
+import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.RefreshTokenRequest;
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of obtaining a fresh access token: {@code /api/auth/login}, which verifies
+ * the password hash at the calibrated cost, against {@code /api/auth/refresh},
+ * which rotates a refresh token with one indexed lookup and two small writes.
+ * Single-threaded, so the average time per call is close to its CPU time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshTokenBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AuthController authController;
+    private LoginRequest login;
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private String refreshToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        authController = context.getBean(AuthController.class);
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("bench");
+        signup.setEmail("bench@example.com");
+        signup.setPassword("password123");
+        context.getBean(UserService.class).registerUser(signup);
+
+        login = new LoginRequest();
+        login.setUsername("bench");
+        login.setPassword("password123");
+        refreshToken = ((JwtResponse) authController.login(login, request).getBody()).getRefreshToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object login() {
+        return authController.login(login, request).getBody();
+    }
+
+    @Benchmark
+    public Object refresh() {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(refreshToken);
+        JwtResponse response = (JwtResponse) authController.refresh(request).getBody();
+        // Each refresh token is single-use, so the chain continues with its successor
+        refreshToken = response.getRefreshToken();
+        return response;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.TokenRevocationList;
+import com.example.demo.security.TokenVersionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request revocation check: a token that was never revoked (rejected by the
+ * Bloom filter) and a revoked one (filter hit confirmed by the exact set),
+ * against probing a concurrent set directly. {@code tokenVersionCurrent} is the
+ * per-user "log out everywhere" check with as many users invalidated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevocationCheckBenchmark {
+
+    @Param({"1000", "100000"})
+    public int revokedCount;
+
+    private TokenRevocationList revocationList;
+    private TokenVersionRegistry tokenVersions;
+    private final Map<String, Instant> exactSet = new ConcurrentHashMap<>();
+    private String revokedId;
+    private String liveId;
+
+    @Setup
+    public void setUp() {
+        revocationList = BenchmarkTokens.revocationList(revokedCount);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < revokedCount; i++) {
+            revokedId = UUID.randomUUID().toString();
+            revocationList.revoke(revokedId, "bench", expiresAt);
+            exactSet.put(revokedId, expiresAt);
+        }
+        liveId = UUID.randomUUID().toString();
+
+        tokenVersions = BenchmarkTokens.tokenVersions();
+        for (long userId = 0; userId < revokedCount; userId++) {
+            tokenVersions.advance(userId, "bench" + userId, 1);
+        }
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return revocationList.isRevoked(liveId);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return revocationList.isRevoked(revokedId);
+    }
+
+    @Benchmark
+    public boolean tokenVersionCurrent() {
+        return tokenVersions.isCurrent(revokedCount / 2L, 1);
+    }
+
+    @Benchmark
+    public boolean exactSetOnly() {
+        return exactSet.containsKey(liveId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Role;
+import com.example.demo.security.RoleAuthorities;
+import com.example.demo.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of turning a user's roles (entity set or token claim) into the principal's
+ * authorities: shared {@link RoleAuthorities} sets against a fresh collection per call.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoleAuthoritiesBenchmark {
+
+    private Set<Role> roles;
+    private List<String> roleClaim;
+
+    @Setup
+    public void setUp() {
+        roles = new HashSet<>(Set.of(Role.ROLE_USER, Role.ROLE_MODERATOR));
+        roleClaim = List.of("ROLE_USER", "ROLE_MODERATOR");
+    }
+
+    @Benchmark
+    public UserPrincipal rolesPerCallCollection() {
+        Set<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.name()))
+                .collect(Collectors.toSet());
+        return new UserPrincipal(1L, "bench", null, authorities, true);
+    }
+
+    @Benchmark
+    public UserPrincipal rolesSharedSet() {
+        return new UserPrincipal(1L, "bench", null, RoleAuthorities.authoritiesOf(roles), true);
+    }
+
+    @Benchmark
+    public UserPrincipal claimPerCallCollection() {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (String role : roleClaim) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        return new UserPrincipal(1L, "bench", null, authorities, true);
+    }
+
+    @Benchmark
+    public UserPrincipal claimSharedSet() {
+        return new UserPrincipal(1L, "bench", null,
+                RoleAuthorities.authoritiesOf(RoleAuthorities.maskOfNames(roleClaim)), true);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.controller.ModeratorController;
+import com.example.demo.model.Role;
+import com.example.demo.security.CompiledPreAuthorizeManager;
+import com.example.demo.security.RoleClosure;
+import com.example.demo.security.RouteAuthorizationManager;
+import com.example.demo.security.RouteAuthorizationTable;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Authorizing one request to {@code /api/mod/**} and the {@code @PreAuthorize}
+ * on the controller method: the former Ant matcher chain plus SpEL, against the
+ * route trie plus the compiled role check, which expands the user's roles
+ * through the precomputed role closure. {@code hierarchyMatcherChainAndSpel} is
+ * the chain with Spring's {@code RoleHierarchyImpl} instead of spelled-out role
+ * lists. {@code path} also covers the first (public) and the last (fallback)
+ * rule of the chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteAuthorizationBenchmark {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+
+    @Param({"/api/auth/login", "/api/mod/reports", "/api/users/me"})
+    public String path;
+
+    private AuthorizationManager<HttpServletRequest> matcherChain;
+    private RouteAuthorizationManager routeTable;
+    private PreAuthorizeAuthorizationManager spel;
+    private AuthorizationManager<HttpServletRequest> hierarchyMatcherChain;
+    private PreAuthorizeAuthorizationManager hierarchySpel;
+    private CompiledPreAuthorizeManager compiled;
+    private RequestAuthorizationContext context;
+    private HttpServletRequest request;
+    private MethodInvocation invocation;
+    private Supplier<Authentication> authentication;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] publicPatterns = {"/api/auth/**", "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**",
+                "/v3/api-docs.yaml", "/h2-console/**", "/swagger-resources/**", "/webjars/**", "/actuator/health",
+                "/.well-known/jwks.json"};
+        // What HttpSecurity built from the former requestMatchers(...) list
+        RequestMatcherDelegatingAuthorizationManager.Builder chain = RequestMatcherDelegatingAuthorizationManager.builder();
+        for (String pattern : publicPatterns) {
+            chain.add(new AntPathRequestMatcher(pattern), (auth, ctx) -> GRANTED);
+        }
+        matcherChain = chain
+                .add(new AntPathRequestMatcher("/api/admin/**"), AuthorityAuthorizationManager.hasRole("ADMIN"))
+                .add(new AntPathRequestMatcher("/api/mod/**"), AuthorityAuthorizationManager.hasAnyRole("ADMIN", "MODERATOR"))
+                .add(AnyRequestMatcher.INSTANCE, AuthorityAuthorizationManager.hasAnyRole("USER", "ADMIN", "MODERATOR"))
+                .build();
+        // The same rules expressed through Spring's role hierarchy, expanded per check
+        RoleHierarchyImpl springHierarchy = new RoleHierarchyImpl();
+        springHierarchy.setHierarchy("ROLE_ADMIN > ROLE_MODERATOR\nROLE_MODERATOR > ROLE_USER");
+        RequestMatcherDelegatingAuthorizationManager.Builder hierarchyChain = RequestMatcherDelegatingAuthorizationManager.builder();
+        for (String pattern : publicPatterns) {
+            hierarchyChain.add(new AntPathRequestMatcher(pattern), (auth, ctx) -> GRANTED);
+        }
+        hierarchyMatcherChain = hierarchyChain
+                .add(new AntPathRequestMatcher("/api/admin/**"), withHierarchy(AuthorityAuthorizationManager.hasRole("ADMIN"), springHierarchy))
+                .add(new AntPathRequestMatcher("/api/mod/**"), withHierarchy(AuthorityAuthorizationManager.hasRole("MODERATOR"), springHierarchy))
+                .add(AnyRequestMatcher.INSTANCE, withHierarchy(AuthorityAuthorizationManager.hasRole("USER"), springHierarchy))
+                .build();
+        DefaultMethodSecurityExpressionHandler hierarchyHandler = new DefaultMethodSecurityExpressionHandler();
+        hierarchyHandler.setRoleHierarchy(springHierarchy);
+        hierarchySpel = new PreAuthorizeAuthorizationManager();
+        hierarchySpel.setExpressionHandler(hierarchyHandler);
+
+        RoleClosure closure = RoleClosure.parse("ROLE_ADMIN > ROLE_MODERATOR > ROLE_USER");
+        routeTable = new RouteAuthorizationManager(RouteAuthorizationTable.builder()
+                .permitAll(publicPatterns)
+                .anyRole("/api/admin/**", Role.ROLE_ADMIN)
+                .anyRole("/api/mod/**", Role.ROLE_MODERATOR)
+                .otherwise(RouteAuthorizationTable.AccessRule.anyRole(Role.ROLE_USER))
+                .build(), () -> closure);
+
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", path);
+        mockRequest.setServletPath(path);
+        request = mockRequest;
+        context = new RequestAuthorizationContext(request);
+
+        spel = new PreAuthorizeAuthorizationManager();
+        compiled = new CompiledPreAuthorizeManager(() -> closure);
+        invocation = new SimpleMethodInvocation(new ModeratorController(),
+                ModeratorController.class.getMethod("getReports"));
+        Authentication user = new UsernamePasswordAuthenticationToken("mod", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_MODERATOR")));
+        authentication = () -> user;
+    }
+
+    @Benchmark
+    public boolean matcherChainAndSpel() {
+        return matcherChain.check(authentication, request).isGranted()
+                && spel.check(authentication, invocation).isGranted();
+    }
+
+    @Benchmark
+    public boolean hierarchyMatcherChainAndSpel() {
+        return hierarchyMatcherChain.check(authentication, request).isGranted()
+                && hierarchySpel.check(authentication, invocation).isGranted();
+    }
+
+    @Benchmark
+    public boolean routeTableAndCompiledCheck() {
+        return routeTable.check(authentication, context).isGranted()
+                && compiled.check(authentication, invocation).isGranted();
+    }
+
+    private static AuthorityAuthorizationManager<RequestAuthorizationContext> withHierarchy(
+            AuthorityAuthorizationManager<RequestAuthorizationContext> manager, RoleHierarchyImpl hierarchy) {
+        manager.setRoleHierarchy(hierarchy);
+        return manager;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.TestKeys;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput per JWS algorithm, to pick the trade-off between
+ * issuing cost on /login and verification cost on every protected request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"HS256", "RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtUtil jwtUtil;
+    private UserPrincipal user;
+    private String token;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (algorithm.equals("HS256")) {
+            jwtUtil = BenchmarkTokens.jwtUtil();
+        } else {
+            Path keyDir = Files.createTempDirectory("jwt-bench");
+            KeyPair keyPair = TestKeys.generate(algorithm);
+            jwtUtil = new JwtUtil();
+            ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86400000L);
+            ReflectionTestUtils.setField(jwtUtil, "algorithm", algorithm);
+            ReflectionTestUtils.setField(jwtUtil, "privateKeyPath",
+                    TestKeys.writePrivateKey(keyDir, "private.pem", keyPair).toString());
+            ReflectionTestUtils.setField(jwtUtil, "publicKeyPath",
+                    TestKeys.writePublicKey(keyDir, "public.pem", keyPair).toString());
+            jwtUtil.init();
+        }
+        user = new UserPrincipal(1L, "bench", null, List.of(new SimpleGrantedAuthority("ROLE_USER")), true);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtUtil.verifyToken(token);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.security.JwtRequestFilter;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.UserService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests/sec through {@link JwtRequestFilter} with the per-request user lookup
+ * ({@code stateless=false}) and with claims-based authentication ({@code stateless=true}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatelessAuthenticationBenchmark {
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    private ConfigurableApplicationContext context;
+    private JwtRequestFilter filter;
+    private String authorizationHeader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Caches off so the non-stateless run really pays the database round trip
+        context = BenchmarkApplication.start("jwt.stateless=" + stateless,
+                "jwt.cache.enabled=false", "auth.user-cache.enabled=false");
+        filter = context.getBean(JwtRequestFilter.class);
+
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("bench");
+        signup.setEmail("bench@example.com");
+        signup.setPassword("password123");
+        context.getBean(UserService.class).registerUser(signup);
+
+        String token = context.getBean(JwtUtil.class)
+                .generateToken(context.getBean(CustomUserDetailsService.class).loadUserByUsername("bench"));
+        authorizationHeader = "Bearer " + token;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Authentication authenticateRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/mod/reports");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NOOP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
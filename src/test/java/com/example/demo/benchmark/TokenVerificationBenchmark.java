@@ -0,0 +1,70 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token verification cost: the former filter pipeline parsed and
+ * HMAC-verified the token three times (extractUsername, then validateToken's
+ * extractUsername and extractExpiration); {@link JwtUtil#verifyToken} does it once,
+ * and {@link VerifiedTokenCache} reduces a repeat of the same token to a digest lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkTokens.jwtUtil();
+        tokenCache = new VerifiedTokenCache(jwtUtil, BenchmarkTokens.revocationList(10_000),
+                BenchmarkTokens.tokenVersions(), true, 10_000,
+                Duration.ofMinutes(5), new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        token = jwtUtil.generateToken(new UserPrincipal(1L, "bench", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), true));
+    }
+
+    @Benchmark
+    public void tripleParse(Blackhole blackhole) {
+        blackhole.consume(jwtUtil.extractUsername(token));
+        blackhole.consume(jwtUtil.extractUsername(token));
+        blackhole.consume(jwtUtil.extractExpiration(token));
+    }
+
+    @Benchmark
+    public VerifiedToken singleParse() {
+        return jwtUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cachedRepeat() {
+        return tokenCache.verify(token);
+    }
+}
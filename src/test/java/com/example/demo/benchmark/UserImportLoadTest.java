@@ -0,0 +1,116 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.UserImportRecord;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.UserImportReader;
+import com.example.demo.service.UserImportService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Users inserted per second: one {@code UserRepository.save} per user (what
+ * signup does, minus the hash) against {@link UserImportService} with pre-hashed
+ * passwords, then the import with plaintext passwords hashed on its pool. Records
+ * are generated as they are read, so the heap figure is the import's own working
+ * set. Not a JMH benchmark: run it through the benchmark profile with
+ * {@code -Dbenchmark.main=com.example.demo.benchmark.UserImportLoadTest}.
+ *
+ * <p>Arguments are {@code key=value}: {@code users} pre-hashed (default 100000),
+ * {@code plaintext} users (default 500); any other pair is passed to the application.
+ */
+public final class UserImportLoadTest {
+
+    private UserImportLoadTest() {
+    }
+
+    public static void main(String[] args) {
+        int users = 100_000;
+        int plaintext = 500;
+        List<String> properties = new ArrayList<>(List.of("auth.password-hashing.calibrate=false"));
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "users" -> users = Integer.parseInt(pair[1]);
+                case "plaintext" -> plaintext = Integer.parseInt(pair[1]);
+                default -> properties.add(arg);
+            }
+        }
+
+        ConfigurableApplicationContext context = BenchmarkApplication.start(properties.toArray(String[]::new));
+        try {
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            UserImportService importService = context.getBean(UserImportService.class);
+            String hash = new BCryptPasswordEncoder(4).encode("password123");
+
+            System.out.printf("%-28s %10s %12s %10s%n", "path", "users", "users/s", "heap MB");
+            int saved = Math.max(1, users / 10);
+            long began = System.nanoTime();
+            for (int i = 0; i < saved; i++) {
+                User user = new User();
+                user.setUsername("save" + i);
+                user.setEmail("save" + i + "@example.com");
+                user.setPassword(hash);
+                userRepository.save(user);
+            }
+            print("repository save per user", saved, began);
+
+            began = System.nanoTime();
+            UserImportService.Summary summary = importService.importUsers(records("hashed", users, hash), QUIET);
+            print("import, pre-hashed", summary.imported(), began);
+
+            began = System.nanoTime();
+            summary = importService.importUsers(records("plain", plaintext, null), QUIET);
+            print("import, plaintext", summary.imported(), began);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static final UserImportService.Listener QUIET = new UserImportService.Listener() {
+        @Override
+        public void rejected(long line, String username, String reason) {
+            throw new IllegalStateException("Line " + line + " rejected: " + reason);
+        }
+
+        @Override
+        public void progress(UserImportService.Summary summary) {
+        }
+    };
+
+    private static Iterator<UserImportReader.Line> records(String prefix, int count, String hash) {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public UserImportReader.Line next() {
+                UserImportRecord record = new UserImportRecord();
+                record.setUsername(prefix + next);
+                record.setEmail(prefix + next + "@example.com");
+                if (hash == null) {
+                    record.setPassword("password123");
+                } else {
+                    record.setPasswordHash(hash);
+                }
+                next++;
+                return new UserImportReader.Line(next, record, null);
+            }
+        };
+    }
+
+    private static void print(String path, long count, long began) {
+        double seconds = (System.nanoTime() - began) / 1e9;
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%-28s %10d %12.0f %10d%n", path, count, count / seconds,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.dto.UserImportRecord;
+import com.example.demo.dto.UserListRequest;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.UserImportReader;
+import com.example.demo.service.UserImportService;
+import com.example.demo.service.UserListingService;
+import com.example.demo.service.UserService;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The admin user listing over a large table. First it times one page at the
+ * start, middle and end, keyset against offset {@code findAll(Pageable)}. Then
+ * it streams the whole table through the NDJSON export over HTTP while sampling
+ * the live heap (after a GC) every 100 ms. Not a JMH benchmark: run it through
+ * the benchmark profile with
+ * {@code -Dbenchmark.main=com.example.demo.benchmark.UserListingLoadTest}.
+ *
+ * <p>Arguments are {@code key=value}: {@code users} (default 200000); any other
+ * pair is passed to the application.
+ */
+public final class UserListingLoadTest {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int REPETITIONS = 20;
+
+    private UserListingLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = 200_000;
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair[0].equals("users")) {
+                users = Integer.parseInt(pair[1]);
+            } else {
+                properties.add(arg);
+            }
+        }
+
+        ConfigurableApplicationContext context = BenchmarkApplication.start(properties.toArray(String[]::new));
+        try {
+            context.getBean(UserImportService.class).importUsers(records(users), new UserImportService.Listener() {
+                @Override
+                public void rejected(long line, String username, String reason) {
+                    throw new IllegalStateException("Line " + line + " rejected: " + reason);
+                }
+
+                @Override
+                public void progress(UserImportService.Summary summary) {
+                }
+            });
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            UserListingService listingService = context.getBean(UserListingService.class);
+
+            System.out.printf("%-10s %14s %14s%n", "page at", "keyset ms", "offset ms");
+            for (double position : new double[] {0, 0.5, 1}) {
+                int pageNumber = (int) (position * (users / PAGE_SIZE - 1));
+                Long afterId = pageNumber == 0 ? null : userRepository
+                        .findByUsername("list" + (pageNumber * PAGE_SIZE - 1)).map(User::getId).orElseThrow();
+                UserListRequest request = new UserListRequest();
+                request.setAfterId(afterId);
+                request.setLimit(PAGE_SIZE);
+                double keyset = averageMillis(() -> listingService.page(request));
+                double offset = averageMillis(() -> userRepository.findAll(
+                        PageRequest.of(pageNumber, PAGE_SIZE, Sort.by("id"))));
+                System.out.printf("%-10s %14.2f %14.2f%n", "page " + pageNumber, keyset, offset);
+            }
+
+            export(context, users);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void export(ConfigurableApplicationContext context, int users) throws Exception {
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("exporter");
+        signup.setEmail("exporter@example.com");
+        signup.setPassword("password123");
+        UserService userService = context.getBean(UserService.class);
+        userService.registerUser(signup);
+        userService.updateRoles("exporter", Set.of(Role.ROLE_ADMIN));
+        String token = context.getBean(JwtUtil.class)
+                .generateToken(context.getBean(CustomUserDetailsService.class).loadUserByUsername("exporter"));
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/users"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/x-ndjson")
+                .GET()
+                .build();
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                System.gc();
+                peak.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long lines = 0;
+        long began = System.nanoTime();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (BufferedReader body = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            while (body.readLine() != null) {
+                lines++;
+            }
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        sampler.interrupt();
+
+        System.out.printf("%nexport: %d users in %.1f s (%.0f users/s), live heap %d MB before, peak %d MB%n",
+                lines, seconds, lines / seconds, baseline >> 20, peak.get() >> 20);
+        if (lines != users + 1) {
+            throw new IllegalStateException("Exported " + lines + " users, expected " + (users + 1));
+        }
+    }
+
+    private static double averageMillis(Runnable query) {
+        query.run();
+        long began = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - began) / 1e6 / REPETITIONS;
+    }
+
+    private static Iterator<UserImportReader.Line> records(int count) {
+        String hash = new BCryptPasswordEncoder(4).encode("password123");
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public UserImportReader.Line next() {
+                UserImportRecord record = new UserImportRecord();
+                record.setUsername("list" + next);
+                record.setEmail("list" + next + "@example.com");
+                record.setPasswordHash(hash);
+                next++;
+                return new UserImportReader.Line(next, record, null);
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.diagnostics.VirtualThreadPinningMonitor;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Closed-loop HTTP load against {@code POST /api/auth/login} and the protected
+ * {@code GET /api/mod/reports}, first with Tomcat on platform threads, then with
+ * {@code spring.threads.virtual.enabled=true}. Each client is a virtual thread
+ * driven by {@link HttpLoad}. Not a JMH benchmark:
+ * run it through the benchmark profile with
+ * {@code -Dbenchmark.main=com.example.demo.benchmark.VirtualThreadLoadTest}.
+ *
+ * <p>Arguments are {@code key=value}: {@code concurrency} (default 400),
+ * {@code duration} and {@code warmup} (ISO-8601, default PT10S and PT3S);
+ * any other pair is passed to the application as a property.
+ */
+public final class VirtualThreadLoadTest {
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = 400;
+        Duration duration = Duration.ofSeconds(10);
+        Duration warmup = Duration.ofSeconds(3);
+        List<String> properties = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            switch (pair[0]) {
+                case "concurrency" -> concurrency = Integer.parseInt(pair[1]);
+                case "duration" -> duration = Duration.parse(pair[1]);
+                case "warmup" -> warmup = Duration.parse(pair[1]);
+                default -> properties.add(arg);
+            }
+        }
+
+        System.out.printf("%-9s %-22s %12s %9s %9s %9s %8s %8s%n",
+                "threads", "endpoint", "requests/s", "p50 ms", "p99 ms", "max ms", "503s", "errors");
+        for (boolean virtual : new boolean[] {false, true}) {
+            List<String> all = new ArrayList<>(properties);
+            all.add("spring.threads.virtual.enabled=" + virtual);
+            ConfigurableApplicationContext context = BenchmarkApplication.start(all.toArray(String[]::new));
+            try {
+                runScenario(context, virtual ? "virtual" : "platform", concurrency, warmup, duration);
+                if (virtual) {
+                    context.getBeanProvider(VirtualThreadPinningMonitor.class).ifAvailable(monitor ->
+                            monitor.report().forEach(site -> System.out.printf(
+                                    "pinned %5d x, total %6d ms, max %4d ms  %s%n",
+                                    site.count(), site.totalMillis(), site.maxMillis(), site.site())));
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void runScenario(ConfigurableApplicationContext context, String mode, int concurrency,
+                                    Duration warmup, Duration duration) throws Exception {
+        HttpLoad.Endpoints endpoints = HttpLoad.endpoints(context);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder().executor(clients).build();
+            for (var scenario : List.of(new Scenario("POST /api/auth/login", endpoints.login()),
+                    new Scenario("GET /api/mod/reports", endpoints.reports()))) {
+                HttpLoad.run(http, clients, scenario.request(), concurrency, warmup);
+                HttpLoad.Result result = HttpLoad.run(http, clients, scenario.request(), concurrency, duration);
+                System.out.printf("%-9s %-22s %12.0f %9.1f %9.1f %9.1f %8d %8d%n", mode, scenario.name(),
+                        result.throughput(), result.percentileMillis(0.50), result.percentileMillis(0.99),
+                        result.percentileMillis(1.0), result.rejected(), result.errors());
+            }
+        }
+    }
+
+    private record Scenario(String name, HttpRequest request) {
+    }
+}
@@ -1,16 +1,23 @@
 package com.example.demo.controller;
 
+import com.example.demo.security.TokenRevocationList;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -19,12 +26,15 @@ public class AdminControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private TokenRevocationList revocationList;
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void adminEndpoint_WithAdminRole_Success() throws Exception {
         mockMvc.perform(get("/api/admin/users"))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Access to admin panel granted"));
+                .andExpect(jsonPath("$.users").isArray());
     }
 
     @Test
@@ -54,4 +64,124 @@ public class AdminControllerTest {
         mockMvc.perform(get("/api/admin/users"))
                 .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void revokeToken_WithAdminRole_RevokesTokenId() throws Exception {
+        mockMvc.perform(post("/api/admin/tokens/revoke")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokenId\":\"admin-revoked-jti\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revoked").value(true));
+
+        assertTrue(revocationList.isRevoked("admin-revoked-jti"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void revokeToken_WithUserRole_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/tokens/revoke")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokenId\":\"user-revoked-jti\"}"))
+                .andExpect(status().isForbidden());
+
+        assertFalse(revocationList.isRevoked("user-revoked-jti"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void permissions_CreateGrantAndDelete() throws Exception {
+        mockMvc.perform(post("/api/admin/permissions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"audit:read\",\"description\":\"Read the audit log\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("audit:read"));
+
+        mockMvc.perform(post("/api/admin/permissions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"audit:read\"}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(put("/api/admin/roles/ADMIN/permissions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"permissions\":[\"reports:read\",\"content:review\",\"config:write\",\"audit:read\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4));
+
+        mockMvc.perform(delete("/api/admin/permissions/audit:read"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/admin/permissions/audit:read"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void createPermission_InvalidName_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/admin/permissions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Not A Permission\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void setRolePermissions_UnknownRoleOrPermission_NotFound() throws Exception {
+        mockMvc.perform(put("/api/admin/roles/SUPERUSER/permissions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"permissions\":[]}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/admin/roles/MODERATOR/permissions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"permissions\":[\"nope:nope\"]}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "MODERATOR")
+    void permissions_WithModeratorRole_Forbidden() throws Exception {
+        mockMvc.perform(get("/api/admin/permissions"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void roleHierarchy_ReplaceAppliesToAuthorization() throws Exception {
+        mockMvc.perform(get("/api/admin/roles/hierarchy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hierarchy[0]").value("ROLE_ADMIN > ROLE_MODERATOR"))
+                .andExpect(jsonPath("$.hierarchy[1]").value("ROLE_MODERATOR > ROLE_USER"));
+        mockMvc.perform(get("/api/mod/reports"))
+                .andExpect(status().isOk());
+
+        try {
+            mockMvc.perform(put("/api/admin/roles/hierarchy")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"hierarchy\":[\"MODERATOR > USER\"]}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.hierarchy.length()").value(1));
+
+            mockMvc.perform(get("/api/mod/reports"))
+                    .andExpect(status().isForbidden());
+        } finally {
+            mockMvc.perform(put("/api/admin/roles/hierarchy")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"hierarchy\":[\"ROLE_ADMIN > ROLE_MODERATOR > ROLE_USER\"]}"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void roleHierarchy_CycleOrUnknownRole_BadRequest() throws Exception {
+        mockMvc.perform(put("/api/admin/roles/hierarchy")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"hierarchy\":[\"ADMIN > USER\", \"USER > ADMIN\"]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/admin/roles/hierarchy")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"hierarchy\":[\"ADMIN > AUDITOR\"]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/mod/reports"))
+                .andExpect(status().isOk());
+    }
+}
@@ -2,10 +2,22 @@ package com.example.demo.controller;
 
 import com.example.demo.config.TestSecurityConfig;
 import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.LogoutRequest;
+import com.example.demo.dto.RefreshTokenRequest;
 import com.example.demo.dto.SignupRequest;
+import com.example.demo.dto.TokenValidationResult;
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.exception.PasswordHashingUnavailableException;
+import com.example.demo.exception.RateLimitExceededException;
 import com.example.demo.model.User;
 import com.example.demo.security.JwtUtil;
+import com.example.demo.security.TokenRevocationList;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
 import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.LoginRateLimiter;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.service.TokenValidationService;
 import com.example.demo.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,16 +28,28 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -49,6 +73,21 @@ class AuthControllerTest {
     @MockBean
     private JwtUtil jwtUtil;
 
+    @MockBean
+    private VerifiedTokenCache tokenCache;
+
+    @MockBean
+    private TokenValidationService tokenValidationService;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockBean
+    private TokenRevocationList revocationList;
+
+    @MockBean
+    private LoginRateLimiter loginRateLimiter;
+
     private ObjectMapper objectMapper;
     private SignupRequest signupRequest;
     private LoginRequest loginRequest;
@@ -97,23 +136,119 @@ class AuthControllerTest {
     void login_Success() throws Exception {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(new UsernamePasswordAuthenticationToken(userDetails, null));
-        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.generateToken(any(UserDetails.class))).thenReturn("test.jwt.token");
+        when(jwtUtil.generateToken(userDetails)).thenReturn("test.jwt.token");
+        when(jwtUtil.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+        when(refreshTokenService.issue("testuser")).thenReturn("refresh-1");
 
         mockMvc.perform(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("test.jwt.token"))
-                .andExpect(jsonPath("$.username").value("testuser"));
+                .andExpect(jsonPath("$.username").value("testuser"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-1"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
+        verify(loginRateLimiter).checkAllowed("testuser", "127.0.0.1");
+        verify(loginRateLimiter).recordSuccess("testuser");
+        // The token is issued for the principal the authentication already loaded
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void login_RateLimited_ReturnsTooManyRequestsWithoutCheckingPassword() throws Exception {
+        doThrow(new RateLimitExceededException(Duration.ofMillis(1500)))
+                .when(loginRateLimiter).checkAllowed(anyString(), anyString());
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(429));
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void login_BadCredentials_RecordsFailure() throws Exception {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isUnauthorized());
+        verify(loginRateLimiter).recordFailure("testuser");
+        verify(loginRateLimiter, never()).recordSuccess(anyString());
+    }
+
+    @Test
+    void refresh_Success_ReturnsNewTokenPairWithoutAuthenticating() throws Exception {
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken("refresh-1");
+        when(refreshTokenService.rotate("refresh-1"))
+                .thenReturn(new RefreshTokenService.Rotation("testuser", "refresh-2"));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
+        when(jwtUtil.generateToken(userDetails)).thenReturn("new.jwt.token");
+        when(jwtUtil.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("new.jwt.token"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-2"));
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void refresh_ReusedToken_ReturnsUnauthorized() throws Exception {
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken("refresh-1");
+        when(refreshTokenService.rotate("refresh-1"))
+                .thenThrow(new InvalidTokenException("Refresh token has already been used"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Refresh token has already been used"));
+    }
+
+    @Test
+    void refresh_DisabledUser_RevokesTokensAndReturnsUnauthorized() throws Exception {
+        RefreshTokenRequest refreshRequest = new RefreshTokenRequest();
+        refreshRequest.setRefreshToken("refresh-1");
+        when(refreshTokenService.rotate("refresh-1"))
+                .thenReturn(new RefreshTokenService.Rotation("testuser", "refresh-2"));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(
+                org.springframework.security.core.userdetails.User.withUserDetails(userDetails).disabled(true).build());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized());
+        verify(refreshTokenService).revokeAll("testuser");
+    }
+
+    @Test
+    void login_HashingQueueFull_ReturnsServiceUnavailableWithRetryAfter() throws Exception {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new PasswordHashingUnavailableException(Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(503));
     }
 
     @Test
     @WithMockUser
     void validateToken_ValidToken_ReturnsTrue() throws Exception {
-        when(jwtUtil.extractUsername("test.jwt.token")).thenReturn("testuser");
+        when(tokenCache.verify("test.jwt.token")).thenReturn(new VerifiedToken("testuser", 1L,
+                Instant.now(), Instant.now().plusSeconds(60), Set.of(), true, "jti-1", 0));
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken("test.jwt.token", userDetails)).thenReturn(true);
 
         mockMvc.perform(post("/api/auth/validate")
                 .header("Authorization", "Bearer test.jwt.token"))
@@ -124,13 +259,78 @@ class AuthControllerTest {
     @Test
     @WithMockUser
     void validateToken_InvalidToken_ReturnsFalse() throws Exception {
-        when(jwtUtil.extractUsername("invalid.token")).thenReturn("testuser");
-        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken("invalid.token", userDetails)).thenReturn(false);
+        when(tokenCache.verify("invalid.token")).thenThrow(new InvalidTokenException("JWT token is invalid"));
 
         mockMvc.perform(post("/api/auth/validate")
                 .header("Authorization", "Bearer invalid.token"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.valid").value(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validateTokens_ReturnsResultPerToken() throws Exception {
+        Instant expiry = Instant.parse("2030-01-01T00:00:00Z");
+        when(tokenValidationService.validateAll(List.of("good.token", "bad.token"))).thenReturn(List.of(
+                TokenValidationResult.valid("testuser", List.of("ROLE_USER"), expiry),
+                TokenValidationResult.invalid(null, "JWT token is invalid")));
+
+        mockMvc.perform(post("/api/auth/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("tokens", List.of("good.token", "bad.token")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].valid").value(true))
+                .andExpect(jsonPath("$.results[0].subject").value("testuser"))
+                .andExpect(jsonPath("$.results[0].authorities[0]").value("ROLE_USER"))
+                .andExpect(jsonPath("$.results[0].expiresAt").value("2030-01-01T00:00:00Z"))
+                .andExpect(jsonPath("$.results[1].valid").value(false))
+                .andExpect(jsonPath("$.results[1].reason").value("JWT token is invalid"))
+                .andExpect(jsonPath("$.results[1].subject").doesNotExist());
+    }
+
+    @Test
+    void validateTokens_TooManyTokens_ReturnsBadRequest() throws Exception {
+        List<String> tokens = Collections.nCopies(1001, "token");
+
+        mockMvc.perform(post("/api/auth/validate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("tokens", tokens))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void logout_RevokesAccessTokenAndRefreshFamily() throws Exception {
+        VerifiedToken token = new VerifiedToken("testuser", 1L, Instant.now(), Instant.now().plusSeconds(60),
+                Set.of(), true, "jti-1", 0);
+        when(tokenCache.verify("test.jwt.token")).thenReturn(token);
+        LogoutRequest logoutRequest = new LogoutRequest();
+        logoutRequest.setRefreshToken("refresh-1");
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header("Authorization", "Bearer test.jwt.token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(logoutRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Logged out"));
+        verify(revocationList).revoke(token);
+        verify(refreshTokenService).revoke("refresh-1");
+    }
+
+    @Test
+    void logoutAll_EndsEverySessionOfTheUser() throws Exception {
+        when(tokenCache.verify("test.jwt.token")).thenReturn(new VerifiedToken("testuser", 1L, Instant.now(),
+                Instant.now().plusSeconds(60), Set.of(), true, "jti-1", 0));
+
+        mockMvc.perform(post("/api/auth/logout-all")
+                .header("Authorization", "Bearer test.jwt.token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Logged out of all sessions"));
+        verify(userService).logoutEverywhere("testuser");
+    }
+
+    @Test
+    void logout_WithoutBearerToken_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/logout"))
+                .andExpect(status().isUnauthorized());
+        verify(revocationList, never()).revoke(any(VerifiedToken.class));
+    }
+}
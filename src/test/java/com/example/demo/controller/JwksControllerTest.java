@@ -0,0 +1,63 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.TestSecurityConfig;
+import com.example.demo.security.JwksDocument;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.VerifiedTokenCache;
+import com.example.demo.service.CustomUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(JwksController.class)
+@WithMockUser
+@Import(TestSecurityConfig.class)
+class JwksControllerTest {
+
+    private static final JwksDocument JWKS = new JwksDocument(
+            "{\"keys\":[{\"kty\":\"EC\",\"kid\":\"k1\"}]}", "\"0123456789abcdef\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @MockBean
+    private VerifiedTokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtil.getJwks()).thenReturn(JWKS);
+    }
+
+    @Test
+    void jwks_ReturnsKeySetWithCachingHeaders() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(JWKS.json()))
+                .andExpect(header().string("ETag", JWKS.etag()))
+                .andExpect(header().string("Cache-Control", "max-age=900, public"));
+    }
+
+    @Test
+    void jwks_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", JWKS.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.demo.controller;
 
+import com.example.demo.model.Role;
+import com.example.demo.service.PermissionService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -7,6 +9,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Set;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -19,6 +23,9 @@ public class ModeratorControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private PermissionService permissionService;
+
     @Test
     @WithMockUser(roles = "MODERATOR")
     void modEndpoint_WithModeratorRole_Success() throws Exception {
@@ -55,4 +62,18 @@ public class ModeratorControllerTest {
         mockMvc.perform(get("/api/mod/reports"))
                 .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "MODERATOR")
+    void contentReview_AfterGrantRemoved_Forbidden() throws Exception {
+        permissionService.setRolePermissions(Role.ROLE_MODERATOR, Set.of("reports:read"));
+        try {
+            mockMvc.perform(post("/api/mod/content/review"))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(get("/api/mod/reports"))
+                    .andExpect(status().isOk());
+        } finally {
+            permissionService.setRolePermissions(Role.ROLE_MODERATOR, Set.of("reports:read", "content:review"));
+        }
+    }
+}
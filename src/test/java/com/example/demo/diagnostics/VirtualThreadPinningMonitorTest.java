@@ -0,0 +1,77 @@
+package com.example.demo.diagnostics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10), mock(ObjectProvider.class));
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void sleepInsideSynchronized_IsReportedWithApplicationFrame() throws Exception {
+        Thread pinned = Thread.ofVirtual().start(this::sleepWhileHoldingLock);
+        pinned.join();
+
+        List<VirtualThreadPinningMonitor.PinningReport> report = awaitReport();
+
+        assertEquals(1, report.size());
+        assertTrue(report.get(0).site().contains("VirtualThreadPinningMonitorTest.sleep"),
+                report.get(0).site());
+        assertEquals(1, report.get(0).count());
+        assertTrue(report.get(0).maxMillis() >= 10);
+    }
+
+    @Test
+    void sleepOutsideSynchronized_IsNotReported() throws Exception {
+        Thread unpinned = Thread.ofVirtual().start(() -> sleep(50));
+        unpinned.join();
+
+        Thread.sleep(2000);
+
+        assertTrue(monitor.report().isEmpty());
+    }
+
+    private void sleepWhileHoldingLock() {
+        synchronized (lock) {
+            sleep(50);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // JFR streams events in periodic flushes, so the report fills in asynchronously
+    private List<VirtualThreadPinningMonitor.PinningReport> awaitReport() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (monitor.report().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        return monitor.report();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.integration;
+
+import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.model.Role;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements and entity loads on the hot authentication
+ * paths, so a change that brings back an extra lookup or a managed entity fails
+ * here rather than in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthQueryCountIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        userDetailsService.evictAll();
+        // Switched on here rather than in application.yml so the shared test context is reused
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void signup_OnlyTheInserts() throws Exception {
+        long sequenceBefore = idSequenceValue();
+        signup();
+        // Ids come in blocks, so a signup only occasionally reaches the sequence
+        long sequenceCalls = idSequenceValue() == sequenceBefore ? 0 : 1;
+
+        // User insert and role insert; the unique constraints stand in for a uniqueness query
+        assertEquals(2, statistics.getPrepareStatementCount() - sequenceCalls);
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void login_LoadsTheUserOnceWithoutEntities() throws Exception {
+        signup();
+        userDetailsService.evictAll();
+        statistics.clear();
+
+        login();
+
+        // Principal projection and refresh-token insert
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void filterPass_OneProjectionOnCacheMissAndNoneOnHit() throws Exception {
+        signup();
+        String token = login();
+        userDetailsService.evictAll();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/mod/reports").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/mod/reports").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private void signup() throws Exception {
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("countuser");
+        signup.setEmail("count@example.com");
+        signup.setPassword("password123");
+        signup.setRoles(Set.of(Role.ROLE_MODERATOR));
+        mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signup)))
+                .andExpect(status().isOk());
+    }
+
+    // Read over plain JDBC so it does not count towards the Hibernate statistics
+    private long idSequenceValue() {
+        return jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences where sequence_name = 'USERS_SEQ'", Long.class);
+    }
+
+    private String login() throws Exception {
+        LoginRequest login = new LoginRequest();
+        login.setUsername("countuser");
+        login.setPassword("password123");
+        String response = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("token").asText();
+    }
+}
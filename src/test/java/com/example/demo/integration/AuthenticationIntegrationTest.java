@@ -1,8 +1,10 @@
 package com.example.demo.integration;
 
 import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.RefreshTokenRequest;
 import com.example.demo.dto.SignupRequest;
 import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepository;
 import com.example.demo.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +13,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,11 +37,15 @@ public class AuthenticationIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
+        refreshTokenRepository.deleteAll();
         userRepository.deleteAll();
     }
 
@@ -126,4 +138,197 @@ public class AuthenticationIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.valid").value(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void login_LegacyHash_IsUpgradedInBackground() throws Exception {
+        // Hash stored before the {id} prefix existed, at a cost below the current floor
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password123");
+        User user = new User();
+        user.setUsername("legacyuser");
+        user.setEmail("legacy@example.com");
+        user.setPassword(legacyHash);
+        userRepository.save(user);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("legacyuser");
+        loginRequest.setPassword("password123");
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+
+        String storedHash = legacyHash;
+        for (int attempt = 0; attempt < 100 && storedHash.equals(legacyHash); attempt++) {
+            Thread.sleep(100);
+            storedHash = userRepository.findByUsername("legacyuser").orElseThrow().getPassword();
+        }
+        assertTrue(storedHash.startsWith("{bcrypt}$2a$10$"), storedHash);
+
+        // The upgraded hash still accepts the same password
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void refresh_RotatesTokenAndRevokesFamilyOnReuse() throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setUsername("refreshuser");
+        signupRequest.setEmail("refresh@example.com");
+        signupRequest.setPassword("password123");
+        mockMvc.perform(post("/api/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(status().isOk());
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("refreshuser");
+        loginRequest.setPassword("password123");
+        String loginResponse = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").exists())
+                .andReturn().getResponse().getContentAsString();
+        String first = objectMapper.readTree(loginResponse).get("refreshToken").asText();
+
+        String refreshResponse = refresh(first)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("refreshuser"))
+                .andExpect(jsonPath("$.token").exists())
+                .andReturn().getResponse().getContentAsString();
+        String second = objectMapper.readTree(refreshResponse).get("refreshToken").asText();
+        assertNotEquals(first, second);
+
+        // Replaying the consumed token revokes its successor as well
+        refresh(first).andExpect(status().isUnauthorized());
+        refresh(second).andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(refreshToken);
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    @Test
+    void logout_RevokedTokenIsRejected() throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setUsername("logoutuser");
+        signupRequest.setEmail("logout@example.com");
+        signupRequest.setPassword("password123");
+        mockMvc.perform(post("/api/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(status().isOk());
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("logoutuser");
+        loginRequest.setPassword("password123");
+        String loginResponse = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(loginResponse).get("token").asText();
+        String refreshToken = objectMapper.readTree(loginResponse).get("refreshToken").asText();
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/validate")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(false));
+        mockMvc.perform(get("/api/mod/reports")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutAll_TokensIssuedBeforeAreRejected() throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setUsername("everywhereuser");
+        signupRequest.setEmail("everywhere@example.com");
+        signupRequest.setPassword("password123");
+        mockMvc.perform(post("/api/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(status().isOk());
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("everywhereuser");
+        loginRequest.setPassword("password123");
+        String firstLogin = login(loginRequest);
+        String secondLogin = login(loginRequest);
+        String token = objectMapper.readTree(firstLogin).get("token").asText();
+        String otherSession = objectMapper.readTree(secondLogin).get("token").asText();
+        String refreshToken = objectMapper.readTree(secondLogin).get("refreshToken").asText();
+
+        mockMvc.perform(post("/api/auth/logout-all")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/validate")
+                .header("Authorization", "Bearer " + otherSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(false));
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        assertEquals(1, userRepository.findByUsername("everywhereuser").orElseThrow().getTokenVersion());
+
+        String newToken = objectMapper.readTree(login(loginRequest)).get("token").asText();
+        mockMvc.perform(post("/api/auth/validate")
+                .header("Authorization", "Bearer " + newToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(true));
+    }
+
+    @Test
+    void login_RepeatedWrongPasswords_BackOffWithTooManyRequests() throws Exception {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setUsername("stuffeduser");
+        signupRequest.setEmail("stuffed@example.com");
+        signupRequest.setPassword("password123");
+        mockMvc.perform(post("/api/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(signupRequest)))
+                .andExpect(status().isOk());
+
+        LoginRequest wrongPassword = new LoginRequest();
+        wrongPassword.setUsername("stuffeduser");
+        wrongPassword.setPassword("wrongpassword");
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(post("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(wrongPassword)))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        // Even the right password is refused while the username backs off
+        LoginRequest rightPassword = new LoginRequest();
+        rightPassword.setUsername("stuffeduser");
+        rightPassword.setPassword("password123");
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(rightPassword)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    private String login(LoginRequest loginRequest) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
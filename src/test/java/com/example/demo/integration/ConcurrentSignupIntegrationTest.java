@@ -0,0 +1,131 @@
+package com.example.demo.integration;
+
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.exception.UserAlreadyExistsException;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Signups racing for the same username or email, released together. Exactly
+ * one of each group may win. Every loser must get a 409 that names the clash,
+ * never a 500. Throughput is logged, not asserted, since it is dominated by the
+ * password hash on whatever machine runs the build.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ConcurrentSignupIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrentSignupIntegrationTest.class);
+
+    private static final int GROUPS = 10;
+    private static final int RACERS_PER_GROUP = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void sameUsername_OneWinnerPerGroupAndConflictsForTheRest() throws Exception {
+        // Case differs between racers, so the case-insensitive key is what has to hold
+        Map<Integer, Integer> statuses = race(i -> signup(
+                (i % 2 == 0 ? "racer" : "RACER") + i % GROUPS, "racer" + i + "@example.com"),
+                UserAlreadyExistsException.USERNAME_TAKEN);
+
+        assertEquals(Map.of(200, GROUPS, 409, GROUPS * (RACERS_PER_GROUP - 1)), statuses);
+        assertEquals(GROUPS, userRepository.count());
+    }
+
+    @Test
+    void sameEmail_OneWinnerPerGroupAndConflictsForTheRest() throws Exception {
+        Map<Integer, Integer> statuses = race(i -> signup(
+                "mailer" + i, (i % 2 == 0 ? "shared" : "SHARED") + i % GROUPS + "@example.com"),
+                UserAlreadyExistsException.EMAIL_IN_USE);
+
+        assertEquals(Map.of(200, GROUPS, 409, GROUPS * (RACERS_PER_GROUP - 1)), statuses);
+        assertEquals(GROUPS, userRepository.count());
+    }
+
+    private Map<Integer, Integer> race(IntFunction<SignupRequest> signups, String conflictMessage) throws Exception {
+        int attempts = GROUPS * RACERS_PER_GROUP;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                String body = objectMapper.writeValueAsString(signups.apply(i));
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/auth/signup")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse();
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+
+            Map<Integer, Integer> statuses = new HashMap<>();
+            for (Future<MockHttpServletResponse> future : responses) {
+                MockHttpServletResponse response = future.get(2, TimeUnit.MINUTES);
+                statuses.merge(response.getStatus(), 1, Integer::sum);
+                if (response.getStatus() == 409) {
+                    assertTrue(response.getContentAsString().contains(conflictMessage), response.getContentAsString());
+                }
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            log.info("{} concurrent signups in {} ms ({} per second)", attempts, Math.round(seconds * 1000),
+                    Math.round(attempts / seconds));
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static SignupRequest signup(String username, String email) {
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername(username);
+        signup.setEmail(email);
+        signup.setPassword("password123");
+        return signup;
+    }
+}
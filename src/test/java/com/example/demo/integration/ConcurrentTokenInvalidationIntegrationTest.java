@@ -0,0 +1,95 @@
+package com.example.demo.integration;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.TokenVersionRegistry;
+import com.example.demo.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Changes that end a user's sessions, released together against the same user.
+ * Each must raise the token version; a lost increment would let tokens that one
+ * of them meant to cut off verify again.
+ */
+@SpringBootTest
+public class ConcurrentTokenInvalidationIntegrationTest {
+
+    private static final int RACERS = 24;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void logoutRoleChangeAndDisable_EveryOneRaisesTheVersion() throws Exception {
+        User user = new User();
+        user.setUsername("raced");
+        user.setEmail("raced@example.com");
+        user.setPassword("hash");
+        user.setRoles(Set.of(Role.ROLE_USER));
+        Long id = userRepository.save(user).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(RACERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<User>> results = new ArrayList<>(RACERS);
+            for (int i = 0; i < RACERS; i++) {
+                int racer = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return switch (racer % 3) {
+                        case 0 -> userService.logoutEverywhere("raced");
+                        case 1 -> userService.updateRoles("raced", Set.of(Role.ROLE_MODERATOR));
+                        default -> userService.setEnabled("raced", false);
+                    };
+                }));
+            }
+            start.countDown();
+            for (Future<User> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(RACERS, userRepository.findTokenVersionById(id));
+        assertFalse(tokenVersions.isCurrent(id, RACERS - 1));
+        assertTrue(tokenVersions.isCurrent(id, RACERS));
+
+        // A plain save, such as re-enabling, writes the entity but never the version
+        userService.setEnabled("raced", true);
+        assertEquals(RACERS, userRepository.findTokenVersionById(id));
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.integration;
+
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PermissionService;
+import com.example.demo.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Decisions of {@code /api/authz} for real tokens, against the same route rules,
+ * endpoint rules and permissions the application enforces itself.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PolicyDecisionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PermissionService permissionService;
+
+    @AfterEach
+    void cleanup() {
+        userRepository.deleteAll();
+        userDetailsService.evictAll();
+    }
+
+    @Test
+    void decide_ModeratorToken_PermitsModeratorResourcesOnly() throws Exception {
+        String token = register("pdp-moderator", Set.of(Role.ROLE_MODERATOR));
+
+        decide(token, "GET", "/api/mod/reports")
+                .andExpect(jsonPath("$.decision").value("PERMIT"))
+                .andExpect(jsonPath("$.subject").value("pdp-moderator"))
+                .andExpect(jsonPath("$.obligations[0].id").value("valid-until"));
+        decide("Bearer " + token, "read", "reports")
+                .andExpect(jsonPath("$.decision").value("PERMIT"));
+        decide(token, "GET", "/api/admin/users")
+                .andExpect(jsonPath("$.decision").value("DENY"))
+                .andExpect(jsonPath("$.reason").value("Not granted to the subject's roles"));
+        decide(token, "write", "config")
+                .andExpect(jsonPath("$.decision").value("DENY"));
+        decide(token, "delete", "reports")
+                .andExpect(jsonPath("$.reason").value("Unknown permission"));
+    }
+
+    @Test
+    void decide_PathResource_FollowsTheEndpointsPermissionAndMethod() throws Exception {
+        String token = register("pdp-revoked", Set.of(Role.ROLE_MODERATOR));
+
+        decide(token, "DELETE", "/api/mod/reports")
+                .andExpect(jsonPath("$.decision").value("DENY"))
+                .andExpect(jsonPath("$.reason").value("The resource does not support the action"));
+
+        List<String> granted = permissionService.findAll().stream()
+                .filter(permission -> permission.getRoles().contains(Role.ROLE_MODERATOR))
+                .map(Permission::getName)
+                .toList();
+        try {
+            permissionService.setRolePermissions(Role.ROLE_MODERATOR, Set.of("content:review"));
+
+            decide(token, "GET", "/api/mod/reports")
+                    .andExpect(jsonPath("$.decision").value("DENY"))
+                    .andExpect(jsonPath("$.reason").value("Not granted to the subject's roles"));
+            decide(token, "POST", "/api/mod/content/review")
+                    .andExpect(jsonPath("$.decision").value("PERMIT"));
+        } finally {
+            permissionService.setRolePermissions(Role.ROLE_MODERATOR, granted);
+        }
+        decide(token, "GET", "/api/mod/reports")
+                .andExpect(jsonPath("$.decision").value("PERMIT"));
+    }
+
+    @Test
+    void decide_TraversalIntoAPublicPrefix_Denied() throws Exception {
+        String token = register("pdp-traversal", null);
+
+        decide(token, "GET", "/api/auth/../admin/users")
+                .andExpect(jsonPath("$.decision").value("DENY"))
+                .andExpect(jsonPath("$.reason").value("Resource is not a normalized path"));
+        decide(token, "GET", "/api/authz/%2e%2e/admin/users")
+                .andExpect(jsonPath("$.decision").value("DENY"));
+        decide(token, "GET", "/api/auth/..;/admin/users")
+                .andExpect(jsonPath("$.decision").value("DENY"));
+    }
+
+    @Test
+    void decide_InvalidOrDisabledSubject_Denies() throws Exception {
+        String token = register("pdp-disabled", null);
+
+        decide("not-a-jwt", "GET", "/api/users/me")
+                .andExpect(jsonPath("$.decision").value("DENY"));
+
+        userService.setEnabled("pdp-disabled", false);
+        decide(token, "GET", "/api/users/me")
+                .andExpect(jsonPath("$.decision").value("DENY"));
+    }
+
+    @Test
+    void decideBatch_ReturnsDecisionsInRequestOrder() throws Exception {
+        String admin = register("pdp-admin", Set.of(Role.ROLE_ADMIN));
+        String user = register("pdp-user", null);
+
+        mockMvc.perform(post("/api/authz/decide/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\":["
+                                + request(admin, "write", "config") + ","
+                                + request(user, "write", "config") + ","
+                                + request(user, "GET", "/api/users/me") + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(3))
+                .andExpect(jsonPath("$.results[0].decision").value("PERMIT"))
+                .andExpect(jsonPath("$.results[1].decision").value("DENY"))
+                .andExpect(jsonPath("$.results[2].decision").value("PERMIT"))
+                .andExpect(jsonPath("$.results[2].subject").value("pdp-user"));
+    }
+
+    @Test
+    void decide_MissingResource_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/authz/decide")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"t\",\"action\":\"GET\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions decide(String token, String action, String resource) throws Exception {
+        return mockMvc.perform(post("/api/authz/decide")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request(token, action, resource)))
+                .andExpect(status().isOk());
+    }
+
+    private static String request(String token, String action, String resource) {
+        return "{\"token\":\"" + token + "\",\"action\":\"" + action + "\",\"resource\":\"" + resource + "\"}";
+    }
+
+    private String register(String username, Set<Role> roles) {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setUsername(username);
+        signupRequest.setEmail(username + "@example.com");
+        signupRequest.setPassword("password123");
+        signupRequest.setRoles(roles);
+        userService.registerUser(signupRequest);
+        return jwtUtil.generateToken(userDetailsService.loadUserByUsername(username));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.integration;
+
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.model.RoleInclusion;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.repository.RoleInclusionRepository;
+import com.example.demo.security.PermissionRegistry;
+import com.example.demo.security.RoleAuthorities;
+import com.example.demo.security.RoleHierarchyRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Defaults are seeded on the first start only. A table an admin emptied must
+ * load as empty on the next start rather than bring the defaults back.
+ */
+@SpringBootTest
+public class RegistrySeedingIntegrationTest {
+
+    private static final int ADMIN = RoleAuthorities.bit(Role.ROLE_ADMIN);
+    private static final int MODERATOR = RoleAuthorities.bit(Role.ROLE_MODERATOR);
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private RoleInclusionRepository roleInclusionRepository;
+
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    @Autowired
+    private RoleHierarchyRegistry roleHierarchyRegistry;
+
+    @Test
+    void load_EmptiedPermissionsTable_IsNotReseeded() {
+        List<Permission> original = permissionRepository.findAll();
+        assertTrue(permissionRegistry.hasPermission(MODERATOR, "reports:read"));
+        try {
+            permissionRepository.deleteAll();
+
+            permissionRegistry.load();
+
+            assertEquals(0, permissionRepository.count());
+            assertFalse(permissionRegistry.isDefined("reports:read"));
+        } finally {
+            for (Permission permission : original) {
+                Permission restored = new Permission();
+                restored.setName(permission.getName());
+                restored.setDescription(permission.getDescription());
+                restored.setBit(permission.getBit());
+                restored.setRoles(new HashSet<>(permission.getRoles()));
+                permissionRepository.save(restored);
+            }
+            permissionRegistry.reload();
+        }
+    }
+
+    @Test
+    void load_EmptiedRoleHierarchy_IsNotReseeded() {
+        List<RoleInclusion> original = roleInclusionRepository.findAll();
+        assertEquals(ADMIN | MODERATOR | RoleAuthorities.bit(Role.ROLE_USER), roleHierarchyRegistry.expand(ADMIN));
+        try {
+            roleInclusionRepository.deleteAll();
+
+            roleHierarchyRegistry.load();
+
+            assertEquals(0, roleInclusionRepository.count());
+            assertEquals(ADMIN, roleHierarchyRegistry.expand(ADMIN));
+        } finally {
+            original.forEach(inclusion ->
+                    roleInclusionRepository.save(new RoleInclusion(inclusion.getRole(), inclusion.getIncludedRole())));
+            roleHierarchyRegistry.reload();
+        }
+    }
+}
@@ -45,6 +45,26 @@ public class SecurityConfigIntegrationTest {
                 .andExpect(status().isNotFound()); // 404 because endpoint doesn't exist, but authentication passed
     }
 
+    @Test
+    @WithMockUser
+    void actuatorEndpoints_OnlyHealthIsOpenToNonAdmins() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/pinning"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void actuatorEndpoints_Admin_Success() throws Exception {
+        mockMvc.perform(get("/actuator"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void authEndpoints_NoAuthentication_Success() throws Exception {
         // Login endpoint should be accessible without authentication
@@ -0,0 +1,240 @@
+package com.example.demo.integration;
+
+import com.example.demo.dto.LoginRequest;
+import com.example.demo.dto.SignupRequest;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.PasswordHashCalibration;
+import com.example.demo.security.Pbkdf2IterationsPasswordEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The test configuration imports in chunks of 4, so these uploads span several chunks
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserImportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importNdjson_ImportsValidRecordsAndReportsEachRejectedLine() throws Exception {
+        User existing = new User();
+        existing.setUsername("existing");
+        existing.setEmail("existing@example.com");
+        existing.setPassword("hash");
+        userRepository.save(existing);
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret456");
+
+        String upload = String.join("\n",
+                "{\"username\":\"imp1\",\"email\":\"imp1@example.com\",\"password\":\"password123\",\"roles\":[\"ROLE_MODERATOR\"]}",
+                "{\"username\":\"imp2\",\"email\":\"imp2@example.com\",\"passwordHash\":\"" + legacyHash + "\"}",
+                "",
+                "{\"username\":\"IMP1\",\"email\":\"other@example.com\",\"password\":\"password123\"}",
+                "{\"username\":\"existing\",\"email\":\"new@example.com\",\"password\":\"password123\"}",
+                "not json",
+                "{\"username\":\"imp3\",\"email\":\"not-an-email\"}",
+                "{\"username\":\"imp4\",\"email\":\"imp4@example.com\",\"password\":\"a\",\"passwordHash\":\"" + legacyHash + "\"}",
+                "{\"username\":\"imp5\",\"email\":\"imp5@example.com\",\"passwordHash\":\"plaintext\"}",
+                "{\"username\":\"imp6\",\"email\":\"IMP1@example.com\",\"password\":\"password123\"}");
+
+        List<JsonNode> events = importUsers(MediaType.APPLICATION_NDJSON, upload);
+
+        List<String> rejected = new ArrayList<>();
+        for (JsonNode event : events) {
+            if (event.get("type").asText().equals("rejected")) {
+                // Jackson's own wording follows the colon
+                String reason = event.get("reason").asText().replaceFirst("^(Malformed JSON record):.*", "$1");
+                rejected.add(event.get("line").asInt() + " " + reason);
+            }
+        }
+        assertEquals(List.of(
+                "4 Username is already taken!",
+                "5 Username is already taken!",
+                "6 Malformed JSON record",
+                "7 email: must be a well-formed email address",
+                "8 Exactly one of password and passwordHash is required",
+                "9 passwordHash is not a supported hash format",
+                "10 Email is already in use!"), rejected);
+        assertEquals("progress", events.get(events.size() - 2).get("type").asText());
+        JsonNode summary = events.get(events.size() - 1);
+        assertEquals("summary", summary.get("type").asText());
+        assertEquals(9, summary.get("processed").asInt());
+        assertEquals(2, summary.get("imported").asInt());
+        assertEquals(7, summary.get("rejected").asInt());
+
+        assertEquals(Set.of(Role.ROLE_MODERATOR), userRepository.findByUsername("imp1").orElseThrow().getRoles());
+        login("imp1", "password123");
+        login("imp2", "secret456");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importCsv_ParsesQuotedFieldsRolesAndEnabled() throws Exception {
+        String upload = String.join("\n",
+                "username,email,password,roles,enabled",
+                "csv1,csv1@example.com,password123,ADMIN|ROLE_USER,false",
+                "\"csv \"\"two\"\", jr\",csv2@example.com,password123,,",
+                "csv3,csv3@example.com,password123,OWNER,");
+
+        List<JsonNode> events = importUsers(new MediaType("text", "csv"), upload);
+
+        JsonNode summary = events.get(events.size() - 1);
+        assertEquals(2, summary.get("imported").asInt());
+        assertEquals("Unknown role: OWNER", events.get(0).get("reason").asText());
+        assertEquals(4, events.get(0).get("line").asInt());
+        User csv1 = userRepository.findByUsername("csv1").orElseThrow();
+        assertFalse(csv1.isEnabled());
+        assertEquals(Set.of(Role.ROLE_ADMIN, Role.ROLE_USER), csv1.getRoles());
+        assertEquals(Set.of(Role.ROLE_USER), userRepository.findByUsername("csv \"two\", jr").orElseThrow().getRoles());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importNdjson_Pbkdf2HashAboveTheVerifiedIterationCount_Rejected() throws Exception {
+        String hash = "{pbkdf2-sha256}" + new Pbkdf2IterationsPasswordEncoder(310_000).encode("secret456");
+        String tooCostly = hash.replaceFirst("}310000\\$", "}" + (PasswordHashCalibration.PBKDF2_MAX_ITERATIONS + 1) + "\\$");
+
+        List<JsonNode> events = importUsers(MediaType.APPLICATION_NDJSON, String.join("\n",
+                "{\"username\":\"pbk1\",\"email\":\"pbk1@example.com\",\"passwordHash\":\"" + hash + "\"}",
+                "{\"username\":\"pbk2\",\"email\":\"pbk2@example.com\",\"passwordHash\":\"" + tooCostly + "\"}",
+                "{\"username\":\"pbk3\",\"email\":\"pbk3@example.com\",\"passwordHash\":\"{pbkdf2-sha256}99999999999$00\"}"));
+
+        assertEquals(List.of(2, 3), events.stream()
+                .filter(event -> event.get("type").asText().equals("rejected"))
+                .map(event -> event.get("line").asInt())
+                .toList());
+        assertEquals(1, events.get(events.size() - 1).get("imported").asInt());
+        login("pbk1", "secret456");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importNdjson_BcryptAndArgon2HashesAboveTheVerifiedCost_Rejected() throws Exception {
+        String bcrypt = new BCryptPasswordEncoder(4).encode("secret456");
+        String argon2 = new Argon2PasswordEncoder(16, 32, 1, 19 * 1024, 2).encode("secret456");
+
+        List<JsonNode> events = importUsers(MediaType.APPLICATION_NDJSON, String.join("\n",
+                "{\"username\":\"cost1\",\"email\":\"cost1@example.com\",\"passwordHash\":\"{argon2}" + argon2 + "\"}",
+                "{\"username\":\"cost2\",\"email\":\"cost2@example.com\",\"passwordHash\":\""
+                        + bcrypt.replaceFirst("\\$04\\$", "\\$31\\$") + "\"}",
+                "{\"username\":\"cost3\",\"email\":\"cost3@example.com\",\"passwordHash\":\"{bcrypt}"
+                        + bcrypt.replaceFirst("\\$04\\$", "\\$15\\$") + "\"}",
+                "{\"username\":\"cost4\",\"email\":\"cost4@example.com\",\"passwordHash\":\"{argon2}"
+                        + argon2.replaceFirst(",t=2,", ",t=65,") + "\"}",
+                "{\"username\":\"cost5\",\"email\":\"cost5@example.com\",\"passwordHash\":\"{argon2}"
+                        + argon2.replaceFirst("m=19456,", "m=4194304,") + "\"}",
+                "{\"username\":\"cost6\",\"email\":\"cost6@example.com\",\"passwordHash\":\"{argon2}not-a-hash\"}"));
+
+        assertEquals(List.of(2, 3, 4, 5, 6), events.stream()
+                .filter(event -> event.get("type").asText().equals("rejected"))
+                .map(event -> event.get("line").asInt())
+                .toList());
+        login("cost1", "secret456");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importThenSignup_IdsFromTheSharedSequenceDoNotCollide() throws Exception {
+        importUsers(MediaType.APPLICATION_NDJSON,
+                "{\"username\":\"seq1\",\"email\":\"seq1@example.com\",\"password\":\"password123\"}");
+
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("seq2");
+        signup.setEmail("seq2@example.com");
+        signup.setPassword("password123");
+        mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(signup)))
+                .andExpect(status().isOk());
+
+        assertNotEquals(userRepository.findByUsername("seq1").orElseThrow().getId(),
+                userRepository.findByUsername("seq2").orElseThrow().getId());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importUsers_UnsupportedContentTypeOrCsvWithoutHeader_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/admin/users/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Content-Type must be application/x-ndjson or text/csv"));
+        mockMvc.perform(post("/api/admin/users/import")
+                        .contentType(new MediaType("text", "csv"))
+                        .content("csv1,csv1@example.com,password123"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown CSV column: csv1"));
+    }
+
+    @Test
+    @WithMockUser(roles = "MODERATOR")
+    void importUsers_WithoutAdminRole_Forbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/users/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<JsonNode> importUsers(MediaType type, String upload) throws Exception {
+        String response = mockMvc.perform(post("/api/admin/users/import")
+                        .contentType(type)
+                        .content(upload))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+
+    private void login(String username, String password) throws Exception {
+        LoginRequest login = new LoginRequest();
+        login.setUsername(username);
+        login.setPassword(password);
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.demo.integration;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+public class UserListingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+        // Even users are moderators as well, every third is disabled, and every fourth is on Corp.example
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setUsername("list" + i);
+            user.setEmail("list" + i + (i % 4 == 0 ? "@Corp.example" : "@example.com"));
+            user.setPassword("hash");
+            user.setEnabled(i % 3 != 0);
+            user.setRoles(i % 2 == 0 ? Set.of(Role.ROLE_USER, Role.ROLE_MODERATOR) : Set.of(Role.ROLE_USER));
+            userRepository.save(user);
+        }
+    }
+
+    @Test
+    void pages_FollowTheCursorToTheEndWithoutGapsOrRepeats() throws Exception {
+        List<String> usernames = new ArrayList<>();
+        Long afterId = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/admin/users").param("limit", "4");
+            if (afterId != null) {
+                request.param("afterId", afterId.toString());
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("users").forEach(user -> usernames.add(user.get("username").asText()));
+            afterId = page.get("nextAfterId").isNull() ? null : page.get("nextAfterId").asLong();
+            pages++;
+        } while (afterId != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("list0", "list1", "list2", "list3", "list4", "list5", "list6", "list7", "list8", "list9"),
+                usernames);
+    }
+
+    @Test
+    void page_CarriesEachUsersRoles() throws Exception {
+        mockMvc.perform(get("/api/admin/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("list0"))
+                .andExpect(jsonPath("$.users[0].enabled").value(false))
+                .andExpect(jsonPath("$.users[0].roles.length()").value(2))
+                .andExpect(jsonPath("$.users[1].roles[0]").value("ROLE_USER"))
+                .andExpect(jsonPath("$.users[1].password").doesNotExist());
+    }
+
+    @Test
+    void filters_RoleEnabledAndEmailDomainCombine() throws Exception {
+        // Moderators: 0, 2, 4, 6, 8; of those enabled: 2, 4, 8; of those on corp.example: 4, 8
+        mockMvc.perform(get("/api/admin/users")
+                        .param("role", "ROLE_MODERATOR")
+                        .param("enabled", "true")
+                        .param("emailDomain", "corp.EXAMPLE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.users[0].username").value("list4"))
+                .andExpect(jsonPath("$.users[1].username").value("list8"))
+                .andExpect(jsonPath("$.users[1].roles.length()").value(2))
+                .andExpect(jsonPath("$.nextAfterId").isEmpty());
+    }
+
+    @Test
+    void export_StreamsEveryMatchingUserAsNdjson() throws Exception {
+        String response = mockMvc.perform(get("/api/admin/users")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("role", "ROLE_MODERATOR")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> users = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            users.add(objectMapper.readTree(line));
+        }
+        assertEquals(5, users.size());
+        assertEquals("list0", users.get(0).get("username").asText());
+        assertEquals("list8", users.get(4).get("username").asText());
+        users.forEach(user -> assertEquals(2, user.get("roles").size()));
+        assertTrue(users.get(1).get("id").asLong() > users.get(0).get("id").asLong());
+    }
+
+    @Test
+    void export_StartsAfterTheCursor() throws Exception {
+        long afterId = userRepository.findByUsername("list7").orElseThrow().getId();
+
+        String response = mockMvc.perform(get("/api/admin/users")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("afterId", String.valueOf(afterId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(2, response.split("\n").length);
+        assertTrue(response.startsWith("{\"id\":"));
+        assertTrue(response.contains("\"username\":\"list9\""));
+    }
+
+    @Test
+    void invalidParameters_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/admin/users").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("limit must be between 1 and 1000"));
+        mockMvc.perform(get("/api/admin/users").param("emailDomain", "%"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/users").param("role", "ROLE_OWNER"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void noMatches_EmptyPageAndEmptyExport() throws Exception {
+        mockMvc.perform(get("/api/admin/users").param("emailDomain", "nowhere.example"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(0))
+                .andExpect(jsonPath("$.nextAfterId").isEmpty());
+        mockMvc.perform(get("/api/admin/users")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("emailDomain", "nowhere.example"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.demo.integration;
 
+import com.example.demo.exception.UserAlreadyExistsException;
+import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -87,4 +93,65 @@ public class UserRepositoryIntegrationTest {
         
         assertFalse(exists);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findPrincipalRowsByUsername_ReturnsOneRowPerRole() {
+        user.setRoles(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN));
+        userRepository.save(user);
+
+        List<UserRepository.PrincipalRow> rows = userRepository.findPrincipalRowsByUsername("testuser");
+
+        assertEquals(2, rows.size());
+        assertEquals(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN),
+                Set.of(rows.get(0).getRole(), rows.get(1).getRole()));
+        assertEquals("password123", rows.get(0).getPassword());
+        assertTrue(rows.get(0).isEnabled());
+        assertTrue(userRepository.findPrincipalRowsByUsername("missing").isEmpty());
+    }
+
+    @Test
+    void findPrincipalRowsByUsername_WithoutRoles_ReturnsSingleRow() {
+        userRepository.save(user);
+
+        List<UserRepository.PrincipalRow> rows = userRepository.findPrincipalRowsByUsername("testuser");
+
+        assertEquals(1, rows.size());
+        assertEquals("testuser", rows.get(0).getUsername());
+        assertNull(rows.get(0).getRole());
+    }
+
+    @Test
+    void saveUser_UsernameOrEmailDifferingOnlyInCase_ViolatesNamedConstraint() {
+        userRepository.save(user);
+
+        User sameUsername = new User();
+        sameUsername.setUsername("TESTUSER");
+        sameUsername.setEmail("other@example.com");
+        sameUsername.setPassword("password123");
+        User sameEmail = new User();
+        sameEmail.setUsername("other");
+        sameEmail.setEmail("Test@Example.COM");
+        sameEmail.setPassword("password123");
+
+        DataIntegrityViolationException usernameClash =
+                assertThrows(DataIntegrityViolationException.class, () -> userRepository.save(sameUsername));
+        DataIntegrityViolationException emailClash =
+                assertThrows(DataIntegrityViolationException.class, () -> userRepository.save(sameEmail));
+
+        assertEquals(UserAlreadyExistsException.USERNAME_TAKEN,
+                UserAlreadyExistsException.fromConstraintViolation(usernameClash).getMessage());
+        assertEquals(UserAlreadyExistsException.EMAIL_IN_USE,
+                UserAlreadyExistsException.fromConstraintViolation(emailClash).getMessage());
+    }
+
+    @Test
+    void updatePasswordIfUnchanged_OnlyReplacesExpectedHash() {
+        userRepository.save(user);
+
+        assertEquals(0, userRepository.updatePasswordIfUnchanged("testuser", "otherHash", "newHash"));
+        assertEquals("password123", userRepository.findByUsername("testuser").orElseThrow().getPassword());
+
+        assertEquals(1, userRepository.updatePasswordIfUnchanged("testuser", "password123", "newHash"));
+        assertEquals("newHash", userRepository.findByUsername("testuser").orElseThrow().getPassword());
+    }
+}
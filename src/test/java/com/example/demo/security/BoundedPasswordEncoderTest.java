@@ -0,0 +1,107 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_DelegateToBCryptAndRecordLatency() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, Duration.ofSeconds(1), registry);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, registry.get("auth.password.hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get("auth.password.hashing.duration").tag("operation", "matches").timer().count());
+        assertEquals(3, registry.get("auth.password.hashing.wait").timer().count());
+    }
+
+    @Test
+    void fullQueue_FailsFastWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(started, release), 1, 1, Duration.ofSeconds(2), registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        awaitQueueDepth(1);
+
+        PasswordHashingUnavailableException rejected =
+                assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("c", "hash"));
+
+        assertEquals(Duration.ofSeconds(2), rejected.getRetryAfter());
+        assertEquals(1.0, registry.get("auth.password.hashing.rejected").counter().count());
+        release.countDown();
+        assertEquals("encoded-a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("encoded-b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void delegateFailure_IsRethrownToCaller() {
+        PasswordEncoder failing = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new IllegalArgumentException("rawPassword cannot be null");
+            }
+        };
+        encoder = new BoundedPasswordEncoder(failing, 1, 1, Duration.ofSeconds(1), registry);
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode("a"));
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.password.hashing.queue").gauge().value() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.security;
+
+import com.example.demo.controller.AdminController;
+import com.example.demo.controller.ModeratorController;
+import com.example.demo.dto.UserListRequest;
+import com.example.demo.model.Role;
+import com.example.demo.service.PermissionService;
+import com.example.demo.service.RoleHierarchyService;
+import com.example.demo.service.UserImportService;
+import com.example.demo.service.UserListingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CompiledPreAuthorizeManagerTest {
+
+    private final CompiledPreAuthorizeManager manager =
+            new CompiledPreAuthorizeManager(() -> RoleClosure.parse("ROLE_ADMIN > ROLE_MODERATOR > ROLE_USER"));
+
+    @Test
+    void compile_RoleChecks_BecomeRoleMasks() {
+        assertEquals(RoleAuthorities.bit(Role.ROLE_ADMIN), CompiledPreAuthorizeManager.compile("hasRole('ADMIN')"));
+        assertEquals(RoleAuthorities.bit(Role.ROLE_ADMIN) | RoleAuthorities.bit(Role.ROLE_MODERATOR),
+                CompiledPreAuthorizeManager.compile("hasAnyRole('MODERATOR', 'ADMIN')"));
+        assertEquals(RoleAuthorities.bit(Role.ROLE_USER), CompiledPreAuthorizeManager.compile("hasAuthority('ROLE_USER')"));
+    }
+
+    @Test
+    void compile_OtherExpressions_AreLeftToSpel() {
+        assertEquals(-1, CompiledPreAuthorizeManager.compile("hasRole('ADMIN') and isFullyAuthenticated()"));
+        assertEquals(-1, CompiledPreAuthorizeManager.compile("hasAuthority('reports:read')"));
+        assertEquals(-1, CompiledPreAuthorizeManager.compile("hasRole('AUDITOR')"));
+        assertEquals(-1, CompiledPreAuthorizeManager.compile("hasRole('ADMIN', 'USER')"));
+    }
+
+    @Test
+    void check_ClassLevelRoleCheck_ComparesRoleMasks() throws Exception {
+        MethodInvocation reports = new SimpleMethodInvocation(new ModeratorController(),
+                ModeratorController.class.getMethod("getReports"));
+
+        assertTrue(decide(new TestingAuthenticationToken("mod", null, "ROLE_MODERATOR"), reports));
+        assertTrue(decide(new TestingAuthenticationToken("admin", null, "ROLE_USER", "ROLE_ADMIN"), reports));
+        assertFalse(decide(new TestingAuthenticationToken("user", null, "ROLE_USER"), reports));
+    }
+
+    @Test
+    void check_RoleHierarchy_AppliesToCompiledAndSpelChecks() throws Exception {
+        MethodInvocation reports = new SimpleMethodInvocation(new ModeratorController(),
+                ModeratorController.class.getMethod("getReports"));
+        MethodInvocation userOnly = new SimpleMethodInvocation(new Secured(), Secured.class.getMethod("usersOnly"));
+
+        // Only ROLE_ADMIN: reaches MODERATOR and USER through the hierarchy
+        assertTrue(decide(new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"), reports));
+        assertTrue(decide(new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"), userOnly));
+        assertFalse(decide(new TestingAuthenticationToken("user", null, "ROLE_USER"), reports));
+    }
+
+    @Test
+    void check_AdminController_RequiresAdmin() throws Exception {
+        MethodInvocation users = new SimpleMethodInvocation(
+                new AdminController(mock(TokenRevocationList.class), mock(JwtUtil.class), mock(PermissionService.class),
+                mock(RoleHierarchyService.class), mock(UserImportService.class), mock(UserListingService.class),
+                new ObjectMapper()),
+                AdminController.class.getMethod("getAllUsers", UserListRequest.class));
+
+        assertTrue(decide(new TestingAuthenticationToken("admin", null, "ROLE_ADMIN"), users));
+        assertFalse(decide(new TestingAuthenticationToken("mod", null, "ROLE_MODERATOR"), users));
+    }
+
+    @Test
+    void check_UncompiledExpression_IsEvaluatedBySpel() throws Exception {
+        MethodInvocation invocation = new SimpleMethodInvocation(new Secured(), Secured.class.getMethod("named"));
+
+        assertTrue(decide(new TestingAuthenticationToken("alice", null, "ROLE_USER"), invocation));
+        assertFalse(decide(new TestingAuthenticationToken("bob", null, "ROLE_USER"), invocation));
+    }
+
+    @Test
+    void check_WithoutAnnotation_Abstains() throws Exception {
+        MethodInvocation invocation = new SimpleMethodInvocation(new Secured(), Secured.class.getMethod("open"));
+
+        assertNull(manager.check(() -> new TestingAuthenticationToken("bob", null), invocation));
+    }
+
+    private boolean decide(Authentication authentication, MethodInvocation invocation) {
+        authentication.setAuthenticated(true);
+        AuthorizationDecision decision = manager.check(() -> authentication, invocation);
+        return decision.isGranted();
+    }
+
+    static class Secured {
+
+        @PreAuthorize("authentication.name == 'alice'")
+        public String named() {
+            return "named";
+        }
+
+        @PreAuthorize("hasRole('USER') and authentication.name != 'mallory'")
+        public String usersOnly() {
+            return "users";
+        }
+
+        public String open() {
+            return "open";
+        }
+    }
+}
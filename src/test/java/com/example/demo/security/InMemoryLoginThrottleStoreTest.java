@@ -0,0 +1,93 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryLoginThrottleStoreTest {
+
+    private final InMemoryLoginThrottleStore store = new InMemoryLoginThrottleStore(2, Duration.ofMinutes(1),
+            new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+    @Test
+    void tryAcquire_EmptyBucket_ReportsTimeUntilNextPermit() {
+        LoginThrottleStore.Limit limit = new LoginThrottleStore.Limit(2, Duration.ofSeconds(10));
+
+        assertEquals(Duration.ZERO, store.tryAcquire("key", limit));
+        assertEquals(Duration.ZERO, store.tryAcquire("key", limit));
+        Duration wait = store.tryAcquire("key", limit);
+
+        assertTrue(wait.compareTo(Duration.ofSeconds(4)) > 0, wait::toString);
+        assertTrue(wait.compareTo(Duration.ofSeconds(5)) <= 0, wait::toString);
+    }
+
+    @Test
+    void tryAcquire_RefillsOverThePeriod() throws InterruptedException {
+        LoginThrottleStore.Limit limit = new LoginThrottleStore.Limit(1, Duration.ofMillis(100));
+
+        assertEquals(Duration.ZERO, store.tryAcquire("key", limit));
+        assertNotEquals(Duration.ZERO, store.tryAcquire("key", limit));
+
+        Thread.sleep(150);
+        assertEquals(Duration.ZERO, store.tryAcquire("key", limit));
+    }
+
+    @Test
+    void tryAcquire_Concurrent_GrantsExactlyTheCapacity() throws InterruptedException {
+        LoginThrottleStore.Limit limit = new LoginThrottleStore.Limit(50, Duration.ofHours(1));
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 20; i++) {
+                    if (store.tryAcquire("key", limit).isZero()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    void backoff_DoublesAndIsCapped() {
+        LoginThrottleStore.Backoff backoff = new LoginThrottleStore.Backoff(2, Duration.ofSeconds(1),
+                Duration.ofSeconds(5));
+
+        assertEquals(Duration.ZERO, backoff.delayAfter(2));
+        assertEquals(Duration.ofSeconds(1), backoff.delayAfter(3));
+        assertEquals(Duration.ofSeconds(4), backoff.delayAfter(5));
+        assertEquals(Duration.ofSeconds(5), backoff.delayAfter(6));
+        assertEquals(Duration.ofSeconds(5), backoff.delayAfter(1000));
+    }
+
+    @Test
+    void buckets_AreBoundedInNumber() {
+        LoginThrottleStore.Limit limit = new LoginThrottleStore.Limit(1, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 100; i++) {
+            store.tryAcquire("key-" + i, limit);
+        }
+
+        assertTrue(store.size() <= 2);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.security;
 
+import com.example.demo.exception.InvalidTokenException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,7 +17,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -31,6 +35,9 @@ class JwtRequestFilterTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
     @Mock
     private HttpServletRequest request;
 
@@ -45,24 +52,27 @@ class JwtRequestFilterTest {
 
     private UserDetails userDetails;
     private String token;
+    private VerifiedToken verifiedToken;
 
     @BeforeEach
     void setUp() {
         SecurityContextHolder.clearContext();
         token = "valid.jwt.token";
         userDetails = new User("testuser", "password", new ArrayList<>());
+        verifiedToken = new VerifiedToken("testuser", 1L, Instant.now(), Instant.now().plusSeconds(60),
+                Set.of(), true, "jti-1", 0);
     }
 
     @Test
     void doFilterInternal_ValidToken_SetsAuthentication() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenReturn("testuser");
+        when(tokenCache.verify(token)).thenReturn(verifiedToken);
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken(token, userDetails)).thenReturn(true);
 
         jwtRequestFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
+        verify(tokenCache, times(1)).verify(token);
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
     }
@@ -74,7 +84,7 @@ class JwtRequestFilterTest {
         jwtRequestFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(tokenCache, never()).verify(anyString());
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
@@ -85,31 +95,77 @@ class JwtRequestFilterTest {
         jwtRequestFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(tokenCache, never()).verify(anyString());
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
     @Test
     void doFilterInternal_InvalidToken_ContinuesChain() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenThrow(new RuntimeException("Invalid token"));
+        when(tokenCache.verify(token)).thenThrow(new InvalidTokenException("Invalid token"));
 
         jwtRequestFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
     @Test
-    void doFilterInternal_ValidTokenButInvalidUser_ContinuesChain() throws ServletException, IOException {
+    void doFilterInternal_ValidTokenButDisabledUser_ContinuesChain() throws ServletException, IOException {
+        UserDetails disabled = User.withUsername("testuser").password("password").authorities(List.of())
+                .disabled(true).build();
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenCache.verify(token)).thenReturn(verifiedToken);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(disabled);
+
+        jwtRequestFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilterInternal_StatelessMode_AuthenticatesFromClaimsWithoutLookup() throws ServletException, IOException {
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenCache.verify(token)).thenReturn(verifiedToken);
+        when(jwtUtil.isStateless()).thenReturn(true);
+
+        jwtRequestFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals(1L, principal.getId());
+        assertEquals("testuser", principal.getUsername());
+    }
+
+    @Test
+    void doFilterInternal_StatelessModeTokenWithoutRoles_FallsBackToLookup() throws ServletException, IOException {
+        VerifiedToken legacyToken = new VerifiedToken("testuser", null, Instant.now(), Instant.now().plusSeconds(60),
+                null, true, null, 0);
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenReturn("testuser");
+        when(tokenCache.verify(token)).thenReturn(legacyToken);
+        when(jwtUtil.isStateless()).thenReturn(true);
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtUtil.validateToken(token, userDetails)).thenReturn(false);
+
+        jwtRequestFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userDetailsService).loadUserByUsername("testuser");
+        assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void doFilterInternal_StatelessModeDisabledUser_ContinuesChain() throws ServletException, IOException {
+        VerifiedToken disabledToken = new VerifiedToken("testuser", 1L, Instant.now(), Instant.now().plusSeconds(60),
+                Set.of(), false, "jti-2", 0);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(tokenCache.verify(token)).thenReturn(disabledToken);
+        when(jwtUtil.isStateless()).thenReturn(true);
 
         jwtRequestFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
-}
\ No newline at end of file
+}
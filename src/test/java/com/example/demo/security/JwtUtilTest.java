@@ -1,15 +1,26 @@
 package com.example.demo.security;
 
+import com.example.demo.exception.InvalidTokenException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +37,7 @@ class JwtUtilTest {
         jwtUtil = new JwtUtil();
         ReflectionTestUtils.setField(jwtUtil, "secret", SECRET_KEY);
         ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", EXPIRATION);
+        jwtUtil.init();
 
         userDetails = new User("testuser", "password", new ArrayList<>());
     }
@@ -86,4 +98,226 @@ class JwtUtilTest {
         assertNotNull(expiration);
         assertTrue(expiration.after(new Date()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void verifyToken_TokenWithClaims_ReturnsVerifiedToken() {
+        UserPrincipal principal = new UserPrincipal(42L, "testuser", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), true);
+        String token = jwtUtil.generateToken(principal);
+
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+
+        assertEquals("testuser", verified.subject());
+        assertEquals(42L, verified.userId());
+        assertTrue(verified.enabled());
+        assertNotNull(verified.issuedAt());
+        assertTrue(verified.expiration().isAfter(verified.issuedAt()));
+        assertEquals(List.of("ROLE_ADMIN"),
+                verified.authorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void verifyToken_ToPrincipal_RebuildsPrincipalWithoutPassword() {
+        UserPrincipal principal = new UserPrincipal(7L, "testuser", "password", List.of(), false);
+        String token = jwtUtil.generateToken(principal);
+
+        UserPrincipal extracted = jwtUtil.verifyToken(token).toPrincipal();
+
+        assertEquals(7L, extracted.getId());
+        assertEquals("testuser", extracted.getUsername());
+        assertNull(extracted.getPassword());
+        assertFalse(extracted.isEnabled());
+    }
+
+    @Test
+    void verifyToken_ExpiredToken_ThrowsInvalidTokenException() {
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 0L);
+        String token = jwtUtil.generateToken(userDetails);
+
+        assertThrows(InvalidTokenException.class, () -> jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void verifyToken_TamperedToken_ThrowsInvalidTokenException() {
+        String token = jwtUtil.generateToken(userDetails);
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "x." + parts[2];
+
+        assertThrows(InvalidTokenException.class, () -> jwtUtil.verifyToken(forged));
+        assertThrows(InvalidTokenException.class, () -> jwtUtil.verifyToken("invalid.token.here"));
+    }
+
+    @Test
+    void rotateSecret_OldTokensNoLongerVerify() {
+        String oldToken = jwtUtil.generateToken(userDetails);
+
+        jwtUtil.rotateSecret("7A24432646294A404E635266556A586E3272357538782F413F4428472B4B6250");
+        String newToken = jwtUtil.generateToken(userDetails);
+
+        assertThrows(InvalidTokenException.class, () -> jwtUtil.verifyToken(oldToken));
+        assertEquals("testuser", jwtUtil.verifyToken(newToken).subject());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256", "EdDSA"})
+    void asymmetricAlgorithm_SignsAndVerifies(String algorithm, @TempDir Path keyDir) {
+        JwtUtil signer = asymmetricJwtUtil(algorithm, "sign", keyDir, TestKeys.generate(algorithm));
+
+        String token = signer.generateToken(userDetails);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        assertTrue(header.contains("\"alg\":\"" + algorithm + "\""), header);
+        assertEquals("testuser", signer.verifyToken(token).subject());
+    }
+
+    @Test
+    void verifyMode_VerifiesWithPublicKeyOnlyAndCannotSign(@TempDir Path keyDir) throws Exception {
+        KeyPair keyPair = TestKeys.generate("ES256");
+        JwtUtil signer = asymmetricJwtUtil("ES256", "sign", keyDir, keyPair);
+        Path verifierDir = Files.createDirectory(keyDir.resolve("verifier"));
+        JwtUtil verifier = new JwtUtil();
+        ReflectionTestUtils.setField(verifier, "algorithm", "ES256");
+        ReflectionTestUtils.setField(verifier, "mode", "verify");
+        ReflectionTestUtils.setField(verifier, "publicKeyPath",
+                TestKeys.writePublicKey(verifierDir, "public.pem", keyPair).toString());
+        verifier.init();
+
+        String token = signer.generateToken(userDetails);
+
+        assertEquals("testuser", verifier.verifyToken(token).subject());
+        assertFalse(verifier.canIssueTokens());
+        assertThrows(IllegalStateException.class, () -> verifier.generateToken(userDetails));
+    }
+
+    @Test
+    void verifyMode_RejectsTokenSignedWithAnotherKey(@TempDir Path keyDir) throws Exception {
+        JwtUtil signer = asymmetricJwtUtil("RS256", "sign", keyDir, TestKeys.generate("RS256"));
+        Path otherDir = Files.createDirectory(keyDir.resolve("other"));
+        JwtUtil verifier = asymmetricJwtUtil("RS256", "verify", otherDir, TestKeys.generate("RS256"));
+
+        String token = signer.generateToken(userDetails);
+
+        assertThrows(InvalidTokenException.class, () -> verifier.verifyToken(token));
+    }
+
+    @Test
+    void verifyMode_WithHmacAlgorithm_FailsAtStartup() {
+        ReflectionTestUtils.setField(jwtUtil, "mode", "verify");
+
+        assertThrows(IllegalStateException.class, () -> jwtUtil.init());
+    }
+
+    @Test
+    void asymmetricAlgorithm_StampsThumbprintKidAndPublishesJwk(@TempDir Path keyDir) {
+        JwtUtil signer = asymmetricJwtUtil("ES256", "sign", keyDir, TestKeys.generate("ES256"));
+
+        String token = signer.generateToken(userDetails);
+
+        String json = signer.getJwks().json();
+        assertTrue(json.contains("\"kid\":\"" + kidOf(token) + "\""), json);
+        assertFalse(json.contains("\"d\""), "private key material must not be published");
+    }
+
+    @Test
+    void hmac_PublishesEmptyJwks() {
+        assertEquals("{\"keys\":[]}", jwtUtil.getJwks().json());
+    }
+
+    @Test
+    void keyDir_RotationKeepsTokensOfRetiredKeysValid(@TempDir Path keyDir) {
+        writeKeyPair(keyDir, "2026-01", TestKeys.generate("RS256"));
+        JwtUtil util = keyDirJwtUtil("RS256", keyDir, "sign");
+        String oldToken = util.generateToken(userDetails);
+        long generation = util.getKeyGeneration();
+
+        writeKeyPair(keyDir, "2026-02", TestKeys.generate("RS256"));
+        assertTrue(util.reloadKeys());
+        String newToken = util.generateToken(userDetails);
+
+        assertEquals("2026-01", kidOf(oldToken));
+        assertEquals("2026-02", kidOf(newToken));
+        assertEquals("testuser", util.verifyToken(oldToken).subject());
+        assertEquals("testuser", util.verifyToken(newToken).subject());
+        assertTrue(util.getKeyGeneration() > generation);
+        assertTrue(util.getJwks().json().contains("2026-01"));
+        assertTrue(util.getJwks().json().contains("2026-02"));
+    }
+
+    @Test
+    void keyDir_RemovedKeyNoLongerVerifies(@TempDir Path keyDir) throws Exception {
+        writeKeyPair(keyDir, "a", TestKeys.generate("ES256"));
+        writeKeyPair(keyDir, "b", TestKeys.generate("ES256"));
+        Files.writeString(keyDir.resolve("active-kid"), "a\n");
+        JwtUtil util = keyDirJwtUtil("ES256", keyDir, "sign");
+        String token = util.generateToken(userDetails);
+        assertEquals("a", kidOf(token));
+
+        Files.delete(keyDir.resolve("a.key.pem"));
+        Files.delete(keyDir.resolve("a.pub.pem"));
+        Files.writeString(keyDir.resolve("active-kid"), "b");
+        assertTrue(util.reloadKeys());
+
+        assertThrows(InvalidTokenException.class, () -> util.verifyToken(token));
+        assertEquals("b", kidOf(util.generateToken(userDetails)));
+    }
+
+    @Test
+    void keyDir_UnchangedOrBrokenDirectoryKeepsCurrentKeys(@TempDir Path keyDir) throws Exception {
+        writeKeyPair(keyDir, "k1", TestKeys.generate("EdDSA"));
+        JwtUtil util = keyDirJwtUtil("EdDSA", keyDir, "sign");
+        String token = util.generateToken(userDetails);
+
+        assertFalse(util.reloadKeys());
+
+        Files.writeString(keyDir.resolve("active-kid"), "missing");
+        assertFalse(util.reloadKeys());
+        assertEquals("k1", kidOf(util.generateToken(userDetails)));
+        assertEquals("testuser", util.verifyToken(token).subject());
+    }
+
+    @Test
+    void keyDir_VerifyModeIgnoresPrivateKeys(@TempDir Path keyDir) throws Exception {
+        KeyPair keyPair = TestKeys.generate("RS256");
+        writeKeyPair(keyDir, "k1", keyPair);
+        String token = keyDirJwtUtil("RS256", keyDir, "sign").generateToken(userDetails);
+        Path verifierDir = Files.createDirectory(keyDir.resolve("verifier"));
+        TestKeys.writePublicKey(verifierDir, "k1.pub.pem", keyPair);
+
+        JwtUtil verifier = keyDirJwtUtil("RS256", verifierDir, "verify");
+
+        assertEquals("testuser", verifier.verifyToken(token).subject());
+        assertFalse(verifier.canIssueTokens());
+    }
+
+    private JwtUtil keyDirJwtUtil(String algorithm, Path keyDir, String mode) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "jwtExpiration", EXPIRATION);
+        ReflectionTestUtils.setField(util, "algorithm", algorithm);
+        ReflectionTestUtils.setField(util, "mode", mode);
+        ReflectionTestUtils.setField(util, "keyDir", keyDir.toString());
+        util.init();
+        return util;
+    }
+
+    private JwtUtil asymmetricJwtUtil(String algorithm, String mode, Path keyDir, KeyPair keyPair) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "jwtExpiration", EXPIRATION);
+        ReflectionTestUtils.setField(util, "algorithm", algorithm);
+        ReflectionTestUtils.setField(util, "mode", mode);
+        ReflectionTestUtils.setField(util, "privateKeyPath", TestKeys.writePrivateKey(keyDir, "private.pem", keyPair).toString());
+        ReflectionTestUtils.setField(util, "publicKeyPath", TestKeys.writePublicKey(keyDir, "public.pem", keyPair).toString());
+        util.init();
+        return util;
+    }
+
+    private static void writeKeyPair(Path keyDir, String kid, KeyPair keyPair) {
+        TestKeys.writePrivateKey(keyDir, kid + ".key.pem", keyPair);
+        TestKeys.writePublicKey(keyDir, kid + ".pub.pem", keyPair);
+    }
+
+    private static String kidOf(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        int start = header.indexOf("\"kid\":\"") + 7;
+        return header.substring(start, header.indexOf('"', start));
+    }
+}
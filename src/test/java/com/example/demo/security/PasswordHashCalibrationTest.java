@@ -0,0 +1,101 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashCalibrationTest {
+
+    @Test
+    void withoutTarget_UsesFloorCost() {
+        PasswordHashCalibration calibration = PasswordHashCalibration.calibrate("bcrypt", null);
+
+        assertEquals("strength=10", calibration.parameters());
+        assertNull(calibration.estimatedHashTime());
+        assertTrue(calibration.encoder().encode("password123").startsWith("{bcrypt}$2a$10$"));
+    }
+
+    @Test
+    void tinyTarget_NeverGoesBelowFloor() {
+        PasswordHashCalibration calibration = PasswordHashCalibration.calibrate("bcrypt", Duration.ofNanos(1));
+
+        assertEquals("strength=10", calibration.parameters());
+        assertNotNull(calibration.estimatedHashTime());
+    }
+
+    @Test
+    void generousTarget_RaisesBcryptStrength() {
+        PasswordHashCalibration calibration = PasswordHashCalibration.calibrate("bcrypt", Duration.ofSeconds(30));
+
+        int strength = Integer.parseInt(calibration.parameters().substring("strength=".length()));
+        assertTrue(strength > PasswordHashCalibration.BCRYPT_MIN_STRENGTH, calibration.parameters());
+        assertTrue(calibration.estimatedHashTime().compareTo(Duration.ofSeconds(30)) <= 0);
+    }
+
+    @Test
+    void everyAlgorithm_RoundTripsWithItsPrefix() {
+        for (String algorithm : new String[] {"bcrypt", "pbkdf2-sha256", "argon2"}) {
+            PasswordEncoder encoder = PasswordHashCalibration.calibrate(algorithm, null).encoder();
+
+            String hash = encoder.encode("password123");
+
+            assertTrue(hash.startsWith("{" + algorithm + "}"), hash);
+            assertTrue(encoder.matches("password123", hash));
+            assertFalse(encoder.matches("wrong", hash));
+            assertFalse(encoder.upgradeEncoding(hash));
+        }
+    }
+
+    @Test
+    void legacyAndOtherAlgorithmHashes_VerifyAndNeedUpgrade() {
+        PasswordEncoder argon2 = PasswordHashCalibration.calibrate("argon2", null).encoder();
+        String legacyBcrypt = new BCryptPasswordEncoder(4).encode("password123");
+        String pbkdf2 = PasswordHashCalibration.calibrate("pbkdf2-sha256", null).encoder().encode("password123");
+
+        assertTrue(argon2.matches("password123", legacyBcrypt));
+        assertTrue(argon2.upgradeEncoding(legacyBcrypt));
+        assertTrue(argon2.matches("password123", pbkdf2));
+        assertTrue(argon2.upgradeEncoding(pbkdf2));
+    }
+
+    @Test
+    void lowerCostHashOfSameAlgorithm_NeedsUpgrade() {
+        PasswordEncoder encoder = PasswordHashCalibration.calibrate("bcrypt", null).encoder();
+
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123")));
+    }
+
+    @Test
+    void hashesAboveTheVerifiedCost_NeverMatch() {
+        PasswordEncoder encoder = PasswordHashCalibration.calibrate("bcrypt", null).encoder();
+        // Genuine hashes of the password, only their cost is too high
+        String argon2TwoLanes = new Argon2PasswordEncoder(16, 32, 2, 19 * 1024, 2).encode("password123");
+        String argon2MorePasses = new Argon2PasswordEncoder(16, 32, 1, 8 * 1024, 65).encode("password123");
+        String bcrypt = new BCryptPasswordEncoder(4).encode("password123");
+
+        assertFalse(encoder.matches("password123", "{argon2}" + argon2TwoLanes));
+        assertFalse(encoder.matches("password123", "{argon2}" + argon2MorePasses));
+        assertFalse(PasswordHashCalibration.isSupportedHash("{argon2}" + argon2TwoLanes));
+        assertFalse(PasswordHashCalibration.isSupportedHash("{argon2}" + argon2MorePasses));
+        assertTrue(PasswordHashCalibration.isSupportedHash(
+                "{argon2}" + new Argon2PasswordEncoder(16, 32, 1, 19 * 1024, 2).encode("password123")));
+
+        String overCost = bcrypt.replaceFirst("\\$04\\$", "\\$15\\$");
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertFalse(encoder.matches("password123", overCost));
+            assertFalse(encoder.matches("password123", "{bcrypt}" + overCost));
+        });
+        assertFalse(PasswordHashCalibration.isSupportedHash(overCost));
+        assertTrue(PasswordHashCalibration.isSupportedHash(bcrypt.replaceFirst("\\$04\\$", "\\$14\\$")));
+    }
+
+    @Test
+    void unknownAlgorithm_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PasswordHashCalibration.calibrate("md5", null));
+    }
+}
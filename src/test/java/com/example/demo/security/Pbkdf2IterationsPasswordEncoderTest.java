@@ -0,0 +1,40 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Pbkdf2IterationsPasswordEncoderTest {
+
+    @Test
+    void hashRecordsIterationsAndStillVerifiesAfterIncrease() {
+        String hash = new Pbkdf2IterationsPasswordEncoder(1000).encode("password123");
+        Pbkdf2IterationsPasswordEncoder stronger = new Pbkdf2IterationsPasswordEncoder(2000);
+
+        assertTrue(hash.startsWith("1000$"), hash);
+        assertTrue(stronger.matches("password123", hash));
+        assertFalse(stronger.matches("wrong", hash));
+        assertTrue(stronger.upgradeEncoding(hash));
+        assertFalse(stronger.upgradeEncoding(stronger.encode("password123")));
+    }
+
+    @Test
+    void iterationsAboveTheMaximum_NeverMatch() {
+        String hash = new Pbkdf2IterationsPasswordEncoder(5000).encode("password123");
+
+        assertEquals(4000, new Pbkdf2IterationsPasswordEncoder(1000).getMaxIterations());
+        assertFalse(new Pbkdf2IterationsPasswordEncoder(1000).matches("password123", hash));
+        assertTrue(new Pbkdf2IterationsPasswordEncoder(1000, 5000).matches("password123", hash));
+        assertFalse(new Pbkdf2IterationsPasswordEncoder(1000).matches("password123", "0$" + hash.substring(5)));
+        assertThrows(IllegalArgumentException.class, () -> new Pbkdf2IterationsPasswordEncoder(1000, 999));
+    }
+
+    @Test
+    void malformedHash_NeverMatchesAndNeedsUpgrade() {
+        Pbkdf2IterationsPasswordEncoder encoder = new Pbkdf2IterationsPasswordEncoder(1000);
+
+        assertFalse(encoder.matches("password123", "not-a-hash"));
+        assertFalse(encoder.matches("password123", "abc$def"));
+        assertTrue(encoder.upgradeEncoding("not-a-hash"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.repository.SeedMarkerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PermissionRegistryTest {
+
+    private static final int USER = RoleAuthorities.bit(Role.ROLE_USER);
+    private static final int MODERATOR = RoleAuthorities.bit(Role.ROLE_MODERATOR);
+    private static final int ADMIN = RoleAuthorities.bit(Role.ROLE_ADMIN);
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private SeedMarkerRepository seedMarkerRepository;
+
+    @InjectMocks
+    private PermissionRegistry registry;
+
+    @Test
+    void hasPermission_CombinesGrantsOfAllRoles() {
+        when(permissionRepository.findAll()).thenReturn(List.of(
+                permission("reports:read", 0, Role.ROLE_MODERATOR),
+                permission("config:write", 70, Role.ROLE_ADMIN)));
+
+        registry.reload();
+
+        assertTrue(registry.hasPermission(MODERATOR, "reports:read"));
+        assertFalse(registry.hasPermission(MODERATOR, "config:write"));
+        assertTrue(registry.hasPermission(USER | MODERATOR | ADMIN, "config:write"));
+        assertFalse(registry.hasPermission(USER, "reports:read"));
+        assertFalse(registry.hasPermission(0, "reports:read"));
+        assertFalse(registry.hasPermission(ADMIN, "unknown:permission"));
+    }
+
+    @Test
+    void reload_ReplacesCompiledSets() {
+        when(permissionRepository.findAll())
+                .thenReturn(List.of(permission("reports:read", 0, Role.ROLE_MODERATOR)))
+                .thenReturn(List.of(permission("reports:read", 0)));
+
+        registry.reload();
+        assertTrue(registry.hasPermission(MODERATOR, "reports:read"));
+
+        registry.reload();
+        assertFalse(registry.hasPermission(MODERATOR, "reports:read"));
+        assertFalse(registry.permissionsOf(MODERATOR).has(0));
+    }
+
+    @Test
+    void load_EmptyTable_SeedsDefaults() {
+        when(permissionRepository.count()).thenReturn(0L);
+
+        registry.load();
+
+        verify(permissionRepository, times(PermissionRegistry.DEFAULT_GRANTS.size())).save(any(Permission.class));
+    }
+
+    @Test
+    void load_TableEmptiedAfterSeeding_StaysEmpty() {
+        when(seedMarkerRepository.existsById(PermissionRegistry.SEED_MARKER)).thenReturn(true);
+        when(permissionRepository.findAll()).thenReturn(List.of());
+
+        registry.load();
+
+        verify(permissionRepository, never()).count();
+        verify(permissionRepository, never()).save(any(Permission.class));
+        assertFalse(registry.isDefined("reports:read"));
+    }
+
+    @Test
+    void load_ExistingPermissions_AreNotSeeded() {
+        when(permissionRepository.count()).thenReturn(2L);
+
+        registry.load();
+
+        verify(permissionRepository, never()).save(any(Permission.class));
+    }
+
+    private static Permission permission(String name, int bit, Role... roles) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        permission.setBit(bit);
+        permission.setRoles(new HashSet<>(Set.of(roles)));
+        return permission;
+    }
+}
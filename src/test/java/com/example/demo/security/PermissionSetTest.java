@@ -0,0 +1,32 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionSetTest {
+
+    @Test
+    void has_OnlySetBits() {
+        PermissionSet set = PermissionSet.of(0, 5, 63, 64, 130);
+
+        assertTrue(set.has(0));
+        assertTrue(set.has(63));
+        assertTrue(set.has(64));
+        assertTrue(set.has(130));
+        assertFalse(set.has(1));
+        assertFalse(set.has(129));
+        assertFalse(set.has(1000));
+        assertFalse(set.has(-1));
+    }
+
+    @Test
+    void union_CombinesSetsOfDifferentLengths() {
+        PermissionSet union = PermissionSet.of(1).union(PermissionSet.of(2, 100));
+
+        assertTrue(union.has(1));
+        assertTrue(union.has(2));
+        assertTrue(union.has(100));
+        assertFalse(PermissionSet.EMPTY.has(0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.security;
+
+import com.example.demo.controller.ModeratorController;
+import com.example.demo.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PolicyDecisionPointTest {
+
+    private static final int USER = RoleAuthorities.bit(Role.ROLE_USER);
+    private static final int MODERATOR = RoleAuthorities.bit(Role.ROLE_MODERATOR);
+
+    @Mock
+    private PermissionRegistry permissions;
+
+    @Mock
+    private RoleHierarchyRegistry roleHierarchy;
+
+    private PolicyDecisionPoint policy;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ModeratorController controller = new ModeratorController();
+        EndpointRules endpoints = new EndpointRules(Map.of(
+                RequestMappingInfo.paths("/api/mod/reports").methods(RequestMethod.GET).build(),
+                new HandlerMethod(controller, ModeratorController.class.getMethod("getReports")),
+                RequestMappingInfo.paths("/api/mod/content/review").methods(RequestMethod.POST).build(),
+                new HandlerMethod(controller, ModeratorController.class.getMethod("reviewContent"))));
+        RouteAuthorizationTable routes = RouteAuthorizationTable.builder()
+                .permitAll("/api/auth/**")
+                .anyRole("/api/mod/**", Role.ROLE_MODERATOR)
+                .build();
+        RoleClosure closure = RoleClosure.parse("ROLE_MODERATOR > ROLE_USER");
+        lenient().when(roleHierarchy.expand(anyInt())).thenAnswer(invocation -> closure.expand(invocation.getArgument(0)));
+        policy = new PolicyDecisionPoint(routes, endpoints, permissions, roleHierarchy);
+    }
+
+    @Test
+    void decide_PathResource_UsesRouteRules() {
+        assertEquals(PolicyDecisionPoint.Verdict.NOT_GRANTED, policy.decide(USER, "GET", "/api/mod/reports"));
+        assertEquals(PolicyDecisionPoint.Verdict.PERMIT, policy.decide(0, "POST", "/api/auth/login"));
+        verify(permissions, never()).hasPermission(anyInt(), anyString());
+    }
+
+    @Test
+    void decide_PathResource_AppliesTheEndpointsPermission() {
+        when(permissions.hasPermission(MODERATOR | USER, "content:review")).thenReturn(true);
+        when(permissions.hasPermission(MODERATOR | USER, "reports:read")).thenReturn(false);
+
+        assertEquals(PolicyDecisionPoint.Verdict.PERMIT, policy.decide(MODERATOR, "POST", "/api/mod/content/review"));
+        // The route rule allows moderators, but the permission has been revoked from them
+        assertEquals(PolicyDecisionPoint.Verdict.NOT_GRANTED, policy.decide(MODERATOR, "GET", "/api/mod/reports"));
+    }
+
+    @Test
+    void decide_PathResource_ActionMustBeServedByTheEndpoint() {
+        when(permissions.hasPermission(MODERATOR | USER, "reports:read")).thenReturn(true);
+
+        assertEquals(PolicyDecisionPoint.Verdict.PERMIT, policy.decide(MODERATOR, "get", "/api/mod/reports"));
+        assertEquals(PolicyDecisionPoint.Verdict.PERMIT, policy.decide(MODERATOR, "HEAD", "/api/mod/reports"));
+        assertEquals(PolicyDecisionPoint.Verdict.UNSUPPORTED_ACTION,
+                policy.decide(MODERATOR, "DELETE", "/api/mod/reports"));
+    }
+
+    @Test
+    void decide_PathNoEndpointServes_RouteRuleAlone() {
+        assertEquals(PolicyDecisionPoint.Verdict.PERMIT, policy.decide(MODERATOR, "GET", "/api/mod/unmapped"));
+        verify(permissions, never()).hasPermission(anyInt(), anyString());
+    }
+
+    @Test
+    void decide_TraversalOrEncodedPath_RejectedBeforeTheRouteLookup() {
+        for (String path : new String[] {
+                "/api/auth/../mod/reports",
+                "/api/auth/./../mod/reports",
+                "/api/auth/..",
+                "/api/auth/..;/mod/reports",
+                "/api/auth;x=y/../mod/reports",
+                "/api/auth/%2e%2e/mod/reports",
+                "/api/auth%2F..%2Fmod/reports",
+                "/api/auth/..\\mod/reports",
+                "/api//mod/reports",
+                "/api/auth/login?next=/api/mod/reports",
+                "/api/auth/login\n"}) {
+            assertEquals(PolicyDecisionPoint.Verdict.MALFORMED_RESOURCE, policy.decide(USER, "GET", path), path);
+        }
+    }
+
+    @Test
+    void isNormalized_AcceptsPlainPaths() {
+        assertTrue(PolicyDecisionPoint.isNormalized("/"));
+        assertTrue(PolicyDecisionPoint.isNormalized("/api/mod/reports"));
+        assertTrue(PolicyDecisionPoint.isNormalized("/api/mod/reports/"));
+        assertTrue(PolicyDecisionPoint.isNormalized("/v3/api-docs.yaml"));
+        assertTrue(PolicyDecisionPoint.isNormalized("/api/admin/permissions/audit:read"));
+        assertTrue(PolicyDecisionPoint.isNormalized("/api/.hidden/..more"));
+    }
+
+    @Test
+    void decide_PermissionResource_ChecksResourceColonAction() {
+        when(permissions.hasPermission(MODERATOR | USER, "reports:read")).thenReturn(true);
+        when(permissions.hasPermission(USER, "reports:read")).thenReturn(false);
+        when(permissions.isDefined("reports:read")).thenReturn(true);
+        when(permissions.hasPermission(MODERATOR | USER, "reports:delete")).thenReturn(false);
+        when(permissions.isDefined("reports:delete")).thenReturn(false);
+
+        assertEquals(PolicyDecisionPoint.Verdict.PERMIT, policy.decide(MODERATOR, "read", "reports"));
+        assertEquals(PolicyDecisionPoint.Verdict.NOT_GRANTED, policy.decide(USER, "read", "reports"));
+        assertEquals(PolicyDecisionPoint.Verdict.UNKNOWN_PERMISSION, policy.decide(MODERATOR, "delete", "reports"));
+    }
+}
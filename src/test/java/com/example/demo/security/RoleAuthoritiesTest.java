@@ -0,0 +1,52 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleAuthoritiesTest {
+
+    @Test
+    void authorityOf_ReturnsSameInstanceEveryTime() {
+        assertSame(RoleAuthorities.authorityOf(Role.ROLE_ADMIN), RoleAuthorities.authorityOf(Role.ROLE_ADMIN));
+        assertEquals("ROLE_ADMIN", RoleAuthorities.authorityOf(Role.ROLE_ADMIN).getAuthority());
+    }
+
+    @Test
+    void authoritiesOf_SameCombination_ReturnsSharedSet() {
+        Set<GrantedAuthority> first = RoleAuthorities.authoritiesOf(EnumSet.of(Role.ROLE_USER, Role.ROLE_MODERATOR));
+        Set<GrantedAuthority> second = RoleAuthorities.authoritiesOf(Set.of(Role.ROLE_MODERATOR, Role.ROLE_USER));
+
+        assertSame(first, second);
+        assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_MODERATOR")), first);
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    }
+
+    @Test
+    void authoritiesOf_NoRoles_ReturnsEmptySet() {
+        assertTrue(RoleAuthorities.authoritiesOf(Set.of()).isEmpty());
+        assertTrue(RoleAuthorities.authoritiesOf((Set<Role>) null).isEmpty());
+    }
+
+    @Test
+    void maskOfNames_IgnoresUnknownNames() {
+        int mask = RoleAuthorities.maskOfNames(List.of("ROLE_ADMIN", "ROLE_UNKNOWN"));
+
+        assertEquals(RoleAuthorities.bit(Role.ROLE_ADMIN), mask);
+    }
+
+    @Test
+    void maskOfAuthorities_MatchesMaskOfRoles() {
+        Set<Role> roles = EnumSet.of(Role.ROLE_ADMIN, Role.ROLE_USER);
+
+        assertEquals(RoleAuthorities.maskOf(roles),
+                RoleAuthorities.maskOfAuthorities(RoleAuthorities.authoritiesOf(roles)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleClosureTest {
+
+    private static final int USER = RoleAuthorities.bit(Role.ROLE_USER);
+    private static final int MODERATOR = RoleAuthorities.bit(Role.ROLE_MODERATOR);
+    private static final int ADMIN = RoleAuthorities.bit(Role.ROLE_ADMIN);
+
+    @Test
+    void expand_ChainIsTransitive() {
+        RoleClosure closure = RoleClosure.parse("ROLE_ADMIN > ROLE_MODERATOR > ROLE_USER");
+
+        assertEquals(ADMIN | MODERATOR | USER, closure.expand(ADMIN));
+        assertEquals(MODERATOR | USER, closure.expand(MODERATOR));
+        assertEquals(USER, closure.expand(USER));
+        assertEquals(0, closure.expand(0));
+    }
+
+    @Test
+    void parse_SeparateEdgesWithoutPrefix_MatchChain() {
+        RoleClosure closure = RoleClosure.parse(List.of("MODERATOR > USER", "ADMIN > MODERATOR"));
+
+        assertEquals(ADMIN | MODERATOR | USER, closure.expand(ADMIN));
+        assertEquals(List.of("ROLE_ADMIN > ROLE_MODERATOR", "ROLE_MODERATOR > ROLE_USER"), closure.chains());
+    }
+
+    @Test
+    void parse_InvalidHierarchies_AreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RoleClosure.parse("ROLE_ADMIN > ROLE_AUDITOR"));
+        assertThrows(IllegalArgumentException.class, () -> RoleClosure.parse("ROLE_ADMIN"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RoleClosure.parse(List.of("ROLE_ADMIN > ROLE_USER", "ROLE_USER > ROLE_ADMIN")));
+    }
+
+    @Test
+    void getReachableGrantedAuthorities_AddsIncludedRolesAndKeepsOthers() {
+        RoleClosure closure = RoleClosure.parse("ROLE_MODERATOR > ROLE_USER");
+        GrantedAuthority other = new SimpleGrantedAuthority("SCOPE_read");
+
+        assertEquals(Set.of(other, RoleAuthorities.authorityOf(Role.ROLE_MODERATOR), RoleAuthorities.authorityOf(Role.ROLE_USER)),
+                Set.copyOf(closure.getReachableGrantedAuthorities(
+                        List.of(other, RoleAuthorities.authorityOf(Role.ROLE_MODERATOR)))));
+        assertEquals(Set.of(RoleAuthorities.authorityOf(Role.ROLE_ADMIN)),
+                Set.copyOf(closure.getReachableGrantedAuthorities(List.of(RoleAuthorities.authorityOf(Role.ROLE_ADMIN)))));
+    }
+}
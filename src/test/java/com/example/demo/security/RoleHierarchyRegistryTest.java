@@ -0,0 +1,75 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.RoleInclusion;
+import com.example.demo.model.SeedMarker;
+import com.example.demo.repository.RoleInclusionRepository;
+import com.example.demo.repository.SeedMarkerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoleHierarchyRegistryTest {
+
+    private static final int USER = RoleAuthorities.bit(Role.ROLE_USER);
+    private static final int MODERATOR = RoleAuthorities.bit(Role.ROLE_MODERATOR);
+    private static final int ADMIN = RoleAuthorities.bit(Role.ROLE_ADMIN);
+
+    @Mock
+    private RoleInclusionRepository roleInclusionRepository;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private SeedMarkerRepository seedMarkerRepository;
+
+    @Test
+    void load_EmptyTable_SeedsConfiguredHierarchy() {
+        RoleHierarchyRegistry registry = new RoleHierarchyRegistry(roleInclusionRepository, seedMarkerRepository,
+                "ADMIN > MODERATOR > USER");
+        when(roleInclusionRepository.count()).thenReturn(0L);
+
+        registry.load();
+
+        verify(roleInclusionRepository, times(2)).save(any(RoleInclusion.class));
+        verify(seedMarkerRepository).save(any(SeedMarker.class));
+    }
+
+    @Test
+    void load_TableEmptiedAfterSeeding_StaysEmpty() {
+        RoleHierarchyRegistry registry = new RoleHierarchyRegistry(roleInclusionRepository, seedMarkerRepository,
+                "ADMIN > MODERATOR > USER");
+        when(seedMarkerRepository.existsById(RoleHierarchyRegistry.SEED_MARKER)).thenReturn(true);
+        when(roleInclusionRepository.findAll()).thenReturn(List.of());
+
+        registry.load();
+
+        verify(roleInclusionRepository, never()).save(any(RoleInclusion.class));
+        assertEquals(ADMIN, registry.expand(ADMIN));
+    }
+
+    @Test
+    void reload_ReplacesClosureFromTable() {
+        RoleHierarchyRegistry registry = new RoleHierarchyRegistry(roleInclusionRepository, seedMarkerRepository,
+                "ADMIN > MODERATOR > USER");
+        assertEquals(ADMIN | MODERATOR | USER, registry.expand(ADMIN));
+        when(roleInclusionRepository.count()).thenReturn(1L);
+        when(roleInclusionRepository.findAll()).thenReturn(List.of(new RoleInclusion(Role.ROLE_MODERATOR, Role.ROLE_USER)));
+
+        registry.load();
+
+        verify(roleInclusionRepository, never()).save(any(RoleInclusion.class));
+        assertEquals(ADMIN, registry.expand(ADMIN));
+        assertEquals(MODERATOR | USER, registry.expand(MODERATOR));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.security;
+
+import com.example.demo.model.Role;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteAuthorizationTableTest {
+
+    private static final RouteAuthorizationTable.AccessRule ADMIN =
+            RouteAuthorizationTable.AccessRule.anyRole(Role.ROLE_ADMIN);
+    private static final RouteAuthorizationTable.AccessRule STAFF =
+            RouteAuthorizationTable.AccessRule.anyRole(Role.ROLE_ADMIN, Role.ROLE_MODERATOR);
+    private static final RouteAuthorizationTable.AccessRule ANY_USER =
+            RouteAuthorizationTable.AccessRule.anyRole(Role.values());
+
+    private final RouteAuthorizationTable table = RouteAuthorizationTable.builder()
+            .permitAll("/api/auth/**", "/v3/api-docs.yaml", "/api/admin/status")
+            .anyRole("/api/admin/**", Role.ROLE_ADMIN)
+            .anyRole("/api/mod/**", Role.ROLE_ADMIN, Role.ROLE_MODERATOR)
+            .otherwise(ANY_USER)
+            .build();
+
+    @Test
+    void ruleFor_PrefixPattern_MatchesPrefixAndEverythingBelow() {
+        assertEquals(ADMIN, table.ruleFor("/api/admin"));
+        assertEquals(ADMIN, table.ruleFor("/api/admin/"));
+        assertEquals(ADMIN, table.ruleFor("/api/admin/users"));
+        assertEquals(STAFF, table.ruleFor("/api/mod/content/review"));
+        assertEquals(RouteAuthorizationTable.AccessRule.PERMIT_ALL, table.ruleFor("/api/auth/login"));
+    }
+
+    @Test
+    void ruleFor_MostSpecificPatternWins() {
+        assertEquals(RouteAuthorizationTable.AccessRule.PERMIT_ALL, table.ruleFor("/api/admin/status"));
+        assertEquals(ADMIN, table.ruleFor("/api/admin/status/details"));
+    }
+
+    @Test
+    void ruleFor_ExactPattern_MatchesOnlyThatPath() {
+        assertEquals(RouteAuthorizationTable.AccessRule.PERMIT_ALL, table.ruleFor("/v3/api-docs.yaml"));
+        assertEquals(ANY_USER, table.ruleFor("/v3/api-docs.yaml/x"));
+        assertEquals(ANY_USER, table.ruleFor("/v3"));
+    }
+
+    @Test
+    void ruleFor_UnmatchedPath_UsesFallback() {
+        assertEquals(ANY_USER, table.ruleFor("/"));
+        assertEquals(ANY_USER, table.ruleFor("/api/secure/resource"));
+        assertEquals(ANY_USER, table.ruleFor("/api/administrator"));
+        assertEquals(ANY_USER, table.ruleFor("/API/admin/users"));
+    }
+
+    @Test
+    void accessRule_GrantsOnAnySharedRole() {
+        assertTrue(STAFF.isGranted(RoleAuthorities.bit(Role.ROLE_MODERATOR)));
+        assertTrue(STAFF.isGranted(RoleAuthorities.bit(Role.ROLE_USER) | RoleAuthorities.bit(Role.ROLE_ADMIN)));
+        assertFalse(STAFF.isGranted(RoleAuthorities.bit(Role.ROLE_USER)));
+        assertFalse(STAFF.isGranted(0));
+        assertTrue(RouteAuthorizationTable.AccessRule.PERMIT_ALL.isGranted(0));
+    }
+
+    @Test
+    void builder_RejectsUnsupportedAndDuplicatePatterns() {
+        assertThrows(IllegalArgumentException.class, () -> RouteAuthorizationTable.builder().permitAll("/api/*/users"));
+        assertThrows(IllegalArgumentException.class, () -> RouteAuthorizationTable.builder().permitAll("api/auth/**"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RouteAuthorizationTable.builder().permitAll("/api/auth/**").anyRole("/api/auth/**", Role.ROLE_USER));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.security;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+/**
+ * Generates key pairs for each supported JWS algorithm and writes them as PEM
+ * files the way an operator would provide them.
+ */
+public final class TestKeys {
+
+    private TestKeys() {
+    }
+
+    public static KeyPair generate(String jwsAlgorithm) {
+        try {
+            String keyAlgorithm = JwtKeyLoader.keyAlgorithmFor(jwsAlgorithm);
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm);
+            if (keyAlgorithm.equals("RSA")) {
+                generator.initialize(2048);
+            } else if (keyAlgorithm.equals("EC")) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static Path writePrivateKey(Path dir, String fileName, KeyPair keyPair) {
+        return writePem(dir.resolve(fileName), "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+    }
+
+    public static Path writePublicKey(Path dir, String fileName, KeyPair keyPair) {
+        return writePem(dir.resolve(fileName), "PUBLIC KEY", keyPair.getPublic().getEncoded());
+    }
+
+    private static Path writePem(Path file, String type, byte[] der) {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der);
+        try {
+            return Files.writeString(file, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.security;
+
+import com.example.demo.model.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private InProcessRevocationChannel channel;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        channel = new InProcessRevocationChannel();
+        revocationList = newNode(4);
+    }
+
+    @Test
+    void revoke_PersistsAndIsVisibleOnEveryNode() {
+        TokenRevocationList otherNode = newNode(4);
+
+        assertTrue(revocationList.revoke("jti-1", "testuser", Instant.now().plusSeconds(60)));
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertTrue(otherNode.isRevoked("jti-1"));
+        assertFalse(otherNode.isRevoked("jti-2"));
+    }
+
+    @Test
+    void revoke_ExpiredOrWithoutId_IsIgnored() {
+        assertFalse(revocationList.revoke(null, "testuser", Instant.now().plusSeconds(60)));
+        assertFalse(revocationList.revoke("jti-1", "testuser", Instant.now().minusSeconds(1)));
+
+        verify(revokedTokenRepository, never()).save(any());
+        assertFalse(revocationList.isRevoked(null));
+        assertFalse(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void load_RestoresUnexpiredRevocations() {
+        when(revokedTokenRepository.findAllByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("jti-1", "testuser", Instant.now().plusSeconds(60), Instant.now())));
+
+        revocationList.load();
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void moreRevocationsThanExpected_GrowsFilterWithoutLosingAny() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        for (int i = 0; i < 100; i++) {
+            revocationList.revoke("jti-" + i, "testuser", expiresAt);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(revocationList.isRevoked("jti-" + i));
+        }
+        assertEquals(100, revocationList.size());
+    }
+
+    @Test
+    void pruneExpired_DropsRevocationsOfExpiredTokens() throws InterruptedException {
+        revocationList.revoke("short", "testuser", Instant.now().plusMillis(50));
+        revocationList.revoke("long", "testuser", Instant.now().plusSeconds(60));
+        Thread.sleep(100);
+
+        revocationList.pruneExpired();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertFalse(revocationList.isRevoked("short"));
+        assertTrue(revocationList.isRevoked("long"));
+        assertEquals(1, revocationList.size());
+    }
+
+    private TokenRevocationList newNode(int expectedRevocations) {
+        return new TokenRevocationList(revokedTokenRepository, channel, expectedRevocations, 0.01,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.security;
+
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private InProcessRevocationChannel channel;
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        channel = new InProcessRevocationChannel();
+        registry = newNode();
+    }
+
+    @Test
+    void isCurrent_UnknownUser_AcceptsEveryVersion() {
+        assertTrue(registry.isCurrent(1L, 0));
+        assertTrue(registry.isCurrent(null, 0));
+    }
+
+    @Test
+    void advance_RefusesOlderVersionsOnEveryNode() {
+        TokenVersionRegistry otherNode = newNode();
+
+        registry.advance(1L, "alice", 2);
+
+        assertFalse(registry.isCurrent(1L, 1));
+        assertTrue(registry.isCurrent(1L, 2));
+        assertFalse(otherNode.isCurrent(1L, 1));
+        assertTrue(otherNode.isCurrent(2L, 0));
+    }
+
+    @Test
+    void advance_OutOfOrder_KeepsHighestVersion() {
+        registry.advance(1L, "alice", 3);
+        registry.advance(1L, "alice", 2);
+
+        assertFalse(registry.isCurrent(1L, 2));
+        assertTrue(registry.isCurrent(1L, 3));
+    }
+
+    @Test
+    void advance_EvictsTheCachedPrincipalOnEveryNodeOnce() {
+        TokenVersionRegistry otherNode = newNode();
+
+        registry.advance(1L, "alice", 2);
+        // A repeated delivery, and one that is already superseded
+        channel.publish(new RevocationChannel.TokenVersionChange(1L, "alice", 2));
+        channel.publish(new RevocationChannel.TokenVersionChange(1L, "alice", 1));
+
+        // Both nodes share this mock: one eviction each
+        verify(userDetailsService, times(2)).evictUser("alice");
+        assertFalse(otherNode.isCurrent(1L, 1));
+    }
+
+    @Test
+    void load_RestoresRaisedVersions() {
+        UserRepository.TokenVersionView view = new UserRepository.TokenVersionView() {
+            @Override
+            public Long getId() {
+                return 5L;
+            }
+
+            @Override
+            public int getTokenVersion() {
+                return 4;
+            }
+        };
+        when(userRepository.findByTokenVersionGreaterThan(0)).thenReturn(List.of(view));
+
+        registry.load();
+
+        assertFalse(registry.isCurrent(5L, 3));
+        assertTrue(registry.isCurrent(5L, 4));
+    }
+
+    private TokenVersionRegistry newNode() {
+        return new TokenVersionRegistry(userRepository, channel, userDetailsService,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.repository.RevokedTokenRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class VerifiedTokenCacheTest {
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationList revocationList;
+    private TokenVersionRegistry tokenVersions;
+    private VerifiedTokenCache tokenCache;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jwtUtil = spy(new JwtUtil());
+        ReflectionTestUtils.setField(jwtUtil, "secret", "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86400000L);
+        jwtUtil.init();
+        revocationList = new TokenRevocationList(mock(RevokedTokenRepository.class), new InProcessRevocationChannel(),
+                100, 0.01, new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        tokenVersions = new TokenVersionRegistry(mock(UserRepository.class), new InProcessRevocationChannel(),
+                mock(CustomUserDetailsService.class), new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        tokenCache = new VerifiedTokenCache(jwtUtil, revocationList, tokenVersions, true, 100, Duration.ofMinutes(5),
+                mock(ObjectProvider.class));
+        userDetails = new User("testuser", "password", new ArrayList<>());
+    }
+
+    @Test
+    void verify_RepeatedToken_VerifiesOnce() {
+        String token = jwtUtil.generateToken(userDetails);
+
+        VerifiedToken first = tokenCache.verify(token);
+        VerifiedToken second = tokenCache.verify(token);
+
+        assertSame(first, second);
+        verify(jwtUtil, times(1)).verifyToken(token);
+        assertEquals(1, tokenCache.stats().hitCount());
+        assertEquals(1, tokenCache.stats().missCount());
+    }
+
+    @Test
+    void verify_TamperedToken_IsNeverCached() {
+        String token = jwtUtil.generateToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(InvalidTokenException.class, () -> tokenCache.verify(tampered));
+        assertThrows(InvalidTokenException.class, () -> tokenCache.verify(tampered));
+
+        verify(jwtUtil, times(2)).verifyToken(tampered);
+        assertEquals(0, tokenCache.stats().hitCount());
+    }
+
+    @Test
+    void verify_AfterKeyRotation_ReverifiesToken() {
+        String token = jwtUtil.generateToken(userDetails);
+        tokenCache.verify(token);
+
+        jwtUtil.rotateSecret("7A24432646294A404E635266556A586E3272357538782F413F4428472B4B6250");
+
+        assertThrows(InvalidTokenException.class, () -> tokenCache.verify(token));
+    }
+
+    @Test
+    void verify_EntryDoesNotOutliveTokenExpiry() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 1000L);
+        String token = jwtUtil.generateToken(userDetails);
+        tokenCache.verify(token);
+
+        Thread.sleep(1100);
+
+        assertThrows(InvalidTokenException.class, () -> tokenCache.verify(token));
+    }
+
+    @Test
+    void verify_RevokedWhileCached_IsRefused() {
+        String token = jwtUtil.generateToken(userDetails);
+        VerifiedToken verified = tokenCache.verify(token);
+
+        assertTrue(revocationList.revoke(verified));
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> tokenCache.verify(token));
+        assertEquals("JWT token has been revoked", e.getMessage());
+        assertDoesNotThrow(() -> tokenCache.verify(jwtUtil.generateToken(userDetails)));
+    }
+
+    @Test
+    void verify_IssuedBeforeTokenVersionAdvanced_IsRefused() {
+        String token = jwtUtil.generateToken(new UserPrincipal(7L, "testuser", null, new ArrayList<>(), true, 0));
+        assertEquals(0, tokenCache.verify(token).tokenVersion());
+
+        tokenVersions.advance(7L, "testuser", 1);
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> tokenCache.verify(token));
+        assertEquals("JWT token was issued before the user's sessions were ended", e.getMessage());
+        String reissued = jwtUtil.generateToken(new UserPrincipal(7L, "testuser", null, new ArrayList<>(), true, 1));
+        assertEquals(1, tokenCache.verify(reissued).tokenVersion());
+    }
+
+    @Test
+    void verify_CacheDisabled_DelegatesEveryCall() {
+        @SuppressWarnings("unchecked")
+        VerifiedTokenCache disabled = new VerifiedTokenCache(jwtUtil, revocationList, tokenVersions, false, 100,
+                Duration.ofMinutes(5),
+                mock(ObjectProvider.class));
+        String token = jwtUtil.generateToken(userDetails);
+
+        disabled.verify(token);
+        disabled.verify(token);
+
+        verify(jwtUtil, times(2)).verifyToken(token);
+    }
+}
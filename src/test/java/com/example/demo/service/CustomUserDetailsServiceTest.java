@@ -1,19 +1,33 @@
 package com.example.demo.service;
 
+import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.RoleAuthorities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,13 +36,16 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private CustomUserDetailsService userDetailsService;
 
     private User user;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
+        userDetailsService = new CustomUserDetailsService(userRepository, true, 100,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), mock(ObjectProvider.class));
+
         user = new User();
         user.setId(1L);
         user.setUsername("testuser");
@@ -38,7 +55,7 @@ class CustomUserDetailsServiceTest {
 
     @Test
     void loadUserByUsername_Success() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.findPrincipalRowsByUsername("testuser")).thenReturn(rowsOf(user));
 
         UserDetails userDetails = userDetailsService.loadUserByUsername("testuser");
 
@@ -50,7 +67,7 @@ class CustomUserDetailsServiceTest {
 
     @Test
     void loadUserByUsername_UserNotFound_ThrowsException() {
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        when(userRepository.findPrincipalRowsByUsername("nonexistent")).thenReturn(List.of());
 
         Exception exception = assertThrows(UsernameNotFoundException.class, () -> {
             userDetailsService.loadUserByUsername("nonexistent");
@@ -58,4 +75,97 @@ class CustomUserDetailsServiceTest {
 
         assertEquals("User not found with username: nonexistent", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadUserByUsername_RepeatedLookup_ServedFromCache() {
+        when(userRepository.findPrincipalRowsByUsername("testuser")).thenReturn(rowsOf(user));
+
+        userDetailsService.loadUserByUsername("testuser");
+        userDetailsService.loadUserByUsername("testuser");
+
+        verify(userRepository, times(1)).findPrincipalRowsByUsername("testuser");
+        assertEquals(1, userDetailsService.cacheStats().hitCount());
+    }
+
+    @Test
+    void evictUser_NextLookupReloads() {
+        when(userRepository.findPrincipalRowsByUsername("testuser")).thenReturn(rowsOf(user));
+
+        userDetailsService.loadUserByUsername("testuser");
+        userDetailsService.evictUser("testuser");
+        userDetailsService.loadUserByUsername("testuser");
+
+        verify(userRepository, times(2)).findPrincipalRowsByUsername("testuser");
+    }
+
+    @Test
+    void loadUserByUsername_ErasingCredentials_DoesNotAffectCachedEntry() {
+        when(userRepository.findPrincipalRowsByUsername("testuser")).thenReturn(rowsOf(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        ((CredentialsContainer) first).eraseCredentials();
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        assertNull(first.getPassword());
+        assertEquals("password123", second.getPassword());
+    }
+
+    @Test
+    void loadUserByUsername_WithRoles_MapsToSharedAuthorities() {
+        user.setRoles(Set.of(Role.ROLE_USER, Role.ROLE_ADMIN));
+        when(userRepository.findPrincipalRowsByUsername("testuser")).thenReturn(rowsOf(user));
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername("testuser");
+
+        assertSame(RoleAuthorities.authoritiesOf(user.getRoles()), userDetails.getAuthorities());
+        assertTrue(userDetails.getAuthorities().contains(RoleAuthorities.authorityOf(Role.ROLE_ADMIN)));
+    }
+
+    @Test
+    void loadUsersByUsernames_LoadsMissesWithOneQueryAndCachesThem() {
+        User other = new User();
+        other.setId(2L);
+        other.setUsername("other");
+        other.setPassword("secret");
+        when(userRepository.findPrincipalRowsByUsernameIn(Set.of("testuser", "other", "ghost")))
+                .thenReturn(Stream.concat(rowsOf(user).stream(), rowsOf(other).stream()).toList());
+
+        Map<String, ?> first = userDetailsService.loadUsersByUsernames(List.of("testuser", "other", "ghost"));
+        Map<String, ?> second = userDetailsService.loadUsersByUsernames(List.of("testuser", "other"));
+
+        assertEquals(Set.of("testuser", "other"), first.keySet());
+        assertEquals(Set.of("testuser", "other"), second.keySet());
+        verify(userRepository, times(1)).findPrincipalRowsByUsernameIn(anyCollection());
+        verify(userRepository, never()).findPrincipalRowsByUsername(anyString());
+    }
+
+    // What the projection query returns: one row per role, or a single row with a null role
+    private static List<UserRepository.PrincipalRow> rowsOf(User user) {
+        List<Role> roles = user.getRoles().isEmpty() ? Collections.singletonList(null) : List.copyOf(user.getRoles());
+        return roles.stream().<UserRepository.PrincipalRow>map(role -> new UserRepository.PrincipalRow() {
+            public Long getId() {
+                return user.getId();
+            }
+
+            public String getUsername() {
+                return user.getUsername();
+            }
+
+            public String getPassword() {
+                return user.getPassword();
+            }
+
+            public boolean isEnabled() {
+                return user.isEnabled();
+            }
+
+            public int getTokenVersion() {
+                return user.getTokenVersion();
+            }
+
+            public Role getRole() {
+                return role;
+            }
+        }).toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.RateLimitExceededException;
+import com.example.demo.security.InMemoryLoginThrottleStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry =
+            new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class);
+
+    @Test
+    void checkAllowed_UsernameBudgetExhausted_IsRefusedForEveryCaseVariant() {
+        LoginRateLimiter limiter = limiter(true, 2, 100, 10);
+
+        limiter.checkAllowed("alice", "10.0.0.1");
+        limiter.checkAllowed("Alice", "10.0.0.2");
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.checkAllowed(" ALICE ", "10.0.0.3"));
+        assertTrue(e.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertDoesNotThrow(() -> limiter.checkAllowed("bob", "10.0.0.3"));
+    }
+
+    @Test
+    void checkAllowed_AddressBudgetExhausted_IsRefusedForEveryUsername() {
+        LoginRateLimiter limiter = limiter(true, 100, 2, 10);
+
+        limiter.checkAllowed("alice", "10.0.0.1");
+        limiter.checkAllowed("bob", "10.0.0.1");
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.checkAllowed("carol", "10.0.0.1"));
+        assertDoesNotThrow(() -> limiter.checkAllowed("carol", "10.0.0.2"));
+    }
+
+    @Test
+    void recordFailure_PastFreeFailures_BacksOffUntilDelayElapses() throws InterruptedException {
+        LoginRateLimiter limiter = limiter(true, 100, 100, 2);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.checkAllowed("alice", "10.0.0.1");
+            limiter.recordFailure("alice");
+        }
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.checkAllowed("alice", "10.0.0.1"));
+        assertTrue(e.getRetryAfter().compareTo(Duration.ofMillis(200)) <= 0);
+        assertDoesNotThrow(() -> limiter.checkAllowed("bob", "10.0.0.1"));
+
+        Thread.sleep(250);
+        assertDoesNotThrow(() -> limiter.checkAllowed("alice", "10.0.0.1"));
+    }
+
+    @Test
+    void recordSuccess_ClearsFailures() {
+        LoginRateLimiter limiter = limiter(true, 100, 100, 2);
+
+        limiter.checkAllowed("alice", "10.0.0.1");
+        limiter.recordFailure("alice");
+        limiter.recordFailure("alice");
+        limiter.recordSuccess("alice");
+        limiter.recordFailure("alice");
+
+        assertDoesNotThrow(() -> limiter.checkAllowed("alice", "10.0.0.1"));
+    }
+
+    @Test
+    void checkAllowed_Disabled_NeverRefuses() {
+        LoginRateLimiter limiter = limiter(false, 1, 1, 0);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.checkAllowed("alice", "10.0.0.1");
+            limiter.recordFailure("alice");
+        }
+    }
+
+    private LoginRateLimiter limiter(boolean enabled, int usernameCapacity, int addressCapacity, int freeFailures) {
+        InMemoryLoginThrottleStore store = new InMemoryLoginThrottleStore(1000, Duration.ofMinutes(1), meterRegistry);
+        return new LoginRateLimiter(store, enabled, usernameCapacity, Duration.ofHours(1),
+                addressCapacity, Duration.ofHours(1), freeFailures, Duration.ofMillis(200), Duration.ofSeconds(1),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.PasswordHashingUnavailableException;
+import com.example.demo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordUpgradeServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordUpgradeService upgradeService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(registry);
+        upgradeService = new PasswordUpgradeService(userRepository, passwordEncoder, userDetailsService, 10,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upgradeService.shutdown();
+    }
+
+    @Test
+    void scheduleUpgrade_StoresNewHashInBackgroundAndEvicts() {
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}new");
+        when(userRepository.updatePasswordIfUnchanged("testuser", "old", "{bcrypt}new")).thenReturn(1);
+
+        upgradeService.scheduleUpgrade("testuser", "old", "password123");
+
+        verify(userDetailsService, timeout(Duration.ofSeconds(5).toMillis())).evictUser("testuser");
+        assertEquals(1.0, counter("upgraded"));
+    }
+
+    @Test
+    void upgrade_PasswordChangedMeanwhile_KeepsNewerHash() {
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}new");
+        when(userRepository.updatePasswordIfUnchanged("testuser", "old", "{bcrypt}new")).thenReturn(0);
+
+        assertFalse(upgradeService.upgrade("testuser", "old", "password123"));
+
+        verify(userDetailsService, never()).evictUser("testuser");
+        assertEquals(1.0, counter("stale"));
+    }
+
+    @Test
+    void upgrade_HashingPoolSaturated_IsDeferred() {
+        when(passwordEncoder.encode("password123"))
+                .thenThrow(new PasswordHashingUnavailableException(Duration.ofSeconds(1)));
+
+        assertFalse(upgradeService.upgrade("testuser", "old", "password123"));
+
+        verify(userRepository, never()).updatePasswordIfUnchanged(any(), any(), any());
+        assertEquals(1.0, counter("deferred"));
+    }
+
+    private double counter(String result) {
+        return registry.get("auth.password.upgrades").tag("result", result).counter().count();
+    }
+}
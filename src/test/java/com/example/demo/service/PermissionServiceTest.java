@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.PermissionAlreadyExistsException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Permission;
+import com.example.demo.model.Role;
+import com.example.demo.repository.PermissionRepository;
+import com.example.demo.security.PermissionRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PermissionServiceTest {
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    @Mock
+    private PermissionRegistry permissionRegistry;
+
+    @InjectMocks
+    private PermissionService permissionService;
+
+    @BeforeEach
+    void setUp() {
+        // Stands in for the transaction the service methods run in
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void create_UsesLowestFreeBitAndReloadsAfterCommit() {
+        when(permissionRepository.existsByName("audit:read")).thenReturn(false);
+        when(permissionRepository.findAll()).thenReturn(List.of(permission("a:b", 0), permission("c:d", 2)));
+        when(permissionRepository.save(any(Permission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Permission created = permissionService.create("audit:read", "Read the audit log");
+
+        assertEquals(1, created.getBit());
+        verify(permissionRegistry, never()).reload();
+        commit();
+        verify(permissionRegistry).reload();
+    }
+
+    @Test
+    void create_ExistingName_Conflicts() {
+        when(permissionRepository.existsByName("reports:read")).thenReturn(true);
+
+        assertThrows(PermissionAlreadyExistsException.class, () -> permissionService.create("reports:read", null));
+        verify(permissionRepository, never()).save(any());
+    }
+
+    @Test
+    void setRolePermissions_ReplacesTheRolesGrants() {
+        Permission reports = permission("reports:read", 0, Role.ROLE_MODERATOR);
+        Permission review = permission("content:review", 1, Role.ROLE_MODERATOR, Role.ROLE_ADMIN);
+        when(permissionRepository.existsByName("content:review")).thenReturn(true);
+        when(permissionRepository.findAll()).thenReturn(List.of(reports, review));
+
+        List<Permission> granted = permissionService.setRolePermissions(Role.ROLE_MODERATOR, Set.of("content:review"));
+
+        assertEquals(List.of(review), granted);
+        assertFalse(reports.getRoles().contains(Role.ROLE_MODERATOR));
+        assertEquals(Set.of(Role.ROLE_MODERATOR, Role.ROLE_ADMIN), review.getRoles());
+    }
+
+    @Test
+    void setRolePermissions_UnknownPermission_IsRejected() {
+        when(permissionRepository.existsByName("nope:nope")).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> permissionService.setRolePermissions(Role.ROLE_USER, Set.of("nope:nope")));
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static Permission permission(String name, int bit, Role... roles) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        permission.setBit(bit);
+        permission.setRoles(new HashSet<>(Set.of(roles)));
+        return permission;
+    }
+}
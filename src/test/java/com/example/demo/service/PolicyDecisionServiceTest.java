@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DecisionRequest;
+import com.example.demo.dto.DecisionResult;
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.model.Role;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.PolicyDecisionPoint;
+import com.example.demo.security.RoleAuthorities;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PolicyDecisionServiceTest {
+
+    private static final Instant EXPIRY = Instant.parse("2030-01-01T00:00:00Z");
+    private static final int MODERATOR = RoleAuthorities.bit(Role.ROLE_MODERATOR);
+
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private PolicyDecisionPoint policy;
+
+    private PolicyDecisionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PolicyDecisionService(tokenCache, jwtUtil, userDetailsService, policy,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void decide_Permit_CarriesValidUntilObligation() {
+        when(tokenCache.verify("mod.token")).thenReturn(token("mod"));
+        when(userDetailsService.loadUserByUsername("mod")).thenReturn(principal("mod", true));
+        when(policy.decide(MODERATOR, "read", "reports")).thenReturn(PolicyDecisionPoint.Verdict.PERMIT);
+
+        DecisionResult result = service.decide(request("Bearer mod.token", "read", "reports"));
+
+        assertEquals(DecisionResult.Decision.PERMIT, result.getDecision());
+        assertEquals("mod", result.getSubject());
+        assertEquals(List.of(new DecisionResult.Obligation("valid-until", EXPIRY.toString())), result.getObligations());
+    }
+
+    @Test
+    void decide_UnusableSubject_DeniesWithoutConsultingPolicy() {
+        when(tokenCache.verify("bad.token")).thenThrow(new InvalidTokenException("JWT token is invalid"));
+        when(tokenCache.verify("ghost.token")).thenReturn(token("ghost"));
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("ghost"));
+
+        DecisionResult invalid = service.decide(request("bad.token", "read", "reports"));
+        DecisionResult missing = service.decide(request("ghost.token", "read", "reports"));
+
+        assertEquals(DecisionResult.Decision.DENY, invalid.getDecision());
+        assertEquals("JWT token is invalid", invalid.getReason());
+        assertEquals("User not found", missing.getReason());
+        verify(policy, never()).decide(anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void decideAll_VerifiesEachTokenOnceAndLooksUpUsersOnce() {
+        when(tokenCache.verify("mod.token")).thenReturn(token("mod"));
+        when(tokenCache.verify("off.token")).thenReturn(token("off"));
+        when(userDetailsService.loadUsersByUsernames(Set.of("mod", "off"))).thenReturn(Map.of(
+                "mod", principal("mod", true),
+                "off", principal("off", false)));
+        when(policy.decide(MODERATOR, "read", "reports")).thenReturn(PolicyDecisionPoint.Verdict.PERMIT);
+        when(policy.decide(MODERATOR, "write", "config")).thenReturn(PolicyDecisionPoint.Verdict.NOT_GRANTED);
+
+        List<DecisionResult> results = service.decideAll(List.of(
+                request("mod.token", "read", "reports"),
+                request("Bearer mod.token", "write", "config"),
+                request("off.token", "read", "reports")));
+
+        assertEquals(DecisionResult.Decision.PERMIT, results.get(0).getDecision());
+        assertEquals("Not granted to the subject's roles", results.get(1).getReason());
+        assertEquals("User is disabled", results.get(2).getReason());
+        verify(tokenCache, times(1)).verify("mod.token");
+        verify(userDetailsService, times(1)).loadUsersByUsernames(anyCollection());
+    }
+
+    private static DecisionRequest request(String token, String action, String resource) {
+        DecisionRequest request = new DecisionRequest();
+        request.setToken(token);
+        request.setAction(action);
+        request.setResource(resource);
+        return request;
+    }
+
+    private static VerifiedToken token(String subject) {
+        return new VerifiedToken(subject, 1L, Instant.now(), EXPIRY,
+                RoleAuthorities.authoritiesOf(Set.of(Role.ROLE_MODERATOR)), true, "jti-" + subject, 0);
+    }
+
+    private static UserPrincipal principal(String username, boolean enabled) {
+        return new UserPrincipal(1L, username, "hash", RoleAuthorities.authoritiesOf(Set.of(Role.ROLE_MODERATOR)),
+                enabled);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.model.RefreshToken;
+import com.example.demo.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(registry);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(14), meterRegistry);
+    }
+
+    @Test
+    void issue_StoresOnlyHashOfRandomToken() {
+        Instant before = Instant.now();
+        String raw = refreshTokenService.issue("testuser");
+
+        RefreshToken stored = captureSaved();
+        assertEquals(43, raw.length());
+        assertNotEquals(raw, stored.getTokenHash());
+        assertEquals(64, stored.getTokenHash().length());
+        assertEquals("testuser", stored.getUsername());
+        assertFalse(stored.getExpiresAt().isBefore(before.plus(Duration.ofDays(14))));
+        assertNotEquals(refreshTokenService.issue("testuser"), raw);
+    }
+
+    @Test
+    void rotate_MarksTokenUsedAndIssuesSuccessorInSameFamily() {
+        RefreshToken current = storedToken();
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(current.getId()), any(Instant.class))).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw");
+
+        assertEquals("testuser", rotation.username());
+        RefreshToken successor = captureSaved();
+        assertEquals("family-1", successor.getFamilyId());
+        assertNotEquals(current.getTokenHash(), successor.getTokenHash());
+        assertEquals(1.0, registry.get("auth.refresh.tokens").tag("result", "rotated").counter().count());
+    }
+
+    @Test
+    void rotate_UsedToken_RevokesWholeFamily() {
+        RefreshToken current = storedToken();
+        current.setUsedAt(Instant.now().minusSeconds(60));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+        assertEquals(1.0, registry.get("auth.refresh.tokens").tag("result", "reused").counter().count());
+    }
+
+    @Test
+    void rotate_LostRaceForSameToken_RevokesWholeFamily() {
+        RefreshToken current = storedToken();
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(current.getId()), any(Instant.class))).thenReturn(0);
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_ReplayRevokesFamilyBeforeSuccessorIsStored_SuccessorIsRevokedToo() {
+        RefreshToken current = storedToken();
+        AtomicBoolean familyRevoked = new AtomicBoolean();
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(current.getId()), any(Instant.class))).thenReturn(1, 0);
+        when(refreshTokenRepository.revokeFamily("family-1")).thenAnswer(invocation -> {
+            familyRevoked.set(true);
+            return 1;
+        });
+        when(refreshTokenRepository.existsByFamilyIdAndRevokedTrue("family-1")).thenAnswer(invocation -> familyRevoked.get());
+        // The replay runs between the legitimate request's compare-and-set and its insert
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+            return invocation.getArgument(0);
+        });
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository, times(1)).save(any());
+        verify(refreshTokenRepository, times(2)).revokeFamily("family-1");
+        assertEquals(0.0, registry.get("auth.refresh.tokens").tag("result", "rotated").counter().count());
+    }
+
+    @Test
+    void rotate_ExpiredToken_IsRejectedWithoutRevokingFamily() {
+        RefreshToken current = storedToken();
+        current.setExpiresAt(Instant.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        assertEquals("Refresh token expired", e.getMessage());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void rotate_UnknownToken_IsRejected() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate("raw"));
+
+        verify(refreshTokenRepository, times(0)).markUsed(any(), any());
+    }
+
+    private RefreshToken storedToken() {
+        RefreshToken token = new RefreshToken();
+        token.setId(7L);
+        token.setTokenHash("hash-1");
+        token.setFamilyId("family-1");
+        token.setUsername("testuser");
+        token.setExpiresAt(Instant.now().plus(Duration.ofDays(1)));
+        return token;
+    }
+
+    private RefreshToken captureSaved() {
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, atLeastOnce()).save(saved.capture());
+        return saved.getAllValues().get(0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TokenValidationResult;
+import com.example.demo.exception.InvalidTokenException;
+import com.example.demo.model.Role;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.RoleAuthorities;
+import com.example.demo.security.UserPrincipal;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenValidationServiceTest {
+
+    private static final Instant EXPIRY = Instant.parse("2030-01-01T00:00:00Z");
+
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private TokenValidationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new TokenValidationService(tokenCache, jwtUtil, userDetailsService, 4, 16, mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void validateAll_MixedTokens_ReturnsResultsInRequestOrder() {
+        when(tokenCache.verify("alice.token")).thenReturn(token("alice"));
+        when(tokenCache.verify("bob.token")).thenReturn(token("bob"));
+        when(tokenCache.verify("ghost.token")).thenReturn(token("ghost"));
+        when(tokenCache.verify("bad.token")).thenThrow(new InvalidTokenException("JWT token is invalid"));
+        when(userDetailsService.loadUsersByUsernames(Set.of("alice", "bob", "ghost"))).thenReturn(Map.of(
+                "alice", principal("alice", true),
+                "bob", principal("bob", false)));
+
+        List<TokenValidationResult> results = service.validateAll(
+                List.of("Bearer alice.token", "bad.token", "bob.token", "ghost.token"));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isValid());
+        assertEquals("alice", results.get(0).getSubject());
+        assertEquals(List.of("ROLE_ADMIN"), results.get(0).getAuthorities());
+        assertEquals(EXPIRY, results.get(0).getExpiresAt());
+        assertEquals("JWT token is invalid", results.get(1).getReason());
+        assertEquals("User is disabled", results.get(2).getReason());
+        assertEquals("User not found", results.get(3).getReason());
+    }
+
+    @Test
+    void validateAll_LargeBatch_VerifiesDuplicatesOnceAndLooksUpUsersOnce() {
+        when(tokenCache.verify(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            return token(token.substring(0, token.indexOf('.')));
+        });
+        when(userDetailsService.loadUsersByUsernames(anyCollection()))
+                .thenAnswer(invocation -> {
+                    Map<String, UserPrincipal> users = new HashMap<>();
+                    for (Object username : (Iterable<?>) invocation.getArgument(0)) {
+                        users.put((String) username, principal((String) username, true));
+                    }
+                    return users;
+                });
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tokens.add("user" + (i % 250) + ".token");
+        }
+
+        List<TokenValidationResult> results = service.validateAll(tokens);
+
+        assertEquals(500, results.size());
+        for (int i = 0; i < 500; i++) {
+            assertTrue(results.get(i).isValid());
+            assertEquals("user" + (i % 250), results.get(i).getSubject());
+        }
+        verify(tokenCache, times(250)).verify(anyString());
+        verify(userDetailsService, times(1)).loadUsersByUsernames(anyCollection());
+    }
+
+    @Test
+    void validateAll_StatelessTokensWithRoles_SkipUserLookup() {
+        when(jwtUtil.isStateless()).thenReturn(true);
+        when(tokenCache.verify("alice.token")).thenReturn(token("alice"));
+        when(userDetailsService.loadUsersByUsernames(Set.of())).thenReturn(Map.of());
+
+        List<TokenValidationResult> results = service.validateAll(List.of("alice.token"));
+
+        assertTrue(results.get(0).isValid());
+        assertEquals(List.of("ROLE_ADMIN"), results.get(0).getAuthorities());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    private static VerifiedToken token(String subject) {
+        return new VerifiedToken(subject, 1L, Instant.now(), EXPIRY, RoleAuthorities.authoritiesOf(Set.of(Role.ROLE_ADMIN)), true,
+                "jti-" + subject, 0);
+    }
+
+    private static UserPrincipal principal(String username, boolean enabled) {
+        return new UserPrincipal(1L, username, "hash", RoleAuthorities.authoritiesOf(Set.of(Role.ROLE_ADMIN)), enabled);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.InvalidImportException;
+import com.example.demo.model.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportReaderTest {
+
+    @Test
+    void ndjson_SkipsBlankLinesAndKeepsLineNumbers() {
+        List<UserImportReader.Line> lines = readAll(UserImportReader.ndjson(new StringReader(
+                "{\"username\":\"a\",\"email\":\"a@example.com\",\"roles\":[\"ROLE_ADMIN\"]}\n\n"
+                        + "{\"username\":\"b\",\"enabled\":false}\n"), new ObjectMapper()));
+
+        assertEquals(2, lines.size());
+        assertEquals(1, lines.get(0).number());
+        assertEquals(Set.of(Role.ROLE_ADMIN), lines.get(0).record().getRoles());
+        assertEquals(3, lines.get(1).number());
+        assertFalse(lines.get(1).record().getEnabled());
+    }
+
+    @Test
+    void ndjson_MalformedLine_BecomesLineErrorAndReadingContinues() {
+        List<UserImportReader.Line> lines = readAll(UserImportReader.ndjson(new StringReader(
+                "{\"username\":\n{\"username\":\"b\"}"), new ObjectMapper()));
+
+        assertNull(lines.get(0).record());
+        assertTrue(lines.get(0).error().startsWith("Malformed JSON record"));
+        assertEquals("b", lines.get(1).record().getUsername());
+    }
+
+    @Test
+    void csv_MapsColumnsByHeaderInAnyOrder() {
+        List<UserImportReader.Line> lines = readAll(UserImportReader.csv(new StringReader(
+                "Email,username,passwordHash,roles\n"
+                        + "a@example.com,a,{bcrypt}hash,MODERATOR|ROLE_USER\n"
+                        + "b@example.com,b,,\n")));
+
+        assertEquals(2, lines.get(0).number());
+        assertEquals("a", lines.get(0).record().getUsername());
+        assertEquals("{bcrypt}hash", lines.get(0).record().getPasswordHash());
+        assertEquals(Set.of(Role.ROLE_MODERATOR, Role.ROLE_USER), lines.get(0).record().getRoles());
+        assertNull(lines.get(1).record().getPasswordHash());
+        assertNull(lines.get(1).record().getRoles());
+    }
+
+    @Test
+    void csv_BadFieldValues_BecomeLineErrors() {
+        List<UserImportReader.Line> lines = readAll(UserImportReader.csv(new StringReader(
+                "username,email,roles,enabled\n"
+                        + "a,a@example.com,OWNER,\n"
+                        + "b,b@example.com,,maybe\n")));
+
+        assertEquals("Unknown role: OWNER", lines.get(0).error());
+        assertEquals("enabled must be true or false, got: maybe", lines.get(1).error());
+    }
+
+    @Test
+    void csv_HeaderWithoutRequiredOrWithUnknownColumns_Rejected() {
+        assertThrows(InvalidImportException.class, () -> UserImportReader.csv(new StringReader("username,password\n")));
+        assertThrows(InvalidImportException.class, () -> UserImportReader.csv(new StringReader("username,email,age\n")));
+        assertThrows(InvalidImportException.class, () -> UserImportReader.csv(new StringReader("")));
+    }
+
+    @Test
+    void splitCsv_HandlesQuotesAndEscapedQuotes() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""), UserImportReader.splitCsv("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+
+    private static List<UserImportReader.Line> readAll(UserImportReader reader) {
+        List<UserImportReader.Line> lines = new ArrayList<>();
+        reader.forEachRemaining(lines::add);
+        return lines;
+    }
+}
@@ -4,17 +4,20 @@ import com.example.demo.dto.SignupRequest;
 import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.Set;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +29,15 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
     @InjectMocks
     private UserService userService;
 
@@ -48,8 +60,6 @@ class UserServiceTest {
 
     @Test
     void registerUser_Success() {
-        when(userRepository.existsByUsername(signupRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(user);
 
@@ -62,33 +72,33 @@ class UserServiceTest {
     }
 
     @Test
-    void registerUser_UsernameExists_ThrowsException() {
-        when(userRepository.existsByUsername(signupRequest.getUsername())).thenReturn(true);
+    void registerUser_Duplicate_PropagatesConstraintViolationWithoutEvicting() {
+        when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(
+                new DataIntegrityViolationException("unique violation: " + User.USERNAME_CONSTRAINT));
 
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            userService.registerUser(signupRequest);
-        });
+        assertThrows(DataIntegrityViolationException.class, () -> userService.registerUser(signupRequest));
 
-        assertEquals("Username is already taken!", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userDetailsService, never()).evictUser(anyString());
     }
 
     @Test
-    void registerUser_EmailExists_ThrowsException() {
-        when(userRepository.existsByUsername(signupRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(true);
+    void registerUser_NormalizesKeysForTheUniqueConstraints() {
+        signupRequest.setUsername("TestUser");
+        signupRequest.setEmail("Test@Example.com");
+        when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            userService.registerUser(signupRequest);
-        });
+        User result = userService.registerUser(signupRequest);
 
-        assertEquals("Email is already in use!", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        assertEquals("TestUser", result.getUsername());
+        assertEquals("testuser", result.getUsernameKey());
+        assertEquals("test@example.com", result.getEmailKey());
     }
 
     @Test
     void validateUser_ValidCredentials_ReturnsTrue() {
-        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(user));
+        when(userRepository.findPasswordByUsername("testuser")).thenReturn(java.util.Optional.of("encodedPassword"));
         when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
 
         boolean result = userService.validateUser("testuser", "password123");
@@ -98,7 +108,7 @@ class UserServiceTest {
 
     @Test
     void validateUser_InvalidCredentials_ReturnsFalse() {
-        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(user));
+        when(userRepository.findPasswordByUsername("testuser")).thenReturn(java.util.Optional.of("encodedPassword"));
         when(passwordEncoder.matches("wrongpassword", "encodedPassword")).thenReturn(false);
 
         boolean result = userService.validateUser("testuser", "wrongpassword");
@@ -108,7 +118,7 @@ class UserServiceTest {
 
     @Test
     void validateUser_UserNotFound_ReturnsFalse() {
-        when(userRepository.findByUsername("nonexistent")).thenReturn(java.util.Optional.empty());
+        when(userRepository.findPasswordByUsername("nonexistent")).thenReturn(java.util.Optional.empty());
 
         boolean result = userService.validateUser("nonexistent", "wrongpassword");
 
@@ -117,8 +127,6 @@ class UserServiceTest {
 
     @Test
     void registerUser_WithNoRoles_AssignsDefaultUserRole() {
-        when(userRepository.existsByUsername(signupRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
@@ -138,8 +146,6 @@ class UserServiceTest {
         Set<Role> customRoles = Set.of(Role.ROLE_ADMIN, Role.ROLE_MODERATOR);
         signupRequest.setRoles(customRoles);
 
-        when(userRepository.existsByUsername(signupRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
@@ -153,4 +159,86 @@ class UserServiceTest {
 
         verify(userRepository).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void changePassword_EncodesEvictsCachedUserAndRevokesRefreshTokens() {
+        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(user));
+        when(passwordEncoder.encode("newPassword")).thenReturn("newEncodedPassword");
+        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(1);
+
+        userService.changePassword("testuser", "newPassword");
+
+        assertEquals("newEncodedPassword", user.getPassword());
+        verify(userDetailsService).evictUser("testuser");
+        verify(refreshTokenService).revokeAll("testuser");
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(tokenVersions).advance(1L, "testuser", 1);
+    }
+
+    @Test
+    void setEnabled_DisablesAndEvictsCachedUser() {
+        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(1);
+
+        userService.setEnabled("testuser", false);
+
+        assertFalse(user.isEnabled());
+        verify(userDetailsService).evictUser("testuser");
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(tokenVersions).advance(1L, "testuser", 1);
+    }
+
+    @Test
+    void setEnabled_Enabling_KeepsTokenVersion() {
+        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        userService.setEnabled("testuser", true);
+
+        assertEquals(0, user.getTokenVersion());
+        verify(userRepository, never()).incrementTokenVersion(any());
+        verifyNoInteractions(tokenVersions);
+    }
+
+    @Test
+    void updateRoles_ReplacesRolesAndEvictsCachedUser() {
+        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(1);
+
+        userService.updateRoles("testuser", Set.of(Role.ROLE_MODERATOR));
+
+        assertEquals(Set.of(Role.ROLE_MODERATOR), user.getRoles());
+        verify(userDetailsService).evictUser("testuser");
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(tokenVersions).advance(1L, "testuser", 1);
+    }
+
+    @Test
+    void logoutEverywhere_AdvancesTokenVersionAndRevokesRefreshTokens() {
+        user.setTokenVersion(2);
+        when(userRepository.findByUsername("testuser")).thenReturn(java.util.Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(3);
+
+        userService.logoutEverywhere("testuser");
+
+        assertEquals(3, user.getTokenVersion());
+        verify(userDetailsService).evictUser("testuser");
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(tokenVersions).advance(1L, "testuser", 3);
+        verify(refreshTokenService).revokeAll("testuser");
+    }
+
+    @Test
+    void registerUser_EvictsCachedUser() {
+        when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.registerUser(signupRequest);
+
+        verify(userDetailsService).evictUser("testuser");
+    }
+}